@@ -0,0 +1,243 @@
+package guru.springframework.spring6restmvc.entities;
+
+import org.openjdk.jmh.annotations.*;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batched inserts into copies of {@code beer_order_line} and {@code beer_audit}, keyed either the old way (random
+ * version 4 UUIDs as {@code varchar(36)}) or the current way (version 7 UUIDs as {@code binary(16)}). MySQL runs in a
+ * container with a 32 MB buffer pool and each table is preloaded past it, so random keys have to read and split
+ * pages all over the index while time ordered keys only touch its right edge. After each trial the table and index
+ * sizes and the buffer pool misses of the measured inserts are printed.
+ * <p>
+ * Set {@code -Djmh.jdbc.url}, {@code -Djmh.jdbc.username} and {@code -Djmh.jdbc.password} to use an existing MySQL
+ * instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@OperationsPerInvocation(UuidKeyInsertBenchmark.BATCH_SIZE)
+public class UuidKeyInsertBenchmark {
+
+    static final int BATCH_SIZE = 500;
+    static final int LINES_PER_ORDER = 4;
+    static final int BEER_COUNT = 2_000;
+
+    public enum KeyType {
+        RANDOM_VARCHAR("varchar(36)") {
+            @Override
+            Object key() {
+                return UUID.randomUUID().toString();
+            }
+        },
+        TIME_ORDERED_BINARY("binary(16)") {
+            @Override
+            Object key() {
+                UUID uuid = TimeOrderedUuidGenerator.nextUuid();
+                return ByteBuffer.allocate(16)
+                        .putLong(uuid.getMostSignificantBits())
+                        .putLong(uuid.getLeastSignificantBits())
+                        .array();
+            }
+        };
+
+        final String columnType;
+
+        KeyType(String columnType) {
+            this.columnType = columnType;
+        }
+
+        abstract Object key();
+    }
+
+    @Param({"beer_order_line", "beer_audit"})
+    String table;
+
+    @Param({"RANDOM_VARCHAR", "TIME_ORDERED_BINARY"})
+    KeyType keyType;
+
+    @Param({"300000"})
+    int preloadRows;
+
+    MySQLContainer<?> mySQLContainer;
+    Connection connection;
+    PreparedStatement insert;
+    Object[] beerIds;
+    Object orderId;
+    int linesInOrder;
+    long bufferPoolReadsBefore;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        String url = System.getProperty("jmh.jdbc.url");
+        if (url == null) {
+            mySQLContainer = new MySQLContainer<>("mysql:latest")
+                    .withCommand("--innodb-buffer-pool-size=33554432");
+            mySQLContainer.start();
+            connection = DriverManager.getConnection(mySQLContainer.getJdbcUrl() + "?rewriteBatchedStatements=true",
+                    mySQLContainer.getUsername(), mySQLContainer.getPassword());
+        } else {
+            connection = DriverManager.getConnection(url, System.getProperty("jmh.jdbc.username"),
+                    System.getProperty("jmh.jdbc.password"));
+        }
+        connection.setAutoCommit(false);
+
+        beerIds = new Object[BEER_COUNT];
+        for (int i = 0; i < BEER_COUNT; i++) {
+            beerIds[i] = keyType.key();
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists bench_" + table);
+            statement.execute(createTable());
+        }
+        insert = connection.prepareStatement(insertSql());
+
+        for (int loaded = 0; loaded < preloadRows; loaded += BATCH_SIZE) {
+            insertBatch();
+        }
+        bufferPoolReadsBefore = bufferPoolReads();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        long bufferPoolReads = bufferPoolReads() - bufferPoolReadsBefore;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("analyze table bench_" + table);
+            try (ResultSet resultSet = statement.executeQuery("select table_rows, data_length, index_length " +
+                    "from information_schema.tables where table_schema = database() and table_name = 'bench_" + table + "'")) {
+                resultSet.next();
+                System.out.printf("%n%s %s: %,d rows, data %,d KB, secondary indexes %,d KB, buffer pool reads %,d%n",
+                        table, keyType, resultSet.getLong(1), resultSet.getLong(2) / 1024, resultSet.getLong(3) / 1024,
+                        bufferPoolReads);
+            }
+            statement.execute("drop table bench_" + table);
+        }
+
+        connection.close();
+        if (mySQLContainer != null) {
+            mySQLContainer.stop();
+        }
+    }
+
+    @Benchmark
+    public int[] insertBatch() throws SQLException {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            if ("beer_order_line".equals(table)) {
+                bindBeerOrderLine();
+            } else {
+                bindBeerAudit();
+            }
+            insert.addBatch();
+        }
+
+        int[] counts = insert.executeBatch();
+        connection.commit();
+        return counts;
+    }
+
+    private void bindBeerOrderLine() throws SQLException {
+        if (orderId == null || linesInOrder == LINES_PER_ORDER) {
+            orderId = keyType.key();
+            linesInOrder = 0;
+        }
+        linesInOrder++;
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        insert.setObject(1, keyType.key());
+        insert.setObject(2, beerIds[ThreadLocalRandom.current().nextInt(BEER_COUNT)]);
+        insert.setObject(3, orderId);
+        insert.setTimestamp(4, now);
+        insert.setTimestamp(5, now);
+        insert.setInt(6, 1 + ThreadLocalRandom.current().nextInt(24));
+        insert.setInt(7, 0);
+        insert.setString(8, "NEW");
+        insert.setLong(9, 0);
+    }
+
+    private void bindBeerAudit() throws SQLException {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        insert.setObject(1, keyType.key());
+        insert.setObject(2, beerIds[ThreadLocalRandom.current().nextInt(BEER_COUNT)]);
+        insert.setInt(3, 1);
+        insert.setString(4, "Mango Bobs");
+        insert.setInt(5, 3);
+        insert.setString(6, "0631234200036");
+        insert.setInt(7, 144);
+        insert.setBigDecimal(8, new BigDecimal("12.99"));
+        insert.setTimestamp(9, now);
+        insert.setTimestamp(10, now);
+        insert.setTimestamp(11, now);
+        insert.setString(12, "messaging-client");
+        insert.setString(13, "BEER_UPDATED");
+    }
+
+    private String createTable() {
+        String key = keyType.columnType;
+        if ("beer_order_line".equals(table)) {
+            return "create table bench_beer_order_line (" +
+                    "id " + key + " not null, " +
+                    "beer_id " + key + ", " +
+                    "beer_order_id " + key + ", " +
+                    "create_date datetime(6), " +
+                    "update_date datetime(6), " +
+                    "order_quantity int, " +
+                    "quantity_allocated int, " +
+                    "order_line_status varchar(100), " +
+                    "version bigint, " +
+                    "primary key (id), " +
+                    "index (beer_id), " +
+                    "index (beer_order_id)" +
+                    ") engine = InnoDB";
+        }
+        return "create table bench_beer_audit (" +
+                "audit_id " + key + " not null, " +
+                "id " + key + " not null, " +
+                "version integer, " +
+                "beer_name varchar(50) not null, " +
+                "beer_style smallint not null, " +
+                "upc varchar(255) not null, " +
+                "quantity_on_hand integer, " +
+                "price decimal(38, 2) not null, " +
+                "create_date datetime(6), " +
+                "update_date datetime(6), " +
+                "create_date_audit datetime(6), " +
+                "principal_name varchar(255) not null, " +
+                "audit_event_type varchar(255) not null, " +
+                "primary key (audit_id)" +
+                ") engine = InnoDB";
+    }
+
+    private String insertSql() {
+        if ("beer_order_line".equals(table)) {
+            return "insert into bench_beer_order_line (id, beer_id, beer_order_id, create_date, update_date, " +
+                    "order_quantity, quantity_allocated, order_line_status, version) values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        }
+        return "insert into bench_beer_audit (audit_id, id, version, beer_name, beer_style, upc, quantity_on_hand, " +
+                "price, create_date, update_date, create_date_audit, principal_name, audit_event_type) " +
+                "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    }
+
+    private long bufferPoolReads() throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("show global status like 'Innodb_buffer_pool_reads'")) {
+            return resultSet.next() ? resultSet.getLong(2) : 0;
+        }
+    }
+}
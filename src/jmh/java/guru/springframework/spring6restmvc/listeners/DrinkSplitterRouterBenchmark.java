@@ -0,0 +1,78 @@
+package guru.springframework.spring6restmvc.listeners;
+
+import guru.springframework.spring6restmvc.configs.DrinkRoutingProperties;
+import guru.springframework.spring6restmvcapi.events.OrderPlacedEvent;
+import guru.springframework.spring6restmvcapi.models.BeerDTO;
+import guru.springframework.spring6restmvcapi.models.BeerOrderDTO;
+import guru.springframework.spring6restmvcapi.models.BeerOrderLineDTO;
+import guru.springframework.spring6restmvcapi.models.BeerStyle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Routing cost of {@link DrinkSplitterRouter#receive} without a broker, sends go to a {@link Blackhole}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DrinkSplitterRouterBenchmark {
+
+    @Param({"1", "10", "50"})
+    int lineCount;
+
+    DrinkSplitterRouter drinkSplitterRouter;
+    OrderPlacedEvent orderPlacedEvent;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        drinkSplitterRouter = new DrinkSplitterRouter(new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(Map.of())) {
+            @Override
+            public CompletableFuture<SendResult<String, Object>> send(String topic, String key, Object data) {
+                blackhole.consume(topic);
+                blackhole.consume(key);
+                blackhole.consume(data);
+                return CompletableFuture.completedFuture(null);
+            }
+        }, new DrinkRouteTable(new DrinkRoutingProperties()), new SimpleMeterRegistry(), Duration.ofSeconds(10));
+
+        Set<BeerOrderLineDTO> beerOrderLines = new HashSet<>();
+        for (int i = 0; i < lineCount; i++) {
+            beerOrderLines.add(BeerOrderLineDTO.builder()
+                    .id(UUID.randomUUID())
+                    .orderQuantity(1)
+                    .beer(BeerDTO.builder()
+                            .id(UUID.randomUUID())
+                            .beerName("Beer " + i)
+                            .beerStyle(BeerStyle.values()[i % BeerStyle.values().length])
+                            .build())
+                    .build());
+        }
+
+        orderPlacedEvent = OrderPlacedEvent.builder()
+                .beerOrderDTO(BeerOrderDTO.builder()
+                        .id(UUID.randomUUID())
+                        .beerOrderLines(beerOrderLines)
+                        .build())
+                .build();
+    }
+
+    @Benchmark
+    public void receive(Blackhole blackhole) {
+        blackhole.consume(drinkSplitterRouter.receive(orderPlacedEvent));
+    }
+}
@@ -0,0 +1,50 @@
+package guru.springframework.spring6restmvc.mappers;
+
+import guru.springframework.spring6restmvc.entities.Beer;
+import guru.springframework.spring6restmvcapi.models.BeerDTO;
+import guru.springframework.spring6restmvcapi.models.BeerStyle;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeerMapperBenchmark {
+
+    BeerMapper beerMapper = new BeerMapperImpl();
+    Beer beer;
+    BeerDTO beerDTO;
+
+    @Setup
+    public void setUp() {
+        beer = Beer.builder()
+                .id(UUID.randomUUID())
+                .version(1)
+                .beerName("Galaxy Cat")
+                .beerStyle(BeerStyle.PALE_ALE)
+                .upc("12356")
+                .price(new BigDecimal("12.99"))
+                .quantityOnHand(122)
+                .createDate(LocalDateTime.now())
+                .updateDate(LocalDateTime.now())
+                .build();
+        beerDTO = beerMapper.beerToBeerDTO(beer);
+    }
+
+    @Benchmark
+    public BeerDTO beerToBeerDTO() {
+        return beerMapper.beerToBeerDTO(beer);
+    }
+
+    @Benchmark
+    public Beer beerDtoToBeer() {
+        return beerMapper.beerDtoToBeer(beerDTO);
+    }
+}
@@ -0,0 +1,83 @@
+package guru.springframework.spring6restmvc.mappers;
+
+import guru.springframework.spring6restmvc.entities.*;
+import guru.springframework.spring6restmvcapi.models.BeerOrderDTO;
+import guru.springframework.spring6restmvcapi.models.BeerStyle;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeerOrderMapperBenchmark {
+
+    @Param({"1", "10", "50"})
+    int lineCount;
+
+    BeerOrderMapper beerOrderMapper = new BeerOrderMapperImpl();
+    BeerOrder beerOrder;
+    BeerOrderDTO beerOrderDTO;
+
+    @Setup
+    public void setUp() {
+        Customer customer = Customer.builder()
+                .id(UUID.randomUUID())
+                .version(1)
+                .customerName("Cem")
+                .createDate(LocalDateTime.now())
+                .updateDate(LocalDateTime.now())
+                .build();
+
+        Set<BeerOrderLine> beerOrderLines = new HashSet<>();
+        for (int i = 0; i < lineCount; i++) {
+            beerOrderLines.add(BeerOrderLine.builder()
+                    .id(UUID.randomUUID())
+                    .version(0L)
+                    .orderQuantity(i + 1)
+                    .quantityAllocated(0)
+                    .beer(Beer.builder()
+                            .id(UUID.randomUUID())
+                            .version(1)
+                            .beerName("Beer " + i)
+                            .beerStyle(BeerStyle.values()[i % BeerStyle.values().length])
+                            .upc(String.valueOf(i))
+                            .price(new BigDecimal("12.99"))
+                            .quantityOnHand(100)
+                            .build())
+                    .build());
+        }
+
+        beerOrder = BeerOrder.builder()
+                .id(UUID.randomUUID())
+                .version(0L)
+                .customerRef("benchmark")
+                .customer(customer)
+                .beerOrderLines(beerOrderLines)
+                .beerOrderShipment(BeerOrderShipment.builder()
+                        .id(UUID.randomUUID())
+                        .trackingNumber("1Z999")
+                        .build())
+                .paymentAmount(new BigDecimal("99.99"))
+                .build();
+        beerOrderDTO = beerOrderMapper.beerOrderToBeerOrderDto(beerOrder);
+    }
+
+    @Benchmark
+    public BeerOrderDTO beerOrderToBeerOrderDto() {
+        return beerOrderMapper.beerOrderToBeerOrderDto(beerOrder);
+    }
+
+    @Benchmark
+    public BeerOrder beerOrderDtoToBeerOrder() {
+        return beerOrderMapper.beerOrderDtoToBeerOrder(beerOrderDTO);
+    }
+}
@@ -0,0 +1,138 @@
+package guru.springframework.spring6restmvc.serializers;
+
+import guru.springframework.spring6restmvc.configs.KafkaConfig;
+import guru.springframework.spring6restmvc.entities.*;
+import guru.springframework.spring6restmvc.mappers.BeerOrderMapper;
+import guru.springframework.spring6restmvc.mappers.BeerOrderMapperImpl;
+import guru.springframework.spring6restmvcapi.events.OrderPlacedEvent;
+import guru.springframework.spring6restmvcapi.models.BeerStyle;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode cost of an {@link OrderPlacedEvent} with the JSON serializer (including its type header) and
+ * with {@link BinaryEventSerializer}. Bytes per message, value plus headers, are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventSerializationBenchmark {
+
+    @Param({"1", "10", "50"})
+    int lineCount;
+
+    JsonSerializer<Object> jsonSerializer;
+    JsonDeserializer<Object> jsonDeserializer;
+    BinaryEventSerializer binaryEventSerializer;
+    BinaryEventDeserializer binaryEventDeserializer;
+
+    OrderPlacedEvent orderPlacedEvent;
+    RecordHeaders jsonHeaders;
+    byte[] json;
+    byte[] binary;
+
+    @Setup
+    public void setUp() {
+        jsonSerializer = new JsonSerializer<>();
+        jsonDeserializer = new JsonDeserializer<>();
+        jsonDeserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "*"), false);
+        binaryEventSerializer = new BinaryEventSerializer();
+        binaryEventDeserializer = new BinaryEventDeserializer();
+
+        orderPlacedEvent = OrderPlacedEvent.builder()
+                .beerOrderDTO(beerOrderMapper().beerOrderToBeerOrderDto(beerOrder()))
+                .build();
+
+        jsonHeaders = new RecordHeaders();
+        json = jsonSerializer.serialize(KafkaConfig.ORDER_PLACED_TOPIC, jsonHeaders, orderPlacedEvent);
+        binary = binaryEventSerializer.serialize(KafkaConfig.ORDER_PLACED_TOPIC, orderPlacedEvent);
+
+        int jsonHeaderBytes = 0;
+        for (Header header : jsonHeaders) {
+            jsonHeaderBytes += header.key().getBytes(StandardCharsets.UTF_8).length + header.value().length;
+        }
+        System.out.printf("%n%d order lines: json %d bytes + %d header bytes, binary %d bytes%n",
+                lineCount, json.length, jsonHeaderBytes, binary.length);
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() {
+        return jsonSerializer.serialize(KafkaConfig.ORDER_PLACED_TOPIC, new RecordHeaders(), orderPlacedEvent);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return binaryEventSerializer.serialize(KafkaConfig.ORDER_PLACED_TOPIC, orderPlacedEvent);
+    }
+
+    @Benchmark
+    public Object jsonDecode() {
+        return jsonDeserializer.deserialize(KafkaConfig.ORDER_PLACED_TOPIC, jsonHeaders, json);
+    }
+
+    @Benchmark
+    public Object binaryDecode() {
+        return binaryEventDeserializer.deserialize(KafkaConfig.ORDER_PLACED_TOPIC, binary);
+    }
+
+    BeerOrderMapper beerOrderMapper() {
+        return new BeerOrderMapperImpl();
+    }
+
+    BeerOrder beerOrder() {
+        Set<BeerOrderLine> beerOrderLines = new HashSet<>();
+        for (int i = 0; i < lineCount; i++) {
+            beerOrderLines.add(BeerOrderLine.builder()
+                    .id(UUID.randomUUID())
+                    .version(0L)
+                    .orderQuantity(i + 1)
+                    .quantityAllocated(0)
+                    .beer(Beer.builder()
+                            .id(UUID.randomUUID())
+                            .version(1)
+                            .beerName("Beer " + i)
+                            .beerStyle(BeerStyle.values()[i % BeerStyle.values().length])
+                            .upc(String.valueOf(i))
+                            .price(new BigDecimal("12.99"))
+                            .quantityOnHand(100)
+                            .createDate(LocalDateTime.now())
+                            .updateDate(LocalDateTime.now())
+                            .build())
+                    .build());
+        }
+
+        return BeerOrder.builder()
+                .id(UUID.randomUUID())
+                .version(0L)
+                .customerRef("benchmark")
+                .customer(Customer.builder()
+                        .id(UUID.randomUUID())
+                        .version(1)
+                        .customerName("Cem")
+                        .createDate(LocalDateTime.now())
+                        .updateDate(LocalDateTime.now())
+                        .build())
+                .beerOrderLines(beerOrderLines)
+                .beerOrderShipment(BeerOrderShipment.builder()
+                        .id(UUID.randomUUID())
+                        .trackingNumber("1Z999")
+                        .build())
+                .paymentAmount(new BigDecimal("99.99"))
+                .build();
+    }
+}
@@ -0,0 +1,42 @@
+package guru.springframework.spring6restmvc.services;
+
+import guru.springframework.spring6restmvc.models.BeerCSVRecord;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.ResourceUtils;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BeerCsvServiceImplBenchmark {
+
+    BeerCsvService beerCsvService = new BeerCsvServiceImpl();
+    File file;
+
+    @Setup
+    public void setUp() throws FileNotFoundException {
+        file = ResourceUtils.getFile("classpath:csvdata/beers.csv");
+    }
+
+    @Benchmark
+    public List<BeerCSVRecord> convertCSV() {
+        return beerCsvService.convertCSV(file);
+    }
+
+    @Benchmark
+    public long streamCSV() throws IOException {
+        try (Reader reader = new FileReader(file)) {
+            return beerCsvService.streamCSV(reader).count();
+        }
+    }
+}
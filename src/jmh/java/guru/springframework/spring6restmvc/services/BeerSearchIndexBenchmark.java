@@ -0,0 +1,61 @@
+package guru.springframework.spring6restmvc.services;
+
+import guru.springframework.spring6restmvc.Spring6RestMvcApplication;
+import guru.springframework.spring6restmvc.entities.Beer;
+import guru.springframework.spring6restmvc.repositories.BeerRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Substring search over the bootstrapped H2 catalog, {@link BeerSearchIndex} against the leading wildcard
+ * LIKE query it replaces.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BeerSearchIndexBenchmark {
+
+    @Param({"IPA", "Pale", "Stout", "Brewing"})
+    String term;
+
+    ConfigurableApplicationContext applicationContext;
+    BeerRepository beerRepository;
+    BeerSearchIndex beerSearchIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        applicationContext = new SpringApplicationBuilder(Spring6RestMvcApplication.class)
+                .properties("server.port=0",
+                        "spring.kafka.listener.auto-startup=false",
+                        "logging.level.guru.springframework=warn",
+                        "logging.level.org.zalando.logbook=warn")
+                .run();
+        beerRepository = applicationContext.getBean(BeerRepository.class);
+        beerSearchIndex = applicationContext.getBean(BeerSearchIndex.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        applicationContext.close();
+    }
+
+    @Benchmark
+    public Page<Beer> like() {
+        return beerRepository.findAllByBeerNameIsLike("%" + term + "%", PageRequest.of(0, 25));
+    }
+
+    @Benchmark
+    public Optional<List<BeerSearchIndex.IndexedBeer>> index() {
+        return beerSearchIndex.search(term, null);
+    }
+}
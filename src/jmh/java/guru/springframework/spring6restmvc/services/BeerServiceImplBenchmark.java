@@ -0,0 +1,74 @@
+package guru.springframework.spring6restmvc.services;
+
+import guru.springframework.spring6restmvcapi.models.BeerDTO;
+import guru.springframework.spring6restmvcapi.models.BeerStyle;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeerServiceImplBenchmark {
+
+    @Param({"3", "1000"})
+    int beerCount;
+
+    BeerService beerService;
+    UUID beerId;
+    BeerDTO beerUpdate;
+
+    @Setup
+    public void setUp() {
+        beerService = new BeerServiceImpl();
+        for (int i = 3; i < beerCount; i++) {
+            beerService.saveBeer(newBeer(i));
+        }
+        beerId = beerService.saveBeer(newBeer(beerCount)).getId();
+        beerUpdate = newBeer(beerCount + 1);
+    }
+
+    @Benchmark
+    public Page<BeerDTO> getAllBeers() {
+        return beerService.getAllBeers(null, null, false, 1, 25);
+    }
+
+    @Benchmark
+    public Slice<BeerDTO> getBeersAfterByName() {
+        return beerService.getBeersAfter("Beer 1", null, false, null, 25);
+    }
+
+    @Benchmark
+    public Optional<BeerDTO> getBeerById() {
+        return beerService.getBeerById(beerId);
+    }
+
+    @Benchmark
+    public Optional<BeerDTO> updateBeerById() {
+        return beerService.updateBeerById(beerId, beerUpdate);
+    }
+
+    @Benchmark
+    public Boolean saveAndDeleteBeer() {
+        return beerService.deleteBeerById(beerService.saveBeer(beerUpdate).getId());
+    }
+
+    private static BeerDTO newBeer(int i) {
+        return BeerDTO.builder()
+                .version(1)
+                .beerName("Beer " + i)
+                .beerStyle(BeerStyle.values()[i % BeerStyle.values().length])
+                .upc(String.valueOf(i))
+                .price(new BigDecimal("12.99"))
+                .quantityOnHand(100)
+                .build();
+    }
+}
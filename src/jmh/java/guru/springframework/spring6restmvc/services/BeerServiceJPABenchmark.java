@@ -0,0 +1,61 @@
+package guru.springframework.spring6restmvc.services;
+
+import guru.springframework.spring6restmvc.Spring6RestMvcApplication;
+import guru.springframework.spring6restmvcapi.models.BeerDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BeerServiceJPA#getAllBeers} against the bootstrapped H2 catalog, with and without the beer list cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BeerServiceJPABenchmark {
+
+    @Param({"", "IPA"})
+    String beerName;
+
+    @Param({"true", "false"})
+    boolean cached;
+
+    ConfigurableApplicationContext applicationContext;
+    BeerService beerService;
+    BeerListCache beerListCache;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        applicationContext = new SpringApplicationBuilder(Spring6RestMvcApplication.class)
+                .properties("server.port=0",
+                        "spring.kafka.listener.auto-startup=false",
+                        "logging.level.guru.springframework=warn",
+                        "logging.level.org.zalando.logbook=warn")
+                .run();
+        beerService = applicationContext.getBean(BeerService.class);
+        beerListCache = applicationContext.getBean(BeerListCache.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearCache() {
+        if (!cached) {
+            beerListCache.clear();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        applicationContext.close();
+    }
+
+    @Benchmark
+    public Page<BeerDTO> getAllBeers() {
+        return beerService.getAllBeers(beerName, null, false, 1, 25);
+    }
+}
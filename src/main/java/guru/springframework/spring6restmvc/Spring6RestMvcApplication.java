@@ -3,8 +3,10 @@ package guru.springframework.spring6restmvc;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.core.Ordered;
 
-@EnableCaching
+// the cache interceptor runs outside the transaction interceptor, so a cache hit doesn't begin a transaction
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
 @SpringBootApplication
 public class Spring6RestMvcApplication {
 
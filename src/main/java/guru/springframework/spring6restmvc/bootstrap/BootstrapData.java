@@ -4,26 +4,24 @@ import guru.springframework.spring6restmvc.entities.Beer;
 import guru.springframework.spring6restmvc.entities.BeerOrder;
 import guru.springframework.spring6restmvc.entities.BeerOrderLine;
 import guru.springframework.spring6restmvc.entities.Customer;
-import guru.springframework.spring6restmvc.models.BeerCSVRecord;
 import guru.springframework.spring6restmvc.repositories.BeerOrderRepository;
 import guru.springframework.spring6restmvc.repositories.BeerRepository;
 import guru.springframework.spring6restmvc.repositories.CustomerRepository;
-import guru.springframework.spring6restmvc.services.BeerCsvService;
+import guru.springframework.spring6restmvc.services.BeerCsvImportService;
 import guru.springframework.spring6restmvcapi.models.BeerStyle;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.val;
-import org.apache.commons.lang3.StringUtils;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.ResourceUtils;
 
-import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
-import java.util.List;
 import java.util.Set;
 
 @Component
@@ -32,16 +30,17 @@ public class BootstrapData implements CommandLineRunner {
 
     private final BeerRepository beerRepository;
     private final CustomerRepository customerRepository;
-    private final BeerCsvService beerCsvService;
+    private final BeerCsvImportService beerCsvImportService;
     private final BeerOrderRepository beerOrderRepository;
+    private final TransactionTemplate transactionTemplate;
 
-    @Transactional
     @Override
     public void run(String... args) throws Exception {
         loadBeerData();
         loadCsvData();
         loadCustomerData();
-        loadOrderData();
+        // the CSV import commits chunk by chunk, only the orders need a transaction spanning their lookups
+        transactionTemplate.executeWithoutResult(status -> loadOrderData());
     }
 
     private void loadOrderData() {
@@ -74,32 +73,11 @@ public class BootstrapData implements CommandLineRunner {
         }
     }
 
-    private void loadCsvData() throws FileNotFoundException {
+    private void loadCsvData() throws IOException {
         if (beerRepository.count() < 10) {
-            File file = ResourceUtils.getFile("classpath:csvdata/beers.csv");
-            List<BeerCSVRecord> beerCSVRecords = beerCsvService.convertCSV(file);
-            beerCSVRecords.forEach(beerCSVRecord -> {
-                BeerStyle beerStyle = switch (beerCSVRecord.getStyle()) {
-                    case "American Pale Lager" -> BeerStyle.LAGER;
-                    case "American Pale Ale (APA)", "American Black Ale", "Belgian Dark Ale", "American Blonde Ale" ->
-                            BeerStyle.LAGER;
-                    case "American IPA", "American Double / Imperial IPA", "Belgian IPA" -> BeerStyle.IPA;
-                    case "American Porter" -> BeerStyle.PORTER;
-                    case "Oatmeal Stout", "American Stout" -> BeerStyle.STOUT;
-                    case "Saison / Farmhouse Ale" -> BeerStyle.SAISON;
-                    case "Fruit / Vegetable Beer", "Winter Warmer", "Berliner Weissbier" -> BeerStyle.WHEAT;
-                    case "English Pale Ale" -> BeerStyle.PALE_ALE;
-                    default -> BeerStyle.PILSNER;
-                };
-
-                beerRepository.save(Beer.builder()
-                        .beerName(StringUtils.abbreviate(beerCSVRecord.getBeer(), 50))
-                        .beerStyle(beerStyle)
-                        .price(BigDecimal.TEN)
-                        .upc(beerCSVRecord.getRow().toString())
-                        .quantityOnHand(beerCSVRecord.getCountX())
-                        .build());
-            });
+            try (Reader reader = new FileReader(ResourceUtils.getFile("classpath:csvdata/beers.csv"))) {
+                beerCsvImportService.importBeers(reader);
+            }
         }
     }
 
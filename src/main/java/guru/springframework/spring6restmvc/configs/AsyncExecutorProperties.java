@@ -0,0 +1,34 @@
+package guru.springframework.spring6restmvc.configs;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.async")
+public class AsyncExecutorProperties {
+
+    /**
+     * Used for any executor without its own entry in {@link #limits}.
+     */
+    private Limit defaultLimit = new Limit();
+
+    private Map<String, Limit> limits = new LinkedHashMap<>();
+
+    public Limit limitFor(String executorName) {
+        return limits.getOrDefault(executorName, defaultLimit);
+    }
+
+    @Getter
+    @Setter
+    public static class Limit {
+        private int maxConcurrency = 16;
+        private int queueCapacity = 1000;
+        private BoundedVirtualThreadTaskExecutor.RejectionPolicy rejectionPolicy =
+                BoundedVirtualThreadTaskExecutor.RejectionPolicy.CALLER_RUNS;
+    }
+}
@@ -0,0 +1,183 @@
+package guru.springframework.spring6restmvc.configs;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs each task on its own virtual thread, but only {@code maxConcurrency} of them at once. Tasks beyond that
+ * wait for a permit, up to {@code queueCapacity} of them, after which the {@link RejectionPolicy} applies. This
+ * keeps async work from piling up on the connection pool or the Kafka producer buffer.
+ */
+@Slf4j
+public class BoundedVirtualThreadTaskExecutor implements AsyncTaskExecutor, AutoCloseable {
+
+    public enum RejectionPolicy {
+        /**
+         * Throw a {@link TaskRejectedException} to the submitter.
+         */
+        ABORT,
+        /**
+         * Drop the task, only counted and logged. A task submitted for a future has its future cancelled, so
+         * nobody waits on it forever.
+         */
+        DISCARD,
+        /**
+         * Run the task on the submitting thread once a permit is free, slowing the submitter down.
+         */
+        CALLER_RUNS
+    }
+
+    private final String name;
+    private final Semaphore permits;
+    private final int queueCapacity;
+    private final RejectionPolicy rejectionPolicy;
+    private final ExecutorService virtualThreads;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final Timer waitTimer;
+    private final Counter rejectedCounter;
+
+    public BoundedVirtualThreadTaskExecutor(String name, AsyncExecutorProperties.Limit limit, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.permits = new Semaphore(limit.getMaxConcurrency(), true);
+        this.queueCapacity = limit.getQueueCapacity();
+        this.rejectionPolicy = limit.getRejectionPolicy();
+        this.virtualThreads = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+
+        Tags tags = Tags.of("name", name);
+        this.waitTimer = meterRegistry.timer("executor.bounded.wait", tags);
+        this.rejectedCounter = meterRegistry.counter("executor.bounded.rejected",
+                tags.and("policy", rejectionPolicy.name().toLowerCase()));
+        meterRegistry.gauge("executor.bounded.queued", tags, queued, AtomicInteger::get);
+        meterRegistry.gauge("executor.bounded.active", tags, active, AtomicInteger::get);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        long submitted = System.nanoTime();
+
+        if (tryAcquire()) {
+            waitTimer.record(0, TimeUnit.NANOSECONDS);
+            virtualThreads.execute(() -> runHoldingPermit(task));
+            return;
+        }
+
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            reject(task, submitted);
+            return;
+        }
+
+        virtualThreads.execute(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel(task);
+                return;
+            } finally {
+                queued.decrementAndGet();
+            }
+            waitTimer.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+            runHoldingPermit(task);
+        });
+    }
+
+    private void reject(Runnable task, long submitted) {
+        rejectedCounter.increment();
+
+        switch (rejectionPolicy) {
+            case ABORT -> throw new TaskRejectedException("Executor " + name + " is saturated, "
+                    + queueCapacity + " tasks already waiting");
+            case DISCARD -> {
+                log.warn("Executor {} is saturated, discarded task {}", name, task);
+                cancel(task);
+            }
+            case CALLER_RUNS -> {
+                permits.acquireUninterruptibly();
+                waitTimer.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                runHoldingPermit(task);
+            }
+        }
+    }
+
+    /**
+     * Runs the task as a {@link FutureTask}, unlike the default which hands a task to {@link CompletableFuture}
+     * that can't be cancelled when it is discarded.
+     */
+    @Override
+    public CompletableFuture<Void> submitCompletable(Runnable task) {
+        return submitCompletable(Executors.<Void>callable(task, null));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> submitCompletable(Callable<T> task) {
+        CompletableFuture<T> completable = new CompletableFuture<>();
+        execute(new FutureTask<>(task) {
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    completable.cancel(false);
+                    return;
+                }
+                try {
+                    completable.complete(get());
+                } catch (ExecutionException e) {
+                    completable.completeExceptionally(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    completable.completeExceptionally(e);
+                }
+            }
+        });
+        return completable;
+    }
+
+    private static void cancel(Runnable task) {
+        if (task instanceof Future<?> future) {
+            future.cancel(false);
+        }
+    }
+
+    private boolean tryAcquire() {
+        try {
+            // the timed variant respects fairness, so new tasks don't overtake waiting ones
+            return permits.tryAcquire(0, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void runHoldingPermit(Runnable task) {
+        active.incrementAndGet();
+        try {
+            task.run();
+        } finally {
+            active.decrementAndGet();
+            permits.release();
+        }
+    }
+
+    @Override
+    public void close() {
+        virtualThreads.close();
+    }
+}
@@ -0,0 +1,49 @@
+package guru.springframework.spring6restmvc.configs;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caffeine backed cache manager. Every cache is size bounded (Caffeine evicts with W-TinyLFU) and records
+ * statistics, which Spring Boot publishes as the {@code cache.*} Micrometer meters.
+ */
+@Configuration
+@EnableConfigurationProperties(LocalCacheProperties.class)
+public class CacheConfig {
+
+    public static final String BEER_CACHE = "beerCache";
+    public static final String BEER_LIST_CACHE = "beerListCache";
+    public static final String CUSTOMER_CACHE = "customerCache";
+    public static final String CUSTOMER_LIST_CACHE = "customerListCache";
+
+    @Bean
+    public CacheManager cacheManager(LocalCacheProperties localCacheProperties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(caffeine(localCacheProperties.getDefaultSpec()));
+
+        localCacheProperties.getSpecs().forEach((cacheName, spec) ->
+                cacheManager.registerCustomCache(cacheName, caffeine(spec).build()));
+
+        return cacheManager;
+    }
+
+    private Caffeine<Object, Object> caffeine(LocalCacheProperties.Spec spec) {
+        Caffeine<Object, Object> caffeine = Caffeine.newBuilder()
+                .maximumSize(spec.getMaximumSize())
+                .recordStats();
+
+        if (spec.getExpireAfterWrite() != null) {
+            caffeine.expireAfterWrite(spec.getExpireAfterWrite());
+        }
+
+        if (spec.getExpireAfterAccess() != null) {
+            caffeine.expireAfterAccess(spec.getExpireAfterAccess());
+        }
+
+        return caffeine;
+    }
+}
@@ -0,0 +1,80 @@
+package guru.springframework.spring6restmvc.configs;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Runs the cache evictions of a write once it has committed, evicted before the commit a concurrent read could cache
+ * the old state again. While reads are routed to a replica they run a second time after the read-your-writes window:
+ * a read that reached the replica between the commit and the first eviction loaded the old state and may have cached
+ * it for every client. Cached Hibernate query results are dropped on that second pass as well. Second level cache
+ * entries of entities are versioned, an older version loaded from the replica doesn't replace them.
+ * <p>
+ * A client that wrote within the window reads from the primary, and must not be served what others cached from the
+ * replica in the meantime, see {@link #bypassCache()}.
+ */
+@Slf4j
+@Component
+public class CacheEvictions {
+
+    private final TaskScheduler taskScheduler;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ObjectProvider<ReplicaDataSourceProperties> replicaDataSourceProperties;
+    private final ObjectProvider<ReadYourWritesTracker> readYourWritesTracker;
+
+    public CacheEvictions(TaskScheduler taskScheduler, EntityManagerFactory entityManagerFactory,
+                          ObjectProvider<ReplicaDataSourceProperties> replicaDataSourceProperties,
+                          ObjectProvider<ReadYourWritesTracker> readYourWritesTracker) {
+        this.taskScheduler = taskScheduler;
+        this.entityManagerFactory = entityManagerFactory;
+        this.replicaDataSourceProperties = replicaDataSourceProperties;
+        this.readYourWritesTracker = readYourWritesTracker;
+    }
+
+    /**
+     * Runs the eviction once the surrounding transaction has committed, or right away outside of one.
+     */
+    public void afterCommit(Runnable eviction) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(eviction);
+                }
+            });
+        } else {
+            evict(eviction);
+        }
+    }
+
+    /**
+     * Whether the current client's reads skip the caches, because it wrote recently and reads from the primary.
+     */
+    public boolean bypassCache() {
+        ReadYourWritesTracker tracker = readYourWritesTracker.getIfAvailable();
+        return tracker != null && tracker.hasRecentWrite();
+    }
+
+    private void evict(Runnable eviction) {
+        eviction.run();
+
+        ReplicaDataSourceProperties replica = replicaDataSourceProperties.getIfAvailable();
+        if (replica != null && replica.isEnabled()) {
+            Duration catchUp = replica.getReadYourWritesWindow();
+            taskScheduler.schedule(() -> {
+                eviction.run();
+                entityManagerFactory.getCache().unwrap(Cache.class).evictQueryRegions();
+                log.debug("Repeated cache eviction {} after the write", catchUp);
+            }, Instant.now().plus(catchUp));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package guru.springframework.spring6restmvc.configs;
+
+import guru.springframework.spring6restmvcapi.models.BeerStyle;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@Validated
+@ConfigurationProperties(prefix = DrinkRoutingProperties.PREFIX)
+public class DrinkRoutingProperties {
+
+    public static final String PREFIX = "app.drink-routing";
+
+    /**
+     * Drink request topic per beer style.
+     */
+    private Map<BeerStyle, String> routes = new LinkedHashMap<>(Map.of(
+            BeerStyle.LAGER, KafkaConfig.DRINK_REQUEST_ICE_COLD_TOPIC,
+            BeerStyle.PILSNER, KafkaConfig.DRINK_REQUEST_ICE_COLD_TOPIC,
+            BeerStyle.SAISON, KafkaConfig.DRINK_REQUEST_ICE_COLD_TOPIC,
+            BeerStyle.GOSE, KafkaConfig.DRINK_REQUEST_COLD_TOPIC,
+            BeerStyle.WHEAT, KafkaConfig.DRINK_REQUEST_COLD_TOPIC,
+            BeerStyle.STOUT, KafkaConfig.DRINK_REQUEST_COOL_TOPIC,
+            BeerStyle.PORTER, KafkaConfig.DRINK_REQUEST_COOL_TOPIC,
+            BeerStyle.ALE, KafkaConfig.DRINK_REQUEST_COOL_TOPIC,
+            BeerStyle.IPA, KafkaConfig.DRINK_REQUEST_COOL_TOPIC,
+            BeerStyle.PALE_ALE, KafkaConfig.DRINK_REQUEST_COOL_TOPIC));
+
+    /**
+     * Drink requests for a style without a route, or without a style at all, go here instead of being dropped.
+     */
+    @NotBlank
+    private String fallbackTopic = KafkaConfig.DRINK_REQUEST_UNROUTED_TOPIC;
+}
@@ -1,8 +1,99 @@
 package guru.springframework.spring6restmvc.configs;
 
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.ContainerCustomizer;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.StringUtils;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+@Configuration
+@EnableConfigurationProperties({KafkaTopicProperties.class, DrinkRoutingProperties.class})
 public class KafkaConfig {
     public static final String ORDER_PLACED_TOPIC = "order.placed";
     public static final String DRINK_REQUEST_ICE_COLD_TOPIC = "drink.request.icecold";
     public static final String DRINK_REQUEST_COLD_TOPIC = "drink.request.cold";
     public static final String DRINK_REQUEST_COOL_TOPIC = "drink.request.cool";
+    public static final String DRINK_REQUEST_UNROUTED_TOPIC = "drink.request.unrouted";
+
+    public static final String BATCH_LISTENER_CONTAINER_FACTORY = "batchKafkaListenerContainerFactory";
+
+    /**
+     * Hands listeners everything returned by one poll and leaves committing the offsets to the listener, so a
+     * batch is only committed once the listener says it is done with it. A failed batch is retried with exponential
+     * backoff and without a limit: the default error handler gives up after ten attempts and commits past the
+     * batch, which would lose it during any broker outage longer than that.
+     */
+    @Bean(BATCH_LISTENER_CONTAINER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> batchKafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer, ConsumerFactory<Object, Object> consumerFactory,
+            @Value("${app.kafka.batch-retry.initial-interval:1s}") Duration initialInterval,
+            @Value("${app.kafka.batch-retry.max-interval:1m}") Duration maxInterval) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+
+        ExponentialBackOff backOff = new ExponentialBackOff(initialInterval.toMillis(), ExponentialBackOff.DEFAULT_MULTIPLIER);
+        backOff.setMaxInterval(maxInterval.toMillis());
+        backOff.setMaxElapsedTime(Long.MAX_VALUE);
+        factory.setCommonErrorHandler(new DefaultErrorHandler((consumerRecord, exception) -> {
+            throw new IllegalStateException("Batch retries never end, nothing is recovered", exception);
+        }, backOff));
+        return factory;
+    }
+
+    /**
+     * Runs the consumer loops of every listener container on virtual threads instead of one platform thread per
+     * concurrent consumer.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.kafka.listener.virtual-threads", havingValue = "true")
+    public ContainerCustomizer<Object, Object, ConcurrentMessageListenerContainer<Object, Object>> virtualThreadContainerCustomizer() {
+        return container -> container.getContainerProperties()
+                .setListenerTaskExecutor(new VirtualThreadTaskExecutor("kafka-listener-"));
+    }
+
+    /**
+     * The placed order topic, every configured drink request topic and the fallback topic, each with its own
+     * partition count so the temperature consumers can be scaled independently.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.kafka.create-topics", havingValue = "true")
+    public KafkaAdmin.NewTopics kafkaTopics(KafkaTopicProperties kafkaTopicProperties,
+                                            DrinkRoutingProperties drinkRoutingProperties) {
+        Set<String> topicNames = new LinkedHashSet<>();
+        topicNames.add(ORDER_PLACED_TOPIC);
+        drinkRoutingProperties.getRoutes().values().stream()
+                .filter(StringUtils::hasText)
+                .forEach(topicNames::add);
+        topicNames.add(drinkRoutingProperties.getFallbackTopic());
+        topicNames.addAll(kafkaTopicProperties.getTopics().keySet());
+
+        return new KafkaAdmin.NewTopics(topicNames.stream()
+                .map(topicName -> {
+                    KafkaTopicProperties.Topic topic = kafkaTopicProperties.topicFor(topicName);
+                    return TopicBuilder.name(topicName)
+                            .partitions(topic.getPartitions())
+                            .replicas(topic.getReplicas())
+                            .build();
+                })
+                .toArray(NewTopic[]::new));
+    }
 }
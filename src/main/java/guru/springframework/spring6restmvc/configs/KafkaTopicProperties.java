@@ -0,0 +1,38 @@
+package guru.springframework.spring6restmvc.configs;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.kafka")
+public class KafkaTopicProperties {
+
+    /**
+     * Declare the application's topics through {@code KafkaAdmin} on startup. Existing topics with fewer
+     * partitions than configured are grown, partitions are never removed.
+     */
+    private boolean createTopics = false;
+
+    /**
+     * Used for any topic without its own entry in {@link #topics}.
+     */
+    private Topic defaultTopic = new Topic();
+
+    private Map<String, Topic> topics = new LinkedHashMap<>();
+
+    public Topic topicFor(String topicName) {
+        return topics.getOrDefault(topicName, defaultTopic);
+    }
+
+    @Getter
+    @Setter
+    public static class Topic {
+        private int partitions = 1;
+        private short replicas = 1;
+    }
+}
@@ -0,0 +1,30 @@
+package guru.springframework.spring6restmvc.configs;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.cache")
+public class LocalCacheProperties {
+
+    /**
+     * Used for any cache without its own entry in {@link #specs}.
+     */
+    private Spec defaultSpec = new Spec();
+
+    private Map<String, Spec> specs = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Spec {
+        private long maximumSize = 1000;
+        private Duration expireAfterWrite;
+        private Duration expireAfterAccess;
+    }
+}
@@ -0,0 +1,127 @@
+package guru.springframework.spring6restmvc.configs;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Clock;
+
+/**
+ * Sends {@code @Transactional(readOnly = true)} work to a read replica and everything else to the primary. The
+ * application's data source is a {@link LazyConnectionDataSourceProxy}, which only fetches a real connection once
+ * the first statement runs, after the transaction has been marked read only, and takes read only connections from
+ * a {@link ReplicaRoutingDataSource}. Flyway, Hibernate's startup and work outside a transaction use the primary.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+public class ReadReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(ReplicaDataSourceProperties replicaDataSourceProperties) {
+        DataSourceBuilder<HikariDataSource> builder = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(replicaDataSourceProperties.getUrl())
+                .username(replicaDataSourceProperties.getUsername())
+                .password(replicaDataSourceProperties.getPassword());
+        if (StringUtils.hasText(replicaDataSourceProperties.getDriverClassName())) {
+            builder.driverClassName(replicaDataSourceProperties.getDriverClassName());
+        }
+        return builder.build();
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                               ReplicaDataSourceProperties replicaDataSourceProperties,
+                                               MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(replicaDataSource, replicaDataSourceProperties, meterRegistry, Clock.systemUTC());
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(ReplicaDataSourceProperties replicaDataSourceProperties) {
+        return new ReadYourWritesTracker(replicaDataSourceProperties.getReadYourWritesWindow());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor, ReadYourWritesTracker readYourWritesTracker,
+                                 MeterRegistry meterRegistry) {
+        return readWriteDataSource(primaryDataSource, replicaDataSource, replicaLagMonitor, readYourWritesTracker,
+                meterRegistry);
+    }
+
+    static DataSource readWriteDataSource(DataSource primaryDataSource, DataSource replicaDataSource,
+                                          ReplicaLagMonitor replicaLagMonitor,
+                                          ReadYourWritesTracker readYourWritesTracker, MeterRegistry meterRegistry) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(
+                new WriteTrackingDataSource(primaryDataSource, readYourWritesTracker));
+        dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource,
+                replicaLagMonitor, readYourWritesTracker, meterRegistry));
+        return dataSource;
+    }
+
+    /**
+     * Records a write for the current client once a read-write transaction that used the primary has committed.
+     */
+    private static class WriteTrackingDataSource extends DelegatingDataSource {
+
+        private final ReadYourWritesTracker readYourWritesTracker;
+
+        WriteTrackingDataSource(DataSource primaryDataSource, ReadYourWritesTracker readYourWritesTracker) {
+            super(primaryDataSource);
+            this.readYourWritesTracker = readYourWritesTracker;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            trackWrite();
+            return super.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            trackWrite();
+            return super.getConnection(username, password);
+        }
+
+        private void trackWrite() {
+            if (TransactionSynchronizationManager.isActualTransactionActive()
+                    && TransactionSynchronizationManager.isSynchronizationActive()
+                    && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        readYourWritesTracker.recordWrite();
+                    }
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package guru.springframework.spring6restmvc.configs;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Remembers which clients, identified by their principal, committed a write within the last window, so their reads
+ * can be kept on the primary until the replica has caught up. The state is local to this instance, a client whose
+ * next request lands on another instance may read from a replica that hasn't applied its write yet.
+ */
+public class ReadYourWritesTracker {
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesTracker(Duration window) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(100_000)
+                .build();
+    }
+
+    public void recordWrite() {
+        currentClient().ifPresent(client -> recentWriters.put(client, Boolean.TRUE));
+    }
+
+    public boolean hasRecentWrite() {
+        return currentClient().map(client -> recentWriters.getIfPresent(client) != null).orElse(false);
+    }
+
+    private static Optional<String> currentClient() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return Optional.empty();
+        }
+        return Optional.of(authentication.getName());
+    }
+}
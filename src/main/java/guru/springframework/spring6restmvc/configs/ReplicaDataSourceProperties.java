@@ -0,0 +1,42 @@
+package guru.springframework.spring6restmvc.configs;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Connection and routing settings of the read replica. The replica's pool is configured under
+ * {@code app.datasource.replica.hikari}, the same way {@code spring.datasource.hikari} configures the primary.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.datasource.replica")
+public class ReplicaDataSourceProperties {
+
+    private boolean enabled;
+
+    private String url;
+    private String username;
+    private String password;
+    private String driverClassName;
+
+    /**
+     * Read only transactions go to the primary while the replica is further behind than this.
+     */
+    private Duration maxLag = Duration.ofSeconds(2);
+
+    /**
+     * Returns the replica's lag in seconds in {@link #lagColumn}, no row or {@code null} means it is not replicating.
+     */
+    private String lagQuery = "show replica status";
+    private String lagColumn = "Seconds_Behind_Source";
+    private Duration lagCheckInterval = Duration.ofSeconds(1);
+
+    /**
+     * How long a client reads from the primary after it committed a write, so it sees its own writes even when the
+     * replica hasn't applied them yet. Should cover {@link #maxLag} plus {@link #lagCheckInterval}.
+     */
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+}
@@ -0,0 +1,86 @@
+package guru.springframework.spring6restmvc.configs;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Polls the replication lag of the read replica and publishes it as the {@code datasource.replica.lag} gauge. The
+ * replica only counts as usable while the last check succeeded, is recent and reported a lag within the maximum;
+ * a replica that stopped replicating, can't be reached or hasn't been checked yet is treated as too far behind.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private record Measurement(Duration lag, Instant checkedAt) {
+    }
+
+    private final DataSource replicaDataSource;
+    private final String lagQuery;
+    private final String lagColumn;
+    private final Duration maxLag;
+    private final Duration maxAge;
+    private final Clock clock;
+
+    private volatile Measurement measurement;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, ReplicaDataSourceProperties properties,
+                             MeterRegistry meterRegistry, Clock clock) {
+        this.replicaDataSource = replicaDataSource;
+        this.lagQuery = properties.getLagQuery();
+        this.lagColumn = properties.getLagColumn();
+        this.maxLag = properties.getMaxLag();
+        // a few missed checks in a row and the last known lag can't be trusted anymore
+        this.maxAge = properties.getLagCheckInterval().multipliedBy(3);
+        this.clock = clock;
+
+        Gauge.builder("datasource.replica.lag", this, ReplicaLagMonitor::lagSeconds)
+                .description("Replication lag of the read replica, NaN while it is unknown")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval:1s}")
+    public void check() {
+        Duration lag = null;
+        try (Connection connection = replicaDataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            if (resultSet.next()) {
+                Number seconds = (Number) resultSet.getObject(lagColumn);
+                lag = seconds == null ? null : Duration.ofMillis(Math.round(seconds.doubleValue() * 1000));
+            }
+        } catch (SQLException | ClassCastException e) {
+            log.warn("Could not read the replication lag of the read replica", e);
+        }
+
+        if (lag == null) {
+            log.debug("Read replica is not replicating, reads go to the primary");
+        } else if (lag.compareTo(maxLag) > 0) {
+            log.debug("Read replica is {} behind, reads go to the primary", lag);
+        }
+        measurement = lag == null ? null : new Measurement(lag, clock.instant());
+    }
+
+    public boolean isWithinMaxLag() {
+        Measurement current = measurement;
+        return current != null
+                && current.lag().compareTo(maxLag) <= 0
+                && !current.checkedAt().plus(maxAge).isBefore(clock.instant());
+    }
+
+    private double lagSeconds() {
+        Measurement current = measurement;
+        return current == null ? Double.NaN : current.lag().toMillis() / 1000.0;
+    }
+}
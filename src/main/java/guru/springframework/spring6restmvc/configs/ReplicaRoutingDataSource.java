@@ -0,0 +1,65 @@
+package guru.springframework.spring6restmvc.configs;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * The data source read only transactions get their connection from: the replica, unless it is too far behind or
+ * the current client wrote something recently, in which case the read goes to the primary. Every decision is
+ * counted as {@code datasource.read.routing}, tagged with the target and why it was chosen.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private final ReplicaLagMonitor replicaLagMonitor;
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    private final Counter replicaCounter;
+    private final Counter replicaLagCounter;
+    private final Counter readYourWritesCounter;
+
+    public ReplicaRoutingDataSource(DataSource primaryDataSource, DataSource replicaDataSource,
+                                    ReplicaLagMonitor replicaLagMonitor, ReadYourWritesTracker readYourWritesTracker,
+                                    MeterRegistry meterRegistry) {
+        this.replicaLagMonitor = replicaLagMonitor;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.replicaCounter = routingCounter(meterRegistry, Target.REPLICA, "replica");
+        this.replicaLagCounter = routingCounter(meterRegistry, Target.PRIMARY, "replica_lag");
+        this.readYourWritesCounter = routingCounter(meterRegistry, Target.PRIMARY, "read_your_writes");
+
+        setTargetDataSources(Map.of(Target.PRIMARY, primaryDataSource, Target.REPLICA, replicaDataSource));
+        setDefaultTargetDataSource(primaryDataSource);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!replicaLagMonitor.isWithinMaxLag()) {
+            replicaLagCounter.increment();
+            return Target.PRIMARY;
+        }
+
+        if (readYourWritesTracker.hasRecentWrite()) {
+            readYourWritesCounter.increment();
+            return Target.PRIMARY;
+        }
+
+        replicaCounter.increment();
+        return Target.REPLICA;
+    }
+
+    private static Counter routingCounter(MeterRegistry meterRegistry, Target target, String reason) {
+        return Counter.builder("datasource.read.routing")
+                .description("Read only transactions by the data source they read from")
+                .tag("target", target.name().toLowerCase())
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,75 @@
+package guru.springframework.spring6restmvc.configs;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the connection pools in a datasource-proxy that feeds the {@link SlowQueryLog}, published through the
+ * {@code slowqueries} actuator endpoint. Data sources that only delegate to other beans, like the read replica
+ * routing, are left alone since the pools behind them are wrapped already.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.slow-query.enabled", havingValue = "true")
+@EnableConfigurationProperties(SlowQueryProperties.class)
+public class SlowQueryConfig {
+
+    public static final String EXPLAIN_EXECUTOR = "slow-query-explain";
+
+    @Bean
+    public static BeanPostProcessor slowQueryDataSourcePostProcessor(ObjectProvider<SlowQueryListener> slowQueryListener,
+                                                                     ObjectProvider<SlowQueryLog> slowQueryLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource
+                        || bean instanceof DelegatingDataSource || bean instanceof AbstractRoutingDataSource) {
+                    return bean;
+                }
+                slowQueryLog.getObject().registerDataSource(beanName, dataSource);
+                return recordingDataSource(beanName, dataSource, slowQueryListener.getObject());
+            }
+        };
+    }
+
+    @Bean
+    public SlowQueryLog slowQueryLog(SlowQueryProperties slowQueryProperties, MeterRegistry meterRegistry) {
+        // one plan at a time with a short queue, the rest are dropped rather than slowing down the recording thread
+        AsyncExecutorProperties.Limit explainLimit = new AsyncExecutorProperties.Limit();
+        explainLimit.setMaxConcurrency(1);
+        explainLimit.setQueueCapacity(16);
+        explainLimit.setRejectionPolicy(BoundedVirtualThreadTaskExecutor.RejectionPolicy.DISCARD);
+
+        return new SlowQueryLog(slowQueryProperties, meterRegistry,
+                new BoundedVirtualThreadTaskExecutor(EXPLAIN_EXECUTOR, explainLimit, meterRegistry));
+    }
+
+    @Bean
+    public SlowQueryListener slowQueryListener(SlowQueryLog slowQueryLog, SlowQueryProperties slowQueryProperties) {
+        return new SlowQueryListener(slowQueryLog, slowQueryProperties);
+    }
+
+    @Bean
+    public SlowQueryEndpoint slowQueryEndpoint(SlowQueryLog slowQueryLog, SlowQueryProperties slowQueryProperties) {
+        return new SlowQueryEndpoint(slowQueryLog, slowQueryProperties.getTop());
+    }
+
+    static DataSource recordingDataSource(String dataSourceName, DataSource dataSource,
+                                          SlowQueryListener slowQueryListener) {
+        return ProxyDataSourceBuilder.create(dataSourceName, dataSource)
+                .listener(slowQueryListener)
+                .proxyResultSet(slowQueryListener)
+                .jdbcProxyFactory(slowQueryListener.jdbcProxyFactory())
+                .build();
+    }
+}
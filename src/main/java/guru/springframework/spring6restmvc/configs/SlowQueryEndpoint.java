@@ -0,0 +1,34 @@
+package guru.springframework.spring6restmvc.configs;
+
+import guru.springframework.spring6restmvc.models.SlowQuerySummary;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+/**
+ * The statements with the slowest executions in the {@link SlowQueryLog}, {@code DELETE} starts over.
+ */
+@Endpoint(id = "slowqueries")
+public class SlowQueryEndpoint {
+
+    private final SlowQueryLog slowQueryLog;
+    private final int top;
+
+    public SlowQueryEndpoint(SlowQueryLog slowQueryLog, int top) {
+        this.slowQueryLog = slowQueryLog;
+        this.top = top;
+    }
+
+    @ReadOperation
+    public List<SlowQuerySummary> slowQueries(@Nullable Integer limit) {
+        return slowQueryLog.top(limit == null || limit < 1 ? top : limit);
+    }
+
+    @DeleteOperation
+    public void clear() {
+        slowQueryLog.clear();
+    }
+}
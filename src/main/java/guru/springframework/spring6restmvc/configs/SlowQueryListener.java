@@ -0,0 +1,220 @@
+package guru.springframework.spring6restmvc.configs;
+
+import net.ttddyy.dsproxy.ConnectionInfo;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.JdbcProxyFactory;
+import net.ttddyy.dsproxy.proxy.JdkJdbcProxyFactory;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.proxy.ProxyConfig;
+import net.ttddyy.dsproxy.proxy.ResultSetProxyLogic;
+import net.ttddyy.dsproxy.proxy.ResultSetProxyLogicFactory;
+import net.ttddyy.dsproxy.proxy.SimpleResultSetProxyLogicFactory;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Decides which statements go into the {@link SlowQueryLog}: every statement that executed for at least the
+ * threshold plus a random sample of the rest. Nothing is formatted or copied for the statements that aren't
+ * recorded. Update counts are known when the statement returns; the rows of a select are counted while its result
+ * set is read, and it is recorded when the result set is closed. Only the result sets of recorded selects are
+ * proxied, the others are handed out as the driver returned them.
+ */
+public class SlowQueryListener implements QueryExecutionListener, ResultSetProxyLogicFactory {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])\\d+(?:\\.\\d+)?(?![\\w.])");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin \\(\\?(?:, ?\\?)+\\)");
+
+    private static final String SAMPLED = SlowQueryListener.class.getName() + ".sampled";
+    private static final String ROW_COUNTING = SlowQueryListener.class.getName() + ".rowCounting";
+
+    private final SlowQueryLog slowQueryLog;
+    private final long thresholdMillis;
+    private final double sampleRate;
+
+    private final ResultSetProxyLogicFactory resultSetProxyLogicFactory = new SimpleResultSetProxyLogicFactory();
+
+    /**
+     * The statement executing on this thread. Its result set is created before {@link #afterQuery} runs.
+     */
+    private final ThreadLocal<ExecutionInfo> currentExecution = new ThreadLocal<>();
+
+    private final JdbcProxyFactory jdbcProxyFactory = new JdkJdbcProxyFactory() {
+        @Override
+        public ResultSet createResultSet(ResultSet resultSet, ConnectionInfo connectionInfo, ProxyConfig proxyConfig) {
+            ExecutionInfo executionInfo = currentExecution.get();
+            if (executionInfo == null || reason(executionInfo) == null) {
+                return resultSet;
+            }
+            return super.createResultSet(resultSet, connectionInfo, proxyConfig);
+        }
+    };
+
+    public SlowQueryListener(SlowQueryLog slowQueryLog, SlowQueryProperties slowQueryProperties) {
+        this.slowQueryLog = slowQueryLog;
+        this.thresholdMillis = slowQueryProperties.getThreshold().toMillis();
+        this.sampleRate = slowQueryProperties.getSampleRate();
+    }
+
+    /**
+     * Proxies only the result sets of selects that are recorded.
+     */
+    public JdbcProxyFactory jdbcProxyFactory() {
+        return jdbcProxyFactory;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo executionInfo, List<QueryInfo> queryInfoList) {
+        // drawn up front, so the result set proxy and afterQuery agree on whether the statement is sampled
+        if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            executionInfo.addCustomValue(SAMPLED, Boolean.TRUE);
+        }
+        currentExecution.set(executionInfo);
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo executionInfo, List<QueryInfo> queryInfoList) {
+        currentExecution.remove();
+
+        SlowQueryLog.Reason reason = reason(executionInfo);
+        if (reason == null || queryInfoList.isEmpty()) {
+            return;
+        }
+
+        QueryInfo queryInfo = queryInfoList.getFirst();
+        Object result = executionInfo.getResult();
+        SlowQueryLog.SlowQuery slowQuery = new SlowQueryLog.SlowQuery(executionInfo.getDataSourceName(),
+                queryInfo.getQuery(), normalize(queryInfo.getQuery()), parameters(queryInfo),
+                executionInfo.getElapsedTime(), rows(result), origin(), reason,
+                executionInfo.isBatch() ? executionInfo.getBatchSize() : 0, Instant.now());
+
+        RowCountingResultSetProxyLogic rowCounting = executionInfo.getCustomValue(ROW_COUNTING,
+                RowCountingResultSetProxyLogic.class);
+        if (rowCounting != null) {
+            rowCounting.recordOnClose(slowQuery);
+        } else {
+            slowQueryLog.record(slowQuery);
+        }
+    }
+
+    @Override
+    public ResultSetProxyLogic create(ResultSet resultSet, ConnectionInfo connectionInfo, ProxyConfig proxyConfig) {
+        RowCountingResultSetProxyLogic rowCounting = new RowCountingResultSetProxyLogic(
+                resultSetProxyLogicFactory.create(resultSet, connectionInfo, proxyConfig));
+        ExecutionInfo executionInfo = currentExecution.get();
+        if (executionInfo != null) {
+            executionInfo.addCustomValue(ROW_COUNTING, rowCounting);
+        }
+        return rowCounting;
+    }
+
+    /**
+     * Collapses whitespace and replaces literals with {@code ?} so executions of the same statement are
+     * aggregated, also for {@code in} lists of any length.
+     */
+    static String normalize(String sql) {
+        String normalized = WHITESPACE.matcher(sql.strip()).replaceAll(" ");
+        normalized = STRING_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        return IN_LIST.matcher(normalized).replaceAll("in (?)");
+    }
+
+    private SlowQueryLog.Reason reason(ExecutionInfo executionInfo) {
+        if (executionInfo.getElapsedTime() >= thresholdMillis) {
+            return SlowQueryLog.Reason.THRESHOLD;
+        }
+        if (Boolean.TRUE.equals(executionInfo.getCustomValue(SAMPLED, Boolean.class))) {
+            return SlowQueryLog.Reason.SAMPLED;
+        }
+        return null;
+    }
+
+    private static List<Object> parameters(QueryInfo queryInfo) {
+        if (queryInfo.getParametersList().isEmpty()) {
+            return List.of();
+        }
+
+        Map<Integer, Object> parameters = new TreeMap<>();
+        for (ParameterSetOperation operation : queryInfo.getParametersList().getFirst()) {
+            Object[] args = operation.getArgs();
+            if (args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                parameters.put(index, operation.getMethod().getName().equals("setNull") ? null : args[1]);
+            }
+        }
+        return new ArrayList<>(parameters.values());
+    }
+
+    private static Integer rows(Object result) {
+        if (result instanceof Integer count && count >= 0) {
+            return count;
+        }
+        if (result instanceof Long count && count >= 0) {
+            return Math.toIntExact(count);
+        }
+        if (result instanceof int[] counts) {
+            int rows = 0;
+            for (int count : counts) {
+                if (count < 0) {
+                    // Statement.SUCCESS_NO_INFO, the driver doesn't know
+                    return null;
+                }
+                rows += count;
+            }
+            return rows;
+        }
+        return null;
+    }
+
+    private static String origin() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null && requestAttributes.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST) instanceof HandlerMethod handlerMethod) {
+            return handlerMethod.getBeanType().getSimpleName() + "#" + handlerMethod.getMethod().getName();
+        }
+        return "thread:" + Thread.currentThread().getName();
+    }
+
+    private class RowCountingResultSetProxyLogic implements ResultSetProxyLogic {
+
+        private final ResultSetProxyLogic delegate;
+        private volatile SlowQueryLog.SlowQuery pending;
+        private int rows;
+
+        RowCountingResultSetProxyLogic(ResultSetProxyLogic delegate) {
+            this.delegate = delegate;
+        }
+
+        void recordOnClose(SlowQueryLog.SlowQuery slowQuery) {
+            this.pending = slowQuery;
+        }
+
+        @Override
+        public Object invoke(Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("close") && pending != null) {
+                slowQueryLog.record(pending.withRows(rows));
+                pending = null;
+            }
+
+            Object result = delegate.invoke(method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                rows++;
+            }
+            return result;
+        }
+    }
+}
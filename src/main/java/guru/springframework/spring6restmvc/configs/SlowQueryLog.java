@@ -0,0 +1,188 @@
+package guru.springframework.spring6restmvc.configs;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import guru.springframework.spring6restmvc.models.SlowQuerySummary;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskExecutor;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Slow and sampled statements, aggregated by normalized SQL. Each statement keeps its count, total and maximum
+ * execution time and the details of its slowest execution, including its plan when explaining is enabled. Plans
+ * are taken on a separate connection of the unwrapped data source, off the request thread, and skipped while the
+ * executor is saturated. Bind values are only kept to run {@code EXPLAIN}, they are neither logged nor exposed.
+ */
+@Slf4j
+public class SlowQueryLog {
+
+    public enum Reason {
+        THRESHOLD, SAMPLED
+    }
+
+    public record SlowQuery(String dataSourceName, String sql, String normalizedSql, List<Object> parameters,
+                            long elapsedMillis, Integer rows, String origin, Reason reason, int batchSize,
+                            Instant executedAt) {
+
+        SlowQuery withRows(Integer rows) {
+            return new SlowQuery(dataSourceName, sql, normalizedSql, parameters, elapsedMillis, rows, origin, reason,
+                    batchSize, executedAt);
+        }
+    }
+
+    private static class Statistics {
+        private long count;
+        private long totalMillis;
+        private Instant lastSeen;
+        private SlowQuery slowest;
+        private List<Map<String, Object>> plan = List.of();
+
+        /**
+         * Returns whether the query is the slowest execution so far.
+         */
+        synchronized boolean add(SlowQuery slowQuery) {
+            count++;
+            totalMillis += slowQuery.elapsedMillis();
+            lastSeen = slowQuery.executedAt();
+            if (slowest == null || slowQuery.elapsedMillis() > slowest.elapsedMillis()) {
+                slowest = slowQuery;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized void plan(SlowQuery slowQuery, List<Map<String, Object>> plan) {
+            if (slowest == slowQuery) {
+                this.plan = plan;
+            }
+        }
+
+        synchronized SlowQuerySummary summary(String normalizedSql) {
+            return SlowQuerySummary.builder()
+                    .sql(normalizedSql)
+                    .dataSource(slowest.dataSourceName())
+                    .count(count)
+                    .totalMillis(totalMillis)
+                    .maxMillis(slowest.elapsedMillis())
+                    .lastSeen(lastSeen)
+                    .slowestRows(slowest.rows())
+                    .slowestOrigin(slowest.origin())
+                    .plan(plan)
+                    .build();
+        }
+    }
+
+    private final boolean explain;
+    private final TaskExecutor taskExecutor;
+    private final Cache<String, Statistics> statistics;
+    private final Map<String, DataSource> dataSources = new ConcurrentHashMap<>();
+    private final Counter thresholdCounter;
+    private final Counter sampledCounter;
+
+    public SlowQueryLog(SlowQueryProperties slowQueryProperties, MeterRegistry meterRegistry, TaskExecutor taskExecutor) {
+        this.explain = slowQueryProperties.isExplain();
+        this.taskExecutor = taskExecutor;
+        this.statistics = Caffeine.newBuilder()
+                .maximumSize(slowQueryProperties.getMaxStatements())
+                .build();
+        this.thresholdCounter = reasonCounter(meterRegistry, Reason.THRESHOLD);
+        this.sampledCounter = reasonCounter(meterRegistry, Reason.SAMPLED);
+    }
+
+    /**
+     * The unwrapped data source statements recorded under {@code dataSourceName} are explained on.
+     */
+    public void registerDataSource(String dataSourceName, DataSource dataSource) {
+        dataSources.put(dataSourceName, dataSource);
+    }
+
+    public void record(SlowQuery slowQuery) {
+        if (slowQuery.reason() == Reason.THRESHOLD) {
+            thresholdCounter.increment();
+            log.warn("Slow query took {} ms, {} rows, from {}: {}", slowQuery.elapsedMillis(), slowQuery.rows(),
+                    slowQuery.origin(), slowQuery.normalizedSql());
+        } else {
+            sampledCounter.increment();
+            log.debug("Sampled query took {} ms, {} rows, from {}: {}", slowQuery.elapsedMillis(), slowQuery.rows(),
+                    slowQuery.origin(), slowQuery.normalizedSql());
+        }
+
+        Statistics queryStatistics = statistics.get(slowQuery.normalizedSql(), normalizedSql -> new Statistics());
+        if (queryStatistics.add(slowQuery) && explain && isExplainable(slowQuery)) {
+            taskExecutor.execute(() -> queryStatistics.plan(slowQuery, explain(slowQuery)));
+        }
+    }
+
+    /**
+     * The recorded statements with the slowest executions first.
+     */
+    public List<SlowQuerySummary> top(int limit) {
+        return statistics.asMap().entrySet().stream()
+                .map(entry -> entry.getValue().summary(entry.getKey()))
+                .sorted(Comparator.comparingLong(SlowQuerySummary::getMaxMillis).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public void clear() {
+        statistics.invalidateAll();
+    }
+
+    private static boolean isExplainable(SlowQuery slowQuery) {
+        String sql = slowQuery.sql().stripLeading().toLowerCase(Locale.ROOT);
+        return slowQuery.batchSize() == 0 && (sql.startsWith("select") || sql.startsWith("with"));
+    }
+
+    private List<Map<String, Object>> explain(SlowQuery slowQuery) {
+        DataSource dataSource = dataSources.get(slowQuery.dataSourceName());
+        if (dataSource == null) {
+            return List.of();
+        }
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement explainStatement = connection.prepareStatement("explain " + slowQuery.sql())) {
+            for (int i = 0; i < slowQuery.parameters().size(); i++) {
+                explainStatement.setObject(i + 1, slowQuery.parameters().get(i));
+            }
+
+            List<Map<String, Object>> plan = new ArrayList<>();
+            try (ResultSet resultSet = explainStatement.executeQuery()) {
+                ResultSetMetaData metaData = resultSet.getMetaData();
+                while (resultSet.next()) {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                        row.put(metaData.getColumnLabel(column), resultSet.getObject(column));
+                    }
+                    plan.add(row);
+                }
+            }
+            return plan;
+        } catch (SQLException e) {
+            log.debug("Could not explain {}", slowQuery.normalizedSql(), e);
+            return List.of();
+        }
+    }
+
+    private static Counter reasonCounter(MeterRegistry meterRegistry, Reason reason) {
+        return Counter.builder("jdbc.slow.queries")
+                .description("Statements recorded in the slow query log")
+                .tag("reason", reason.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,40 @@
+package guru.springframework.spring6restmvc.configs;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.slow-query")
+public class SlowQueryProperties {
+
+    private boolean enabled;
+
+    /**
+     * Statements whose execution takes at least this long are always recorded.
+     */
+    private Duration threshold = Duration.ofMillis(200);
+
+    /**
+     * Fraction of the faster statements recorded anyway, to show what regular traffic looks like.
+     */
+    private double sampleRate;
+
+    /**
+     * Runs {@code EXPLAIN} with the recorded parameters whenever a select has a new slowest execution.
+     */
+    private boolean explain;
+
+    /**
+     * Distinct normalized statements kept, the least used are dropped beyond that.
+     */
+    private int maxStatements = 500;
+
+    /**
+     * Statements returned by the {@code slowqueries} endpoint unless a limit is given.
+     */
+    private int top = 20;
+}
@@ -1,20 +1,57 @@
 package guru.springframework.spring6restmvc.configs;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.core.task.AsyncTaskExecutor;
-import org.springframework.core.task.support.TaskExecutorAdapter;
 import org.springframework.scheduling.annotation.EnableAsync;
-
-import java.util.concurrent.Executors;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 @EnableAsync
+@EnableScheduling
+@EnableConfigurationProperties(AsyncExecutorProperties.class)
 public class TaskConfig {
 
+    public static final String APPLICATION_EXECUTOR = "application";
+    public static final String MVC_EXECUTOR = "mvc";
+
+    public static final String MVC_TASK_EXECUTOR_BEAN_NAME = "mvcTaskExecutor";
+
+    /**
+     * The default for {@code @Async} methods and anything else looking up the application executor.
+     */
+    @Primary
     @Bean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
-    public AsyncTaskExecutor asyncTaskExecutor() {
-        return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+    public AsyncTaskExecutor asyncTaskExecutor(AsyncExecutorProperties asyncExecutorProperties, MeterRegistry meterRegistry) {
+        return new BoundedVirtualThreadTaskExecutor(APPLICATION_EXECUTOR,
+                asyncExecutorProperties.limitFor(APPLICATION_EXECUTOR), meterRegistry);
+    }
+
+    /**
+     * MVC async requests, the streamed beer exports above all, which hold a connection for as long as they write.
+     * They get their own limit instead of the application executor's, and with the abort policy a saturated
+     * executor answers 503 right away instead of leaving the request waiting for its async timeout.
+     */
+    @Bean(MVC_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor mvcTaskExecutor(AsyncExecutorProperties asyncExecutorProperties, MeterRegistry meterRegistry) {
+        return new BoundedVirtualThreadTaskExecutor(MVC_EXECUTOR,
+                asyncExecutorProperties.limitFor(MVC_EXECUTOR), meterRegistry);
+    }
+
+    @Bean
+    public WebMvcConfigurer mvcAsyncSupportConfigurer(@Qualifier(MVC_TASK_EXECUTOR_BEAN_NAME) AsyncTaskExecutor mvcTaskExecutor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.setTaskExecutor(mvcTaskExecutor);
+            }
+        };
     }
 }
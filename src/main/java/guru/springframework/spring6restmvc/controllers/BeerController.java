@@ -1,16 +1,23 @@
 package guru.springframework.spring6restmvc.controllers;
 
+import guru.springframework.spring6restmvc.services.BeerCursor;
+import guru.springframework.spring6restmvc.services.BeerExportService;
 import guru.springframework.spring6restmvc.services.BeerService;
 import guru.springframework.spring6restmvcapi.models.BeerDTO;
 import guru.springframework.spring6restmvcapi.models.BeerStyle;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -22,7 +29,10 @@ public class BeerController {
 
     public static final String BEER_PATH = "/api/v1/beer";
     public static final String BEER_PATH_ID = BEER_PATH + "/{beerId}";
+    public static final String BEER_EXPORT_PATH = BEER_PATH + "/export";
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
     private final BeerService beerService;
+    private final BeerExportService beerExportService;
 
     @GetMapping(BEER_PATH)
     public Page<BeerDTO> listBeers(@RequestParam(required = false) String beerName,
@@ -34,10 +44,52 @@ public class BeerController {
         return beerService.getAllBeers(beerName, beerStyle, showInventory, pageNumber, pageSize);
     }
 
+    /**
+     * Cursor mode of the beer listing, selected by passing {@code cursor} (empty for the first slice). The token
+     * for the following slice is returned in the {@value #NEXT_CURSOR_HEADER} header while more beers remain.
+     */
+    @GetMapping(value = BEER_PATH, params = "cursor")
+    public ResponseEntity<Slice<BeerDTO>> listBeersByCursor(@RequestParam(required = false) String beerName,
+                                                            @RequestParam(required = false) BeerStyle beerStyle,
+                                                            @RequestParam(required = false) Boolean showInventory,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(required = false) Integer pageSize) {
+        log.debug("List beers by cursor - in controller");
+        Slice<BeerDTO> beerSlice = beerService.getBeersAfter(beerName, beerStyle, showInventory, decodeCursor(cursor), pageSize);
+
+        HttpHeaders responseHeaders = new HttpHeaders();
+        if (beerSlice.hasNext()) {
+            BeerDTO last = beerSlice.getContent().getLast();
+            responseHeaders.add(NEXT_CURSOR_HEADER, new BeerCursor(last.getBeerName(), last.getId()).encode());
+        }
+        return new ResponseEntity<>(beerSlice, responseHeaders, HttpStatus.OK);
+    }
+
+    private BeerCursor decodeCursor(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return null;
+        }
+
+        try {
+            return BeerCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid beer cursor: " + cursor, e);
+        }
+    }
+
+    @GetMapping(value = BEER_EXPORT_PATH, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportBeers() {
+        log.debug("Export beers - in controller");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(beerExportService::exportBeers);
+    }
+
     @GetMapping(BEER_PATH_ID)
-    public BeerDTO getBeerById(@PathVariable UUID beerId) {
+    public ResponseEntity<BeerDTO> getBeerById(@PathVariable UUID beerId) {
         log.debug("Get beer by id - in controller");
-        return beerService.getBeerById(beerId).orElseThrow(NotFoundException::new);
+        BeerDTO beer = beerService.getBeerById(beerId).orElseThrow(NotFoundException::new);
+        return new ResponseEntity<>(beer, eTagHeaders(beer), HttpStatus.OK);
     }
 
     @PostMapping(BEER_PATH)
@@ -49,12 +101,21 @@ public class BeerController {
     }
 
     @PutMapping(BEER_PATH_ID)
-    public ResponseEntity<HttpHeaders> updateBeerById(@PathVariable UUID beerId, @Validated @RequestBody BeerDTO beer) {
-        Optional<BeerDTO> updateBeer = beerService.updateBeerById(beerId, beer);
+    public ResponseEntity<HttpHeaders> updateBeerById(@PathVariable UUID beerId,
+                                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                      @Validated @RequestBody BeerDTO beer) {
+        Integer expectedVersion = parseIfMatch(ifMatch);
+        Optional<BeerDTO> updateBeer;
+        try {
+            updateBeer = beerService.updateBeerById(beerId, beer, expectedVersion);
+        } catch (OptimisticLockingFailureException e) {
+            throw expectedVersion == null ? e : new PreconditionFailedException("Beer " + beerId + " is not at version " + expectedVersion, e);
+        }
+
         if (updateBeer.isEmpty()) {
             throw new NotFoundException();
         } else {
-            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            return new ResponseEntity<>(eTagHeaders(updateBeer.get()), HttpStatus.NO_CONTENT);
         }
     }
 
@@ -69,11 +130,56 @@ public class BeerController {
     }
 
     @PatchMapping(BEER_PATH_ID)
-    public ResponseEntity<HttpHeaders> updateBeerPartially(@PathVariable UUID beerId, @RequestBody BeerDTO beer) {
-        if (beerService.updateBeerPartiallyById(beerId, beer).isEmpty()) {
+    public ResponseEntity<HttpHeaders> updateBeerPartially(@PathVariable UUID beerId,
+                                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                           @RequestBody BeerDTO beer) {
+        Integer expectedVersion = parseIfMatch(ifMatch);
+        Optional<BeerDTO> updateBeer;
+        try {
+            updateBeer = beerService.updateBeerPartiallyById(beerId, beer, expectedVersion);
+        } catch (OptimisticLockingFailureException e) {
+            throw expectedVersion == null ? e : new PreconditionFailedException("Beer " + beerId + " is not at version " + expectedVersion, e);
+        }
+
+        if (updateBeer.isEmpty()) {
             throw new NotFoundException();
         } else {
-            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            return new ResponseEntity<>(eTagHeaders(updateBeer.get()), HttpStatus.NO_CONTENT);
+        }
+    }
+
+    /**
+     * The beer's version as a strong entity tag, e.g. {@code "3"}.
+     */
+    private HttpHeaders eTagHeaders(BeerDTO beer) {
+        HttpHeaders responseHeaders = new HttpHeaders();
+        if (beer.getVersion() != null) {
+            responseHeaders.setETag("\"" + beer.getVersion() + "\"");
+        }
+        return responseHeaders;
+    }
+
+    /**
+     * The version an {@code If-Match} header asks for, or null when there is no precondition ({@code *} matches any
+     * version of an existing beer). A tag that can't be one of our versions never matches.
+     */
+    private Integer parseIfMatch(String ifMatch) {
+        if (!StringUtils.hasText(ifMatch) || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+
+        try {
+            return Integer.valueOf(tag);
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("Unknown entity tag " + ifMatch);
         }
     }
 }
@@ -0,0 +1,49 @@
+package guru.springframework.spring6restmvc.controllers;
+
+import guru.springframework.spring6restmvc.models.BeerCsvImportProgress;
+import guru.springframework.spring6restmvc.services.BeerCsvImportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+@RestController
+@Slf4j
+@RequiredArgsConstructor
+public class BeerImportController {
+
+    public static final String BEER_IMPORT_PATH = "/api/v1/admin/beer/import";
+    public static final String BEER_IMPORT_PATH_ID = BEER_IMPORT_PATH + "/{importId}";
+
+    private final BeerCsvImportService beerCsvImportService;
+
+    @PostMapping(value = BEER_IMPORT_PATH, consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<BeerCsvImportProgress> importBeers(@RequestParam("file") MultipartFile file) throws IOException {
+        log.debug("Import beers - in controller");
+
+        // spool the upload, the request (and its multipart storage) is gone before the import finishes
+        Path upload = Files.createTempFile("beer-import-", ".csv");
+        file.transferTo(upload);
+
+        BeerCsvImportProgress progress = beerCsvImportService.startImport(upload);
+
+        HttpHeaders responseHeaders = new HttpHeaders();
+        responseHeaders.add("Location", BEER_IMPORT_PATH + "/" + progress.getImportId().toString());
+        return new ResponseEntity<>(progress, responseHeaders, HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping(BEER_IMPORT_PATH_ID)
+    public BeerCsvImportProgress getImport(@PathVariable UUID importId) {
+        log.debug("Get beer import - in controller");
+        return beerCsvImportService.getImport(importId).orElseThrow(NotFoundException::new);
+    }
+}
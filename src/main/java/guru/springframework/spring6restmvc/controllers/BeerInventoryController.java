@@ -0,0 +1,52 @@
+package guru.springframework.spring6restmvc.controllers;
+
+import guru.springframework.spring6restmvc.models.BeerInventoryAdjustment;
+import guru.springframework.spring6restmvc.models.BeerInventoryResult;
+import guru.springframework.spring6restmvc.services.BeerInventoryService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Stock deltas for the warehouse, e.g. {@code {"delta": -6}} when a case is picked. Stock never goes below zero, an
+ * adjustment that would take it there is refused with the current stock.
+ */
+@RestController
+@Slf4j
+@RequiredArgsConstructor
+public class BeerInventoryController {
+
+    public static final String BEER_INVENTORY_PATH = BeerController.BEER_PATH + "/inventory";
+    public static final String BEER_INVENTORY_PATH_ID = BeerController.BEER_PATH_ID + "/inventory";
+
+    private final BeerInventoryService beerInventoryService;
+
+    @PostMapping(BEER_INVENTORY_PATH_ID)
+    public ResponseEntity<BeerInventoryResult> adjustInventory(@PathVariable UUID beerId,
+                                                               @Validated @RequestBody BeerInventoryAdjustment adjustment) {
+        log.debug("Adjust inventory - in controller");
+        BeerInventoryResult result = beerInventoryService.adjustInventory(beerId, adjustment.getDelta());
+
+        return switch (result.getStatus()) {
+            case ADJUSTED -> ResponseEntity.ok(result);
+            case INSUFFICIENT_STOCK -> ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+            case NOT_FOUND -> throw new NotFoundException();
+        };
+    }
+
+    /**
+     * Every adjustment is applied independently, the status of each is in its result.
+     */
+    @PostMapping(BEER_INVENTORY_PATH)
+    public List<BeerInventoryResult> adjustInventories(@RequestBody List<@Valid BeerInventoryAdjustment> adjustments) {
+        log.debug("Adjust inventory of {} beers - in controller", adjustments.size());
+        return beerInventoryService.adjustInventory(adjustments);
+    }
+}
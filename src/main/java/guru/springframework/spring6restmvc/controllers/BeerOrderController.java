@@ -1,6 +1,8 @@
 package guru.springframework.spring6restmvc.controllers;
 
 import guru.springframework.spring6restmvc.entities.BeerOrder;
+import guru.springframework.spring6restmvc.models.BeerOrderBulkResult;
+import guru.springframework.spring6restmvc.services.BeerOrderBulkService;
 import guru.springframework.spring6restmvc.services.BeerOrderService;
 import guru.springframework.spring6restmvcapi.models.BeerOrderCreateDTO;
 import guru.springframework.spring6restmvcapi.models.BeerOrderDTO;
@@ -8,10 +10,12 @@ import guru.springframework.spring6restmvcapi.models.BeerOrderUpdateDTO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.net.URI;
 import java.util.UUID;
 
@@ -22,8 +26,10 @@ public class BeerOrderController {
 
     public static final String BEER_ORDER_PATH = "/api/v1/beerorder";
     public static final String BEER_ORDER_PATH_ID = BEER_ORDER_PATH + "/{beerOrderId}";
+    public static final String BEER_ORDER_BULK_PATH = BEER_ORDER_PATH + "/bulk";
 
     private final BeerOrderService beerOrderService;
+    private final BeerOrderBulkService beerOrderBulkService;
 
     @GetMapping(BEER_ORDER_PATH)
     public Page<BeerOrderDTO> listBeerOrders(@RequestParam(required = false) Integer pageNumber,
@@ -45,6 +51,12 @@ public class BeerOrderController {
         return ResponseEntity.created(URI.create(BEER_ORDER_PATH + "/" + savedBeerOrder.getId().toString())).build();
     }
 
+    @PostMapping(value = BEER_ORDER_BULK_PATH, consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BeerOrderBulkResult> createBeerOrders(InputStream body) {
+        log.debug("Create beer orders in bulk - in controller");
+        return ResponseEntity.ok(beerOrderBulkService.createBeerOrders(body));
+    }
+
     @PutMapping(BEER_ORDER_PATH_ID)
     public ResponseEntity<BeerOrderDTO> updateBeerOrder(@PathVariable UUID beerOrderId, @Validated @RequestBody BeerOrderUpdateDTO beerOrderUpdateDTO) {
         log.debug("Update beer order - in controller");
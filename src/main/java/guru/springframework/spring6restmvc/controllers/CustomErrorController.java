@@ -1,6 +1,9 @@
 package guru.springframework.spring6restmvc.controllers;
 
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.TransactionSystemException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -30,6 +33,22 @@ public class CustomErrorController {
         return responseEntity.build();
     }
 
+    /**
+     * A concurrent update won every retry.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    ResponseEntity<Void> handleOptimisticLockingFailure(OptimisticLockingFailureException exception) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    /**
+     * The async executor has no room left for the request.
+     */
+    @ExceptionHandler(TaskRejectedException.class)
+    ResponseEntity<Void> handleTaskRejected(TaskRejectedException exception) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     ResponseEntity<List<Map<String, String>>> handleBindErrors(MethodArgumentNotValidException exception) {
         List<Map<String, String>> errorList = exception.getFieldErrors().stream().map(fieldError -> {
@@ -0,0 +1,45 @@
+package guru.springframework.spring6restmvc.controllers;
+
+import guru.springframework.spring6restmvc.configs.DrinkRoutingProperties;
+import guru.springframework.spring6restmvc.listeners.DrinkRouteTable;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@Slf4j
+@RequiredArgsConstructor
+public class DrinkRouteController {
+
+    public static final String DRINK_ROUTE_PATH = "/api/v1/admin/drink-route";
+    public static final String DRINK_ROUTE_RELOAD_PATH = DRINK_ROUTE_PATH + "/reload";
+
+    private final DrinkRouteTable drinkRouteTable;
+    private final Environment environment;
+
+    @GetMapping(DRINK_ROUTE_PATH)
+    public DrinkRoutingProperties getRoutes() {
+        return drinkRouteTable.getRoutes();
+    }
+
+    @PutMapping(DRINK_ROUTE_PATH)
+    public DrinkRoutingProperties updateRoutes(@Validated @RequestBody DrinkRoutingProperties drinkRoutingProperties) {
+        log.debug("Update drink routes - in controller");
+        drinkRouteTable.update(drinkRoutingProperties);
+        return drinkRouteTable.getRoutes();
+    }
+
+    /**
+     * Rebinds the routes from the environment, dropping any changes made through {@link #updateRoutes}.
+     */
+    @PostMapping(DRINK_ROUTE_RELOAD_PATH)
+    public DrinkRoutingProperties reloadRoutes() {
+        log.debug("Reload drink routes - in controller");
+        drinkRouteTable.update(Binder.get(environment)
+                .bindOrCreate(DrinkRoutingProperties.PREFIX, DrinkRoutingProperties.class));
+        return drinkRouteTable.getRoutes();
+    }
+}
@@ -0,0 +1,11 @@
+package guru.springframework.spring6restmvc.controllers;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "Invalid Cursor")
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
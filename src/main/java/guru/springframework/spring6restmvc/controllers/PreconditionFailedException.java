@@ -0,0 +1,18 @@
+package guru.springframework.spring6restmvc.controllers;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.PRECONDITION_FAILED, reason = "Version Does Not Match")
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+
+    public PreconditionFailedException() {
+    }
+}
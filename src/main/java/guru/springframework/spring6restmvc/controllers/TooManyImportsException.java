@@ -0,0 +1,11 @@
+package guru.springframework.spring6restmvc.controllers;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.TOO_MANY_REQUESTS, reason = "Too Many Imports Running")
+public class TooManyImportsException extends RuntimeException {
+    public TooManyImportsException(String message) {
+        super(message);
+    }
+}
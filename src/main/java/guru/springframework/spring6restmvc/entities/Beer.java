@@ -6,10 +6,11 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.UpdateTimestamp;
-import org.hibernate.annotations.UuidGenerator;
 import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
@@ -22,15 +23,23 @@ import java.util.UUID;
 @Getter
 @Setter
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Beer.CACHE_REGION)
+@Table(indexes = {
+        @Index(name = "beer_name_id_idx", columnList = "beer_name, id"),
+        @Index(name = "beer_style_name_id_idx", columnList = "beer_style, beer_name, id")
+})
 @AllArgsConstructor
 @NoArgsConstructor
 public class Beer {
 
+    public static final String CACHE_REGION = "beer";
+    public static final String CATEGORIES_CACHE_REGION = "beer-categories";
+
     @Id
-    @GeneratedValue(generator = "UUID")
-    @UuidGenerator
-    @JdbcTypeCode(SqlTypes.CHAR)
-    @Column(length = 36, columnDefinition = "varchar(36)", updatable = false, nullable = false)
+    @TimeOrderedUuid
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(length = 16, columnDefinition = "binary(16)", updatable = false, nullable = false)
     private UUID id;
 
     @Version
@@ -67,6 +76,7 @@ public class Beer {
 
     @Builder.Default
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CATEGORIES_CACHE_REGION)
     @JoinTable(name = "beer_category",
             joinColumns = @JoinColumn(name = "beer_id"),
             inverseJoinColumns = @JoinColumn(name = "category_id")
@@ -3,13 +3,11 @@ package guru.springframework.spring6restmvc.entities;
 import guru.springframework.spring6restmvcapi.models.BeerStyle;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.validation.constraints.Size;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.annotations.UuidGenerator;
 import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
@@ -25,14 +23,13 @@ import java.util.UUID;
 public class BeerAudit {
 
     @Id
-    @GeneratedValue(generator = "UUID")
-    @UuidGenerator
-    @JdbcTypeCode(SqlTypes.CHAR)
-    @Column(length = 36, columnDefinition = "varchar(36)", updatable = false, nullable = false)
+    @TimeOrderedUuid
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(length = 16, columnDefinition = "binary(16)", updatable = false, nullable = false)
     private UUID auditId;
 
-    @JdbcTypeCode(SqlTypes.CHAR)
-    @Column(length = 36, columnDefinition = "varchar(36)", updatable = false, nullable = false)
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(length = 16, columnDefinition = "binary(16)", updatable = false, nullable = false)
     private UUID id;
 
     private Integer version;
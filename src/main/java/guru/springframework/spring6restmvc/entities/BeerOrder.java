@@ -8,7 +8,6 @@ import lombok.Setter;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.UpdateTimestamp;
-import org.hibernate.annotations.UuidGenerator;
 import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
@@ -19,10 +18,21 @@ import java.util.UUID;
 @Getter
 @Setter
 @Entity
+@Table(indexes = @Index(name = "beer_order_create_date_id_idx", columnList = "create_date desc, id desc"))
 @NoArgsConstructor
 @Builder
+@NamedEntityGraph(name = BeerOrder.DETAILS_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode("customer"),
+                @NamedAttributeNode("beerOrderShipment"),
+                @NamedAttributeNode(value = "beerOrderLines", subgraph = "beerOrderLines")
+        },
+        subgraphs = @NamedSubgraph(name = "beerOrderLines", attributeNodes = @NamedAttributeNode("beer"))
+)
 public class BeerOrder {
 
+    public static final String DETAILS_GRAPH = "BeerOrder.details";
+
     public BeerOrder(UUID id, Long version, Timestamp createDate,
                      Timestamp updateDate, String customerRef, Customer customer,
                      Set<BeerOrderLine> beerOrderLines, BeerOrderShipment beerOrderShipment, BigDecimal paymentAmount) {
@@ -39,10 +49,9 @@ public class BeerOrder {
     }
 
     @Id
-    @GeneratedValue(generator = "UUID")
-    @UuidGenerator
-    @JdbcTypeCode(SqlTypes.CHAR)
-    @Column(length = 36, columnDefinition = "varchar(36)", updatable = false, nullable = false)
+    @TimeOrderedUuid
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(length = 16, columnDefinition = "binary(16)", updatable = false, nullable = false)
     private UUID id;
 
     @Version
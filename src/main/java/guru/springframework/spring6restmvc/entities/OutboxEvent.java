@@ -0,0 +1,56 @@
+package guru.springframework.spring6restmvc.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An event waiting to be published to Kafka. Written in the transaction that produced it and deleted by the
+ * relay once the broker acknowledged it. A relay claims the event until {@link #claimedUntil} while it waits for
+ * the broker; events that failed {@code max-attempts} times are no longer relayed and stay for inspection.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Builder
+public class OutboxEvent {
+
+    @Id
+    @TimeOrderedUuid
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(length = 16, columnDefinition = "binary(16)", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(length = 50, nullable = false)
+    private String aggregateType;
+
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(length = 16, columnDefinition = "binary(16)", nullable = false)
+    private UUID aggregateId;
+
+    @Column(nullable = false)
+    private String topic;
+
+    @Column(nullable = false)
+    private String eventType;
+
+    @Column(columnDefinition = "longtext", nullable = false)
+    private String payload;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createDate;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private int attempts = 0;
+
+    private LocalDateTime claimedUntil;
+}
@@ -0,0 +1,19 @@
+package guru.springframework.spring6restmvc.entities;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Generates the id as a time ordered version 7 UUID with {@link TimeOrderedUuidGenerator}.
+ */
+@IdGeneratorType(TimeOrderedUuidGenerator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface TimeOrderedUuid {
+}
@@ -0,0 +1,44 @@
+package guru.springframework.spring6restmvc.entities;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RFC 9562 version 7 UUIDs: 48 bits of Unix epoch milliseconds, then a 12 bit counter and 62 random bits. Ids
+ * created later compare greater, so inserts append to the right edge of the primary key index instead of splitting
+ * random pages. Within a millisecond the counter keeps ids of this JVM strictly increasing, even if the clock steps
+ * back. Stored big endian in a {@code binary(16)} column the byte order is the time order.
+ */
+public class TimeOrderedUuidGenerator implements BeforeExecutionGenerator {
+
+    private static final AtomicLong LAST_TIMESTAMP_AND_COUNTER = new AtomicLong();
+
+    public static UUID nextUuid() {
+        long timestampAndCounter = LAST_TIMESTAMP_AND_COUNTER.updateAndGet(last ->
+                Math.max(last + 1, System.currentTimeMillis() << 12));
+
+        long mostSigBits = (timestampAndCounter >>> 12) << 16
+                | 0x7000L
+                | (timestampAndCounter & 0xFFFL);
+        long leastSigBits = ThreadLocalRandom.current().nextLong() >>> 2
+                | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return nextUuid();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
@@ -0,0 +1,21 @@
+package guru.springframework.spring6restmvc.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.UUID;
+
+/**
+ * Published once a CSV import has written its beers, which bypasses the per-beer {@link BeerEvent}s.
+ */
+@Builder
+@AllArgsConstructor
+@Getter
+@Setter
+public class BeersImportedEvent {
+
+    private UUID importId;
+    private long rowsImported;
+}
@@ -2,12 +2,11 @@ package guru.springframework.spring6restmvc.listeners;
 
 import guru.springframework.spring6restmvc.events.*;
 import guru.springframework.spring6restmvc.mappers.BeerMapper;
-import guru.springframework.spring6restmvc.repositories.BeerAuditRepository;
+import guru.springframework.spring6restmvc.services.BeerAuditWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -16,9 +15,12 @@ import org.springframework.stereotype.Component;
 public class BeerListener {
 
     private final BeerMapper beerMapper;
-    private final BeerAuditRepository beerAuditRepository;
+    private final BeerAuditWriter beerAuditWriter;
 
-    @Async
+    /**
+     * Maps the event on the publishing thread, so the audit captures the beer as it was, and hands it to the
+     * batching {@link BeerAuditWriter}.
+     */
     @EventListener
     public void listen(BeerEvent beerEvent) {
 
@@ -39,7 +41,8 @@ public class BeerListener {
             beerAudit.setPrincipalName(beerEvent.getAuthentication().getName());
         }
 
-        val savedBeerAudit = beerAuditRepository.save(beerAudit);
-        log.debug("Beer Audit Saved: {}", savedBeerAudit.getId());
+        if (beerAuditWriter.enqueue(beerAudit)) {
+            log.debug("Beer Audit Queued: {}", beerAudit.getId());
+        }
     }
 }
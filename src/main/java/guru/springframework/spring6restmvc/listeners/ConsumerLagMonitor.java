@@ -0,0 +1,129 @@
+package guru.springframework.spring6restmvc.listeners;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes the committed offset lag of the listener consumer groups per partition as the
+ * {@code kafka.consumer.group.lag} gauge. Unlike the client side {@code records-lag} metric this is what is left
+ * to process after a restart or rebalance, which is what matters with batch commits, and it is reported for
+ * partitions whether or not this instance currently owns them.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.kafka.lag.enabled", havingValue = "true")
+public class ConsumerLagMonitor implements DisposableBean {
+
+    private record GroupPartition(String groupId, TopicPartition topicPartition) {
+    }
+
+    private final AdminClient adminClient;
+    private final MeterRegistry meterRegistry;
+    private final List<String> groupIds;
+    private final Duration timeout;
+
+    private final Map<GroupPartition, AtomicLong> lags = new ConcurrentHashMap<>();
+    private final Map<GroupPartition, Gauge> gauges = new ConcurrentHashMap<>();
+
+    public ConsumerLagMonitor(KafkaAdmin kafkaAdmin, MeterRegistry meterRegistry,
+                              @Value("${app.kafka.lag.groups:" + DrinkSplitterRouter.GROUP_ID + "}") List<String> groupIds,
+                              @Value("${app.kafka.lag.timeout:10s}") Duration timeout) {
+        this.adminClient = AdminClient.create(kafkaAdmin.getConfigurationProperties());
+        this.meterRegistry = meterRegistry;
+        this.groupIds = groupIds;
+        this.timeout = timeout;
+    }
+
+    @Scheduled(fixedDelayString = "${app.kafka.lag.poll-interval:30s}")
+    public void update() {
+        Set<GroupPartition> seen = new HashSet<>();
+        for (String groupId : groupIds) {
+            try {
+                seen.addAll(update(groupId));
+            } catch (Exception e) {
+                log.warn("Could not read consumer lag of group {}", groupId, e);
+                // keep the last known values rather than dropping the gauges on a transient failure
+                lags.keySet().stream().filter(groupPartition -> groupPartition.groupId().equals(groupId)).forEach(seen::add);
+            }
+        }
+
+        // partitions that are gone (topic deleted, group expired) stop reporting
+        gauges.keySet().removeIf(groupPartition -> {
+            if (seen.contains(groupPartition)) {
+                return false;
+            }
+            meterRegistry.remove(gauges.get(groupPartition));
+            lags.remove(groupPartition);
+            return true;
+        });
+    }
+
+    private Set<GroupPartition> update(String groupId) throws Exception {
+        Map<TopicPartition, OffsetAndMetadata> committed = adminClient.listConsumerGroupOffsets(groupId)
+                .partitionsToOffsetAndMetadata()
+                .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        if (committed.isEmpty()) {
+            return Set.of();
+        }
+
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> endOffsets = adminClient.listOffsets(committed.keySet()
+                        .stream()
+                        .collect(Collectors.toMap(Function.identity(), topicPartition -> OffsetSpec.latest())))
+                .all()
+                .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+
+        Set<GroupPartition> seen = new HashSet<>();
+        committed.forEach((topicPartition, offsetAndMetadata) -> {
+            ListOffsetsResult.ListOffsetsResultInfo endOffset = endOffsets.get(topicPartition);
+            if (offsetAndMetadata == null || endOffset == null) {
+                return;
+            }
+
+            GroupPartition groupPartition = new GroupPartition(groupId, topicPartition);
+            lag(groupPartition).set(Math.max(0, endOffset.offset() - offsetAndMetadata.offset()));
+            seen.add(groupPartition);
+        });
+        return seen;
+    }
+
+    private AtomicLong lag(GroupPartition groupPartition) {
+        return lags.computeIfAbsent(groupPartition, key -> {
+            AtomicLong lag = new AtomicLong();
+            gauges.put(key, Gauge.builder("kafka.consumer.group.lag", lag, AtomicLong::get)
+                    .description("Records between the committed offset of the group and the end of the partition")
+                    .tag("group", key.groupId())
+                    .tag("topic", key.topicPartition().topic())
+                    .tag("partition", String.valueOf(key.topicPartition().partition()))
+                    .register(meterRegistry));
+            return lag;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        adminClient.close(timeout);
+    }
+}
@@ -0,0 +1,65 @@
+package guru.springframework.spring6restmvc.listeners;
+
+import guru.springframework.spring6restmvc.configs.DrinkRoutingProperties;
+import guru.springframework.spring6restmvcapi.models.BeerStyle;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Beer style to drink request topic lookup for {@link DrinkSplitterRouter}. The table is an immutable snapshot
+ * that is swapped as a whole on {@link #update}, so routing never sees a half applied change and needs no locking.
+ */
+@Slf4j
+@Component
+public class DrinkRouteTable {
+
+    private record Routes(EnumMap<BeerStyle, String> topics, String fallbackTopic) {
+    }
+
+    private volatile Routes routes;
+
+    public DrinkRouteTable(DrinkRoutingProperties drinkRoutingProperties) {
+        update(drinkRoutingProperties);
+    }
+
+    /**
+     * The topic for the style, or the fallback topic when the style has no route.
+     */
+    public String topicFor(BeerStyle beerStyle) {
+        Routes current = routes;
+        String topic = beerStyle == null ? null : current.topics().get(beerStyle);
+        return topic == null ? current.fallbackTopic() : topic;
+    }
+
+    public boolean isRouted(BeerStyle beerStyle) {
+        return beerStyle != null && routes.topics().containsKey(beerStyle);
+    }
+
+    public void update(DrinkRoutingProperties drinkRoutingProperties) {
+        if (!StringUtils.hasText(drinkRoutingProperties.getFallbackTopic())) {
+            throw new IllegalArgumentException("A fallback topic is required");
+        }
+
+        EnumMap<BeerStyle, String> topics = new EnumMap<>(BeerStyle.class);
+        drinkRoutingProperties.getRoutes().forEach((beerStyle, topic) -> {
+            if (StringUtils.hasText(topic)) {
+                topics.put(beerStyle, topic);
+            }
+        });
+
+        routes = new Routes(topics, drinkRoutingProperties.getFallbackTopic());
+        log.info("Drink routes {}, fallback {}", topics, drinkRoutingProperties.getFallbackTopic());
+    }
+
+    public DrinkRoutingProperties getRoutes() {
+        Routes current = routes;
+        DrinkRoutingProperties drinkRoutingProperties = new DrinkRoutingProperties();
+        drinkRoutingProperties.setRoutes(new EnumMap<>(current.topics()));
+        drinkRoutingProperties.setFallbackTopic(current.fallbackTopic());
+        return drinkRoutingProperties;
+    }
+}
@@ -4,89 +4,159 @@ import guru.springframework.spring6restmvc.configs.KafkaConfig;
 import guru.springframework.spring6restmvcapi.events.DrinkRequestEvent;
 import guru.springframework.spring6restmvcapi.events.OrderPlacedEvent;
 import guru.springframework.spring6restmvcapi.models.BeerOrderLineDTO;
-import lombok.RequiredArgsConstructor;
+import guru.springframework.spring6restmvcapi.models.BeerStyle;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.KafkaException;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Splits placed orders into one drink request per order line, routed by beer style through the
+ * {@link DrinkRouteTable}. Lines for a style without a route go to the fallback topic rather than being dropped.
+ * Orders are consumed a poll at a time and the offsets are only committed once every drink request of the batch
+ * has been acknowledged by the broker. If any send fails the batch is handed to the container's error handler, which
+ * retries it with backoff until the broker takes it, so drink requests are delivered at least once. Drink requests
+ * are keyed by order id so all lines of one order land on the same partition.
+ */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class DrinkSplitterRouter {
 
+    public static final String GROUP_ID = "DrinkSplitterRouter";
+
     private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final DrinkRouteTable drinkRouteTable;
+    private final MeterRegistry meterRegistry;
+    private final Duration sendTimeout;
+
+    private final DistributionSummary batchSizeSummary;
+    private final Counter unroutedCounter;
+    private final Map<String, TopicMeters> topicMeters = new ConcurrentHashMap<>();
+
+    private record TopicMeters(Timer acknowledged, Counter failed) {
+    }
+
+    public DrinkSplitterRouter(KafkaTemplate<String, Object> kafkaTemplate, DrinkRouteTable drinkRouteTable,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.drink-splitter.send-timeout:10s}") Duration sendTimeout) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.drinkRouteTable = drinkRouteTable;
+        this.meterRegistry = meterRegistry;
+        this.sendTimeout = sendTimeout;
+        this.batchSizeSummary = DistributionSummary.builder("drink.splitter.batch.size")
+                .description("Placed orders routed per poll")
+                .register(meterRegistry);
+        this.unroutedCounter = meterRegistry.counter("drink.splitter.unrouted");
+    }
 
-    @KafkaListener(groupId = "DrinkSplitterRouter", topics = KafkaConfig.ORDER_PLACED_TOPIC)
-    public void receive(@Payload OrderPlacedEvent orderPlacedEvent) {
+    @KafkaListener(groupId = GROUP_ID, topics = KafkaConfig.ORDER_PLACED_TOPIC,
+            containerFactory = KafkaConfig.BATCH_LISTENER_CONTAINER_FACTORY,
+            concurrency = "${app.drink-splitter.concurrency:1}")
+    public void receiveBatch(List<ConsumerRecord<String, OrderPlacedEvent>> records, Acknowledgment acknowledgment) {
+        batchSizeSummary.record(records.size());
+
+        List<CompletableFuture<Void>> sends = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, OrderPlacedEvent> consumerRecord : records) {
+            sends.add(receive(consumerRecord.value()));
+        }
+
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                    .get(sendTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaException("Interrupted waiting for drink requests to be acknowledged", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new KafkaException("Drink requests for " + records.size()
+                    + " placed orders were not acknowledged, the batch will be redelivered", e);
+        }
+
+        acknowledgment.acknowledge();
+        log.debug("Routed {} placed orders", records.size());
+    }
 
-        if (orderPlacedEvent.getBeerOrderDTO() == null ||
+    /**
+     * Sends the drink requests of one order. The returned future completes once all of them are acknowledged.
+     */
+    public CompletableFuture<Void> receive(OrderPlacedEvent orderPlacedEvent) {
+
+        if (orderPlacedEvent == null || orderPlacedEvent.getBeerOrderDTO() == null ||
                 orderPlacedEvent.getBeerOrderDTO().getBeerOrderLines() == null ||
                 orderPlacedEvent.getBeerOrderDTO().getBeerOrderLines().isEmpty()) {
             log.error("Received OrderPlacedEvent without beer order lines");
-            return;
+            return CompletableFuture.completedFuture(null);
         }
 
-        orderPlacedEvent.getBeerOrderDTO().getBeerOrderLines().forEach(beerOrderLine -> {
-            switch (beerOrderLine.getBeer().getBeerStyle()) {
-                case LAGER:
-                    log.info("Splitting LAGER Order");
-                    sendIceColdBeer(beerOrderLine);
-                    break;
-                case STOUT:
-                    log.info("Splitting STOUT Order");
-                    sendCoolBeer(beerOrderLine);
-                    break;
-                case GOSE:
-                    log.info("Splitting GOSE Order");
-                    sendColdBeer(beerOrderLine);
-                    break;
-                case PORTER:
-                    log.info("Splitting PORTER Order");
-                    sendCoolBeer(beerOrderLine);
-                    break;
-                case ALE:
-                    log.info("Splitting ALE Order");
-                    sendCoolBeer(beerOrderLine);
-                    break;
-                case WHEAT:
-                    log.info("Splitting WHEAT Order");
-                    sendColdBeer(beerOrderLine);
-                    break;
-                case IPA:
-                    log.info("Splitting IPA Order");
-                    sendCoolBeer(beerOrderLine);
-                    break;
-                case PALE_ALE:
-                    log.info("Splitting PALE_ALE Order");
-                    sendCoolBeer(beerOrderLine);
-                    break;
-                case SAISON:
-                    log.info("Splitting SAISON Order");
-                    sendIceColdBeer(beerOrderLine);
-                    break;
+        String key = orderPlacedEvent.getBeerOrderDTO().getId() == null ? null
+                : orderPlacedEvent.getBeerOrderDTO().getId().toString();
+
+        List<CompletableFuture<SendResult<String, Object>>> sends =
+                new ArrayList<>(orderPlacedEvent.getBeerOrderDTO().getBeerOrderLines().size());
+        for (BeerOrderLineDTO beerOrderLine : orderPlacedEvent.getBeerOrderDTO().getBeerOrderLines()) {
+            BeerStyle beerStyle = beerOrderLine.getBeer() == null ? null : beerOrderLine.getBeer().getBeerStyle();
+            String topic = drinkRouteTable.topicFor(beerStyle);
+            if (!drinkRouteTable.isRouted(beerStyle)) {
+                unroutedCounter.increment();
+                log.warn("No drink request route for {} in order {}, sending to {}", beerStyle, key, topic);
             }
-        });
-    }
+            log.trace("Splitting {} order line of order {} to {}", beerStyle, key, topic);
+            sends.add(send(topic, key, beerOrderLine));
+        }
 
-    private void sendIceColdBeer(BeerOrderLineDTO beerOrderLine) {
-        kafkaTemplate.send(KafkaConfig.DRINK_REQUEST_ICE_COLD_TOPIC, DrinkRequestEvent.builder()
-                .beerOrderLine(beerOrderLine)
-                .build());
+        return CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new));
     }
 
-    private void sendColdBeer(BeerOrderLineDTO beerOrderLine) {
-        kafkaTemplate.send(KafkaConfig.DRINK_REQUEST_COLD_TOPIC, DrinkRequestEvent.builder()
-                .beerOrderLine(beerOrderLine)
-                .build());
-    }
+    private CompletableFuture<SendResult<String, Object>> send(String topic, String key, BeerOrderLineDTO beerOrderLine) {
+        TopicMeters meters = topicMeters.computeIfAbsent(topic, this::registerTopicMeters);
+        long start = System.nanoTime();
 
-    private void sendCoolBeer(BeerOrderLineDTO beerOrderLine) {
-        kafkaTemplate.send(KafkaConfig.DRINK_REQUEST_COOL_TOPIC, DrinkRequestEvent.builder()
-                .beerOrderLine(beerOrderLine)
-                .build());
-    }
+        CompletableFuture<SendResult<String, Object>> send;
+        try {
+            send = kafkaTemplate.send(topic, key, DrinkRequestEvent.builder()
+                    .beerOrderLine(beerOrderLine)
+                    .build());
+        } catch (RuntimeException e) {
+            meters.failed().increment();
+            return CompletableFuture.failedFuture(e);
+        }
 
+        return send.whenComplete((result, throwable) -> {
+            if (throwable == null) {
+                meters.acknowledged().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            } else {
+                meters.failed().increment();
+                log.warn("Drink request for order {} to {} failed", key, topic, throwable);
+            }
+        });
+    }
 
+    private TopicMeters registerTopicMeters(String topic) {
+        return new TopicMeters(
+                Timer.builder("drink.splitter.send")
+                        .description("Time from send until the broker acknowledged the drink request")
+                        .tag("topic", topic)
+                        .register(meterRegistry),
+                Counter.builder("drink.splitter.send.failed")
+                        .tag("topic", topic)
+                        .register(meterRegistry));
+    }
 }
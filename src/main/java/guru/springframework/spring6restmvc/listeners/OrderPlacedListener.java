@@ -1,25 +1,30 @@
 package guru.springframework.spring6restmvc.listeners;
 
 import guru.springframework.spring6restmvc.configs.KafkaConfig;
+import guru.springframework.spring6restmvc.services.OutboxService;
 import guru.springframework.spring6restmvcapi.events.OrderPlacedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.event.EventListener;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class OrderPlacedListener {
 
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    public static final String BEER_ORDER_AGGREGATE = "BeerOrder";
 
-    @Async
-    @EventListener
+    private final OutboxService outboxService;
+
+    /**
+     * Stores the event in the outbox as part of the order's transaction, the outbox relay publishes it to Kafka.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
     public void handleOrderPlacedEvent(OrderPlacedEvent orderPlacedEvent) {
         log.debug("Received OrderPlacedEvent {}", orderPlacedEvent);
-        kafkaTemplate.send(KafkaConfig.ORDER_PLACED_TOPIC, orderPlacedEvent);
+        outboxService.append(BEER_ORDER_AGGREGATE, orderPlacedEvent.getBeerOrderDTO().getId(),
+                KafkaConfig.ORDER_PLACED_TOPIC, orderPlacedEvent);
     }
 }
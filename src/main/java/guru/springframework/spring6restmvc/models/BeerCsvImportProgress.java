@@ -0,0 +1,33 @@
+package guru.springframework.spring6restmvc.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BeerCsvImportProgress {
+
+    public enum Status {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    private UUID importId;
+    private Status status;
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsSkipped;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    /**
+     * Set when the import failed. Chunks committed before the failure stay imported.
+     */
+    private String error;
+}
@@ -0,0 +1,27 @@
+package guru.springframework.spring6restmvc.models;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BeerInventoryAdjustment {
+
+    /**
+     * Taken from the path for a single beer, required in a batch.
+     */
+    private UUID beerId;
+
+    /**
+     * Units received (positive) or picked (negative).
+     */
+    @NotNull
+    private Integer delta;
+}
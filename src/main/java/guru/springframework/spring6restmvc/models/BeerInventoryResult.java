@@ -0,0 +1,27 @@
+package guru.springframework.spring6restmvc.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BeerInventoryResult {
+
+    public enum Status {
+        ADJUSTED, INSUFFICIENT_STOCK, NOT_FOUND
+    }
+
+    private UUID beerId;
+    private Status status;
+
+    /**
+     * Stock after the adjustment, or the unchanged stock when there wasn't enough of it.
+     */
+    private Integer quantityOnHand;
+}
@@ -0,0 +1,54 @@
+package guru.springframework.spring6restmvc.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BeerOrderBulkResult {
+
+    public enum Status {
+        CREATED, REJECTED, FAILED
+    }
+
+    private int received;
+    private int created;
+    private int rejected;
+    private int failed;
+
+    /**
+     * Set when the payload could not be parsed any further. Orders before that point have been processed.
+     */
+    private String error;
+
+    @Builder.Default
+    private List<Item> results = new ArrayList<>();
+
+    public void add(Item item) {
+        results.add(item);
+        switch (item.getStatus()) {
+            case CREATED -> created++;
+            case REJECTED -> rejected++;
+            case FAILED -> failed++;
+        }
+    }
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Item {
+        private int index;
+        private Status status;
+        private UUID beerOrderId;
+        private String message;
+    }
+}
@@ -0,0 +1,39 @@
+package guru.springframework.spring6restmvc.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SlowQuerySummary {
+
+    private String sql;
+    private String dataSource;
+    private long count;
+    private long totalMillis;
+    private long maxMillis;
+    private Instant lastSeen;
+
+    /**
+     * Rows returned or changed by the slowest execution, {@code null} when the driver didn't report them.
+     */
+    private Integer slowestRows;
+
+    /**
+     * The controller method, or for work outside a request the thread, that ran the slowest execution.
+     */
+    private String slowestOrigin;
+
+    /**
+     * {@code EXPLAIN} output for the slowest execution, one map per row, empty unless explaining is enabled.
+     */
+    private List<Map<String, Object>> plan;
+}
@@ -1,9 +1,28 @@
 package guru.springframework.spring6restmvc.repositories;
 
 import guru.springframework.spring6restmvc.entities.BeerOrder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface BeerOrderRepository extends JpaRepository<BeerOrder, UUID> {
+
+    // paging over ids first keeps the limit in the database, a collection fetch join would page in memory.
+    // Newest first, read in order from beer_order_create_date_id_idx
+    @Query(value = "select bo.id from BeerOrder bo order by bo.createDate desc, bo.id desc",
+            countQuery = "select count(bo) from BeerOrder bo")
+    Page<UUID> findAllIds(Pageable pageable);
+
+    @EntityGraph(BeerOrder.DETAILS_GRAPH)
+    List<BeerOrder> findAllByIdIn(Collection<UUID> ids);
+
+    @EntityGraph(BeerOrder.DETAILS_GRAPH)
+    Optional<BeerOrder> findWithDetailsById(UUID id);
 }
@@ -4,15 +4,97 @@ import guru.springframework.spring6restmvc.entities.Beer;
 import guru.springframework.spring6restmvcapi.models.BeerStyle;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface BeerRepository extends JpaRepository<Beer, UUID> {
+
+    // the listing and keyset queries go through the Hibernate query cache, which holds the ids of a result and
+    // resolves the beers from the second level cache. Any write to the beer table invalidates every cached result
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Page<Beer> findAllByBeerNameIsLike(String beerName, Pageable pageable);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Page<Beer> findAllByBeerStyle(BeerStyle beerStyle, Pageable pageable);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Page<Beer> findAllByBeerNameIsLikeAndBeerStyle(String beerName, BeerStyle beerStyle, Pageable pageable);
 
+    // keyset (seek) pagination in (beerName, id) order, returned as Slices so no count query is issued. The
+    // redundant "beerName >= :lastBeerName" gives the database a range to seek to in the (beer_name, id) and
+    // (beer_style, beer_name, id) indexes, an OR alone can't be turned into one
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Slice<Beer> findAllByOrderByBeerNameAscIdAsc(Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Slice<Beer> findAllByBeerNameIsLikeOrderByBeerNameAscIdAsc(String beerName, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Slice<Beer> findAllByBeerStyleOrderByBeerNameAscIdAsc(BeerStyle beerStyle, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Slice<Beer> findAllByBeerNameIsLikeAndBeerStyleOrderByBeerNameAscIdAsc(String beerName, BeerStyle beerStyle, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select b from Beer b " +
+            "where b.beerName >= :lastBeerName and (b.beerName > :lastBeerName or b.id > :lastId) " +
+            "order by b.beerName asc, b.id asc")
+    Slice<Beer> findAllAfter(@Param("lastBeerName") String lastBeerName, @Param("lastId") UUID lastId, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select b from Beer b " +
+            "where b.beerName like :beerName " +
+            "and b.beerName >= :lastBeerName and (b.beerName > :lastBeerName or b.id > :lastId) " +
+            "order by b.beerName asc, b.id asc")
+    Slice<Beer> findAllByBeerNameIsLikeAfter(@Param("beerName") String beerName, @Param("lastBeerName") String lastBeerName,
+                                             @Param("lastId") UUID lastId, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select b from Beer b " +
+            "where b.beerStyle = :beerStyle " +
+            "and b.beerName >= :lastBeerName and (b.beerName > :lastBeerName or b.id > :lastId) " +
+            "order by b.beerName asc, b.id asc")
+    Slice<Beer> findAllByBeerStyleAfter(@Param("beerStyle") BeerStyle beerStyle, @Param("lastBeerName") String lastBeerName,
+                                        @Param("lastId") UUID lastId, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select b from Beer b " +
+            "where b.beerName like :beerName and b.beerStyle = :beerStyle " +
+            "and b.beerName >= :lastBeerName and (b.beerName > :lastBeerName or b.id > :lastId) " +
+            "order by b.beerName asc, b.id asc")
+    Slice<Beer> findAllByBeerNameIsLikeAndBeerStyleAfter(@Param("beerName") String beerName, @Param("beerStyle") BeerStyle beerStyle,
+                                                         @Param("lastBeerName") String lastBeerName, @Param("lastId") UUID lastId,
+                                                         Pageable pageable);
+
+    int EXPORT_FETCH_SIZE = 1000;
+
+    // the export reads past the second level cache, a full pass over the catalog would push the hot beers out of it
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("select b from Beer b order by b.beerName asc, b.id asc")
+    Stream<Beer> streamAllBy();
+
+    /**
+     * The beer with its row locked until the transaction ends, so stock changes of the same beer don't interleave.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Beer b where b.id = :beerId")
+    Optional<Beer> findForUpdateById(@Param("beerId") UUID beerId);
 }
@@ -0,0 +1,41 @@
+package guru.springframework.spring6restmvc.repositories;
+
+import guru.springframework.spring6restmvc.entities.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, UUID> {
+
+    /**
+     * Events no relay has claimed, or whose claim expired, that haven't run out of attempts, oldest first. Lock
+     * timeout -2 is Hibernate's SKIP LOCKED, so several relays can claim batches side by side.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select e from OutboxEvent e where (e.claimedUntil is null or e.claimedUntil < :now) " +
+            "and e.attempts < :maxAttempts order by e.createDate")
+    List<OutboxEvent> findRelayable(LocalDateTime now, int maxAttempts, Pageable pageable);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.claimedUntil = :claimedUntil where e.id in :ids")
+    int claim(Collection<UUID> ids, LocalDateTime claimedUntil);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.claimedUntil = null where e.id in :ids")
+    int releaseClaims(Collection<UUID> ids);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.claimedUntil = null, e.attempts = e.attempts + 1 where e.id in :ids")
+    int recordFailedAttempts(Collection<UUID> ids);
+}
@@ -0,0 +1,82 @@
+package guru.springframework.spring6restmvc.serializers;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import guru.springframework.spring6restmvcapi.events.DrinkRequestEvent;
+import guru.springframework.spring6restmvcapi.events.OrderPlacedEvent;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Compact encoding for the events this service puts on Kafka. A three byte prefix (magic, format version and a
+ * numeric event type) replaces the class name type header of the JSON serializer, and the event itself is written
+ * as Smile, Jackson's binary JSON, with shared property names and string values. That keeps the mapping of the
+ * event classes, which live in the API module, in one place while dropping the text parsing and most of the size.
+ * <p>
+ * Event type ids are part of the wire format, only ever append to {@link #EVENT_TYPES}.
+ */
+public final class BinaryEventCodec {
+
+    public static final byte MAGIC = (byte) 0xBE;
+    public static final byte VERSION = 1;
+    public static final int PREFIX_LENGTH = 3;
+
+    private static final List<Class<?>> EVENT_TYPES = List.of(
+            OrderPlacedEvent.class,
+            DrinkRequestEvent.class);
+
+    private static final ObjectMapper SMILE_MAPPER = SmileMapper.builder(SmileFactory.builder()
+                    .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                    .build())
+            .findAndAddModules()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    private BinaryEventCodec() {
+    }
+
+    public static boolean supports(Class<?> eventType) {
+        return EVENT_TYPES.contains(eventType);
+    }
+
+    /**
+     * True when the payload starts with the binary prefix, anything else (such as JSON) is left to other decoders.
+     */
+    public static boolean isEncoded(byte[] data) {
+        return data != null && data.length >= PREFIX_LENGTH && data[0] == MAGIC;
+    }
+
+    public static byte[] encode(Object event) throws IOException {
+        int typeId = EVENT_TYPES.indexOf(event.getClass());
+        if (typeId < 0) {
+            throw new IllegalArgumentException("No binary encoding for " + event.getClass().getName());
+        }
+
+        byte[] body = SMILE_MAPPER.writeValueAsBytes(event);
+        byte[] data = new byte[PREFIX_LENGTH + body.length];
+        data[0] = MAGIC;
+        data[1] = VERSION;
+        data[2] = (byte) typeId;
+        System.arraycopy(body, 0, data, PREFIX_LENGTH, body.length);
+        return data;
+    }
+
+    public static Object decode(byte[] data) throws IOException {
+        if (!isEncoded(data)) {
+            throw new IllegalArgumentException("Not a binary encoded event");
+        }
+        if (data[1] != VERSION) {
+            throw new IllegalArgumentException("Unsupported binary event version " + data[1]);
+        }
+
+        int typeId = data[2] & 0xFF;
+        if (typeId >= EVENT_TYPES.size()) {
+            throw new IllegalArgumentException("Unknown binary event type " + typeId);
+        }
+        return SMILE_MAPPER.readValue(data, PREFIX_LENGTH, data.length - PREFIX_LENGTH, EVENT_TYPES.get(typeId));
+    }
+}
@@ -0,0 +1,51 @@
+package guru.springframework.spring6restmvc.serializers;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Kafka value deserializer for {@link BinaryEventCodec}. Records that are not binary encoded are handed to a
+ * {@link JsonDeserializer} configured from the same consumer properties, so consumers can switch over before the
+ * producers do and read whatever JSON is still on the topic.
+ */
+public class BinaryEventDeserializer implements Deserializer<Object> {
+
+    private final JsonDeserializer<Object> jsonDeserializer = new JsonDeserializer<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonDeserializer.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (!BinaryEventCodec.isEncoded(data)) {
+            return headers == null ? jsonDeserializer.deserialize(topic, data)
+                    : jsonDeserializer.deserialize(topic, headers, data);
+        }
+
+        try {
+            return BinaryEventCodec.decode(data);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new SerializationException("Can't deserialize binary event from topic " + topic, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+}
@@ -0,0 +1,26 @@
+package guru.springframework.spring6restmvc.serializers;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.IOException;
+
+/**
+ * Kafka value serializer for {@link BinaryEventCodec}. Use with {@link BinaryEventDeserializer} on the consumers,
+ * e.g. through the {@code kafka-binary} profile.
+ */
+public class BinaryEventSerializer implements Serializer<Object> {
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        if (data == null) {
+            return null;
+        }
+
+        try {
+            return BinaryEventCodec.encode(data);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new SerializationException("Can't serialize " + data.getClass().getName() + " for topic " + topic, e);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package guru.springframework.spring6restmvc.services;
+
+import guru.springframework.spring6restmvc.entities.BeerAudit;
+import guru.springframework.spring6restmvc.repositories.BeerAuditRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffers beer audits in a bounded queue and writes them from a single thread, one transaction and JDBC batch
+ * per flush. A flush happens once {@code batch-size} audits are waiting or {@code flush-interval} after the first
+ * one arrived. When the buffer is full, producers wait up to {@code offer-timeout} before the audit is dropped.
+ * A batch that fails is written again one audit per transaction, so only the audits that can't be written are lost.
+ * The writer stops after the web server, so the audits of requests finishing during a graceful shutdown are still
+ * buffered, and then writes everything left in the buffer before it exits.
+ */
+@Slf4j
+@Component
+public class BeerAuditWriter implements SmartLifecycle {
+
+    private static final Duration STOP_CHECK_INTERVAL = Duration.ofMillis(100);
+
+    private final BeerAuditRepository beerAuditRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<BeerAudit> buffer;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration offerTimeout;
+
+    private final Counter enqueuedCounter;
+    private final Counter overflowCounter;
+    private final Counter droppedCounter;
+    private final Counter writtenCounter;
+    private final Counter failedCounter;
+    private final Counter sizeFlushCounter;
+    private final Counter timeFlushCounter;
+    private final Timer flushTimer;
+
+    private volatile boolean running;
+    private volatile boolean stopped;
+    private Thread writerThread;
+
+    public BeerAuditWriter(BeerAuditRepository beerAuditRepository, PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.beer-audit.buffer-capacity:10000}") int bufferCapacity,
+                           @Value("${app.beer-audit.batch-size:50}") int batchSize,
+                           @Value("${app.beer-audit.flush-interval:200ms}") Duration flushInterval,
+                           @Value("${app.beer-audit.offer-timeout:10ms}") Duration offerTimeout) {
+        this.beerAuditRepository = beerAuditRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.offerTimeout = offerTimeout;
+
+        this.enqueuedCounter = meterRegistry.counter("beer.audit.enqueued");
+        this.overflowCounter = meterRegistry.counter("beer.audit.overflow");
+        this.droppedCounter = meterRegistry.counter("beer.audit.dropped");
+        this.writtenCounter = meterRegistry.counter("beer.audit.written");
+        this.failedCounter = meterRegistry.counter("beer.audit.failed");
+        this.sizeFlushCounter = meterRegistry.counter("beer.audit.flushes", "trigger", "size");
+        this.timeFlushCounter = meterRegistry.counter("beer.audit.flushes", "trigger", "time");
+        this.flushTimer = meterRegistry.timer("beer.audit.flush");
+        meterRegistry.gauge("beer.audit.buffer.size", buffer, BlockingQueue::size);
+    }
+
+    /**
+     * Queues the audit for the next flush. Returns false when it was dropped because the buffer stayed full.
+     */
+    public boolean enqueue(BeerAudit beerAudit) {
+        if (stopped) {
+            droppedCounter.increment();
+            log.warn("Beer audit writer stopped, dropped audit for beer {}", beerAudit.getId());
+            return false;
+        }
+
+        if (buffer.offer(beerAudit)) {
+            enqueuedCounter.increment();
+            return true;
+        }
+
+        overflowCounter.increment();
+        try {
+            if (buffer.offer(beerAudit, offerTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                enqueuedCounter.increment();
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        droppedCounter.increment();
+        log.warn("Beer audit buffer full, dropped audit for beer {}", beerAudit.getId());
+        return false;
+    }
+
+    @Override
+    public void start() {
+        stopped = false;
+        running = true;
+        writerThread = Thread.ofPlatform().name("beer-audit-writer").daemon().start(this::writeLoop);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            // the writer drains what is still buffered before it exits
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        stopped = true;
+
+        int left = buffer.size();
+        if (left > 0) {
+            droppedCounter.increment(left);
+            buffer.clear();
+            log.warn("Beer audit writer stopped with {} audits unwritten", left);
+        }
+    }
+
+    /**
+     * Stops after the web server has finished its graceful shutdown, the requests still in flight enqueue audits.
+     */
+    @Override
+    public int getPhase() {
+        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void writeLoop() {
+        List<BeerAudit> batch = new ArrayList<>(batchSize);
+
+        while (running || !buffer.isEmpty()) {
+            try {
+                BeerAudit first = buffer.poll(pollNanos(flushInterval.toNanos()), TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + flushInterval.toNanos();
+                while (batch.size() < batchSize) {
+                    buffer.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+
+                    BeerAudit next = buffer.poll(pollNanos(remaining), TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+            } catch (InterruptedException e) {
+                running = false;
+                buffer.drainTo(batch);
+            }
+
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    // wake up regularly so a stop is noticed without waiting out a long flush interval
+    private static long pollNanos(long nanos) {
+        return Math.min(nanos, STOP_CHECK_INTERVAL.toNanos());
+    }
+
+    private void flush(List<BeerAudit> batch) {
+        (batch.size() >= batchSize ? sizeFlushCounter : timeFlushCounter).increment();
+
+        try {
+            flushTimer.record(() -> transactionTemplate.executeWithoutResult(status -> beerAuditRepository.saveAll(batch)));
+            writtenCounter.increment(batch.size());
+            log.debug("Flushed {} beer audits", batch.size());
+        } catch (RuntimeException e) {
+            log.warn("Failed to write {} beer audits in one batch, writing them one by one", batch.size(), e);
+            writeOneByOne(batch);
+        }
+    }
+
+    // one bad audit must not take the rest of its batch with it
+    private void writeOneByOne(List<BeerAudit> batch) {
+        for (BeerAudit beerAudit : batch) {
+            // the failed batch assigned ids that were never written, merging them would fail as stale
+            beerAudit.setAuditId(null);
+            try {
+                transactionTemplate.executeWithoutResult(status -> beerAuditRepository.save(beerAudit));
+                writtenCounter.increment();
+            } catch (RuntimeException e) {
+                failedCounter.increment();
+                log.error("Failed to write {} audit for beer {}", beerAudit.getAuditEventType(), beerAudit.getId(), e);
+            }
+        }
+    }
+}
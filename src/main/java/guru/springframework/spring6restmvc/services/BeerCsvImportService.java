@@ -0,0 +1,25 @@
+package guru.springframework.spring6restmvc.services;
+
+import guru.springframework.spring6restmvc.models.BeerCsvImportProgress;
+
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface BeerCsvImportService {
+
+    /**
+     * Imports the beers in the CSV on the calling thread, joining its transaction if there is one.
+     */
+    BeerCsvImportProgress importBeers(Reader reader);
+
+    /**
+     * Imports the beers in the CSV file in the background and deletes the file when done. Progress can be
+     * followed with {@link #getImport(UUID)}. Throws {@code TooManyImportsException}, after deleting the file, when
+     * the maximum number of imports is already running.
+     */
+    BeerCsvImportProgress startImport(Path file);
+
+    Optional<BeerCsvImportProgress> getImport(UUID importId);
+}
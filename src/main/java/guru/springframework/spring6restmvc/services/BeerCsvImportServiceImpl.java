@@ -0,0 +1,324 @@
+package guru.springframework.spring6restmvc.services;
+
+import guru.springframework.spring6restmvc.controllers.TooManyImportsException;
+import guru.springframework.spring6restmvc.entities.Beer;
+import guru.springframework.spring6restmvc.events.BeersImportedEvent;
+import guru.springframework.spring6restmvc.models.BeerCSVRecord;
+import guru.springframework.spring6restmvc.models.BeerCsvImportProgress;
+import guru.springframework.spring6restmvc.repositories.BeerRepository;
+import guru.springframework.spring6restmvcapi.models.BeerStyle;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Import pipeline for beer CSVs. One thread parses records into a bounded queue of chunks, a few threads map
+ * them to beers in parallel and the calling thread writes each chunk as one JDBC batch. The queues are bounded,
+ * so at most a handful of chunks are held in memory however large the file is. Only {@code max-concurrent}
+ * background imports run at once, each of them holds a write transaction on the pool the rest of the API uses.
+ */
+@Slf4j
+@Service
+public class BeerCsvImportServiceImpl implements BeerCsvImportService {
+
+    private record RecordChunk(List<BeerCSVRecord> records) {
+        static final RecordChunk END = new RecordChunk(List.of());
+    }
+
+    private record BeerChunk(List<Beer> beers) {
+        static final BeerChunk END = new BeerChunk(List.of());
+    }
+
+    private final BeerCsvService beerCsvService;
+    private final BeerRepository beerRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final int chunkSize;
+    private final int queueCapacity;
+    private final int mappingThreads;
+    private final Duration retention;
+    private final Semaphore importPermits;
+
+    // background imports, finished ones are kept for the retention so their outcome can still be polled
+    private final Map<UUID, ImportTracker> imports = new ConcurrentHashMap<>();
+
+    public BeerCsvImportServiceImpl(BeerCsvService beerCsvService, BeerRepository beerRepository,
+                                    EntityManager entityManager, PlatformTransactionManager transactionManager,
+                                    ApplicationEventPublisher applicationEventPublisher,
+                                    @Value("${app.beer-import.chunk-size:500}") int chunkSize,
+                                    @Value("${app.beer-import.queue-capacity:4}") int queueCapacity,
+                                    @Value("${app.beer-import.mapping-threads:4}") int mappingThreads,
+                                    @Value("${app.beer-import.retention:1h}") Duration retention,
+                                    @Value("${app.beer-import.max-concurrent:1}") int maxConcurrentImports) {
+        this.beerCsvService = beerCsvService;
+        this.beerRepository = beerRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.chunkSize = chunkSize;
+        this.queueCapacity = queueCapacity;
+        this.mappingThreads = mappingThreads;
+        this.retention = retention;
+        this.importPermits = new Semaphore(maxConcurrentImports);
+    }
+
+    @Override
+    public BeerCsvImportProgress importBeers(Reader reader) {
+        ImportTracker tracker = new ImportTracker();
+        try {
+            runImport(reader, tracker);
+            tracker.complete();
+        } catch (RuntimeException e) {
+            tracker.fail(e);
+            throw e;
+        }
+
+        log.debug("Imported {} of {} beer rows", tracker.rowsImported.get(), tracker.rowsRead.get());
+        return tracker.snapshot();
+    }
+
+    @Override
+    public BeerCsvImportProgress startImport(Path file) {
+        if (!importPermits.tryAcquire()) {
+            deleteQuietly(file);
+            throw new TooManyImportsException("Too many beer imports running, try again later");
+        }
+
+        LocalDateTime expired = LocalDateTime.now().minus(retention);
+        imports.values().removeIf(finished -> finished.finishedAt != null && finished.finishedAt.isBefore(expired));
+
+        ImportTracker tracker = new ImportTracker();
+        imports.put(tracker.importId, tracker);
+
+        Thread.ofVirtual().name("beer-import-" + tracker.importId).start(() -> {
+            try (Reader reader = Files.newBufferedReader(file)) {
+                runImport(reader, tracker);
+                log.info("Beer import {} imported {} of {} rows", tracker.importId,
+                        tracker.rowsImported.get(), tracker.rowsRead.get());
+            } catch (IOException | RuntimeException e) {
+                log.error("Beer import {} failed after {} rows", tracker.importId, tracker.rowsImported.get(), e);
+                tracker.fail(e);
+            } finally {
+                deleteQuietly(file);
+            }
+
+            try {
+                // refresh the caches before reporting the import as done, partial imports included
+                if (tracker.rowsImported.get() > 0) {
+                    applicationEventPublisher.publishEvent(new BeersImportedEvent(tracker.importId, tracker.rowsImported.get()));
+                }
+            } finally {
+                // released before the import reports done, so whoever sees it done can start the next one
+                importPermits.release();
+            }
+            if (tracker.status == BeerCsvImportProgress.Status.RUNNING) {
+                tracker.complete();
+            }
+        });
+
+        return tracker.snapshot();
+    }
+
+    @Override
+    public Optional<BeerCsvImportProgress> getImport(UUID importId) {
+        return Optional.ofNullable(imports.get(importId)).map(ImportTracker::snapshot);
+    }
+
+    private void runImport(Reader reader, ImportTracker tracker) {
+        BlockingQueue<RecordChunk> recordChunks = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<BeerChunk> beerChunks = new ArrayBlockingQueue<>(queueCapacity);
+        // set before the workers are interrupted, they must not block on end markers nobody will take any more
+        AtomicBoolean aborted = new AtomicBoolean();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> parser = executor.submit(() -> parse(reader, recordChunks, tracker, aborted));
+            List<Future<?>> mappers = new ArrayList<>(mappingThreads);
+            for (int i = 0; i < mappingThreads; i++) {
+                mappers.add(executor.submit(() -> map(recordChunks, beerChunks, tracker, aborted)));
+            }
+
+            try {
+                write(beerChunks, tracker);
+                for (Future<?> mapper : mappers) {
+                    mapper.get();
+                }
+                parser.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                abort(executor, aborted);
+                throw new IllegalStateException("Beer import interrupted", e);
+            } catch (ExecutionException e) {
+                // a failed mapper leaves the parser without consumers, so it has to be stopped as well
+                abort(executor, aborted);
+                throw new IllegalStateException("Beer CSV could not be imported after " + tracker.rowsRead.get() + " rows",
+                        e.getCause());
+            } catch (RuntimeException e) {
+                abort(executor, aborted);
+                throw e;
+            }
+        }
+    }
+
+    private static void abort(ExecutorService executor, AtomicBoolean aborted) {
+        aborted.set(true);
+        executor.shutdownNow();
+    }
+
+    private Void parse(Reader reader, BlockingQueue<RecordChunk> recordChunks, ImportTracker tracker,
+                       AtomicBoolean aborted) throws InterruptedException {
+        try (Stream<BeerCSVRecord> records = beerCsvService.streamCSV(reader)) {
+            List<BeerCSVRecord> chunk = new ArrayList<>(chunkSize);
+            Iterator<BeerCSVRecord> iterator = records.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                tracker.rowsRead.incrementAndGet();
+
+                if (chunk.size() >= chunkSize) {
+                    recordChunks.put(new RecordChunk(chunk));
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                recordChunks.put(new RecordChunk(chunk));
+            }
+        } finally {
+            // one end marker per mapper, so each of them stops even when parsing failed
+            for (int i = 0; i < mappingThreads && !aborted.get(); i++) {
+                recordChunks.put(RecordChunk.END);
+            }
+        }
+        return null;
+    }
+
+    private Void map(BlockingQueue<RecordChunk> recordChunks, BlockingQueue<BeerChunk> beerChunks,
+                     ImportTracker tracker, AtomicBoolean aborted) throws InterruptedException {
+        try {
+            RecordChunk recordChunk;
+            while ((recordChunk = recordChunks.take()) != RecordChunk.END) {
+                List<Beer> beers = new ArrayList<>(recordChunk.records().size());
+                for (BeerCSVRecord beerCSVRecord : recordChunk.records()) {
+                    if (StringUtils.isBlank(beerCSVRecord.getBeer())) {
+                        tracker.rowsSkipped.incrementAndGet();
+                    } else {
+                        beers.add(toBeer(beerCSVRecord));
+                    }
+                }
+                beerChunks.put(new BeerChunk(beers));
+            }
+        } finally {
+            if (!aborted.get()) {
+                beerChunks.put(BeerChunk.END);
+            }
+        }
+        return null;
+    }
+
+    private void write(BlockingQueue<BeerChunk> beerChunks, ImportTracker tracker) throws InterruptedException {
+        int finishedMappers = 0;
+        while (finishedMappers < mappingThreads) {
+            BeerChunk beerChunk = beerChunks.take();
+            if (beerChunk == BeerChunk.END) {
+                finishedMappers++;
+                continue;
+            }
+
+            transactionTemplate.executeWithoutResult(status -> {
+                beerRepository.saveAll(beerChunk.beers());
+                entityManager.flush();
+                entityManager.clear();
+            });
+            tracker.rowsImported.addAndGet(beerChunk.beers().size());
+        }
+    }
+
+    private static Beer toBeer(BeerCSVRecord beerCSVRecord) {
+        return Beer.builder()
+                .beerName(StringUtils.abbreviate(beerCSVRecord.getBeer(), 50))
+                .beerStyle(toBeerStyle(beerCSVRecord.getStyle()))
+                .price(BigDecimal.TEN)
+                .upc(String.valueOf(beerCSVRecord.getRow()))
+                .quantityOnHand(beerCSVRecord.getCountX())
+                .build();
+    }
+
+    private static BeerStyle toBeerStyle(String style) {
+        if (style == null) {
+            return BeerStyle.PILSNER;
+        }
+
+        return switch (style) {
+            case "American Pale Lager" -> BeerStyle.LAGER;
+            case "American Pale Ale (APA)", "American Black Ale", "Belgian Dark Ale", "American Blonde Ale" ->
+                    BeerStyle.LAGER;
+            case "American IPA", "American Double / Imperial IPA", "Belgian IPA" -> BeerStyle.IPA;
+            case "American Porter" -> BeerStyle.PORTER;
+            case "Oatmeal Stout", "American Stout" -> BeerStyle.STOUT;
+            case "Saison / Farmhouse Ale" -> BeerStyle.SAISON;
+            case "Fruit / Vegetable Beer", "Winter Warmer", "Berliner Weissbier" -> BeerStyle.WHEAT;
+            case "English Pale Ale" -> BeerStyle.PALE_ALE;
+            default -> BeerStyle.PILSNER;
+        };
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete beer import file {}", file, e);
+        }
+    }
+
+    private static class ImportTracker {
+        private final UUID importId = UUID.randomUUID();
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicLong rowsRead = new AtomicLong();
+        private final AtomicLong rowsImported = new AtomicLong();
+        private final AtomicLong rowsSkipped = new AtomicLong();
+        private volatile BeerCsvImportProgress.Status status = BeerCsvImportProgress.Status.RUNNING;
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+
+        void complete() {
+            finishedAt = LocalDateTime.now();
+            status = BeerCsvImportProgress.Status.COMPLETED;
+        }
+
+        void fail(Exception e) {
+            error = e.getMessage();
+            finishedAt = LocalDateTime.now();
+            status = BeerCsvImportProgress.Status.FAILED;
+        }
+
+        BeerCsvImportProgress snapshot() {
+            return BeerCsvImportProgress.builder()
+                    .importId(importId)
+                    .status(status)
+                    .rowsRead(rowsRead.get())
+                    .rowsImported(rowsImported.get())
+                    .rowsSkipped(rowsSkipped.get())
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .error(error)
+                    .build();
+        }
+    }
+}
@@ -3,8 +3,15 @@ package guru.springframework.spring6restmvc.services;
 import guru.springframework.spring6restmvc.models.BeerCSVRecord;
 
 import java.io.File;
+import java.io.Reader;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface BeerCsvService {
     List<BeerCSVRecord> convertCSV(File file);
+
+    /**
+     * Lazily parses the records from the reader, one line at a time. The caller owns and closes the reader.
+     */
+    Stream<BeerCSVRecord> streamCSV(Reader reader);
 }
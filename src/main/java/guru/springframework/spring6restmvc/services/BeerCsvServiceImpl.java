@@ -7,7 +7,10 @@ import org.springframework.stereotype.Service;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.io.Reader;
 import java.util.List;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Service
 public class BeerCsvServiceImpl implements BeerCsvService {
@@ -23,4 +26,12 @@ public class BeerCsvServiceImpl implements BeerCsvService {
             throw new RuntimeException(e);
         }
     }
+
+    @Override
+    public Stream<BeerCSVRecord> streamCSV(Reader reader) {
+        return StreamSupport.stream(new CsvToBeanBuilder<BeerCSVRecord>(reader)
+                .withType(BeerCSVRecord.class)
+                .build()
+                .spliterator(), false);
+    }
 }
@@ -0,0 +1,28 @@
+package guru.springframework.spring6restmvc.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Keyset position of the last beer returned to a client, in the {@code (beerName, id)} listing order.
+ * Handed out as an opaque URL safe token.
+ */
+public record BeerCursor(String beerName, UUID id) {
+
+    private static final char SEPARATOR = '\n';
+
+    public String encode() {
+        String raw = beerName + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static BeerCursor decode(String token) {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        int separatorIndex = raw.lastIndexOf(SEPARATOR);
+        if (separatorIndex < 0) {
+            throw new IllegalArgumentException("Malformed beer cursor");
+        }
+        return new BeerCursor(raw.substring(0, separatorIndex), UUID.fromString(raw.substring(separatorIndex + 1)));
+    }
+}
@@ -0,0 +1,12 @@
+package guru.springframework.spring6restmvc.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface BeerExportService {
+
+    /**
+     * Writes the whole beer catalog to the stream as newline delimited JSON, one {@code BeerDTO} per line.
+     */
+    void exportBeers(OutputStream outputStream) throws IOException;
+}
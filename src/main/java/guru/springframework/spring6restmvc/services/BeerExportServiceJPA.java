@@ -0,0 +1,64 @@
+package guru.springframework.spring6restmvc.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import guru.springframework.spring6restmvc.entities.Beer;
+import guru.springframework.spring6restmvc.mappers.BeerMapper;
+import guru.springframework.spring6restmvc.repositories.BeerRepository;
+import guru.springframework.spring6restmvcapi.models.BeerDTO;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Reads the catalog through a forward-only result set and writes each beer as soon as it is mapped. The
+ * persistence context is cleared every fetch so memory use does not grow with the size of the catalog.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BeerExportServiceJPA implements BeerExportService {
+
+    private final BeerRepository beerRepository;
+    private final BeerMapper beerMapper;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportBeers(OutputStream outputStream) throws IOException {
+        long count = 0;
+
+        ObjectWriter writer = objectMapper.writerFor(BeerDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        try (Stream<Beer> beers = beerRepository.streamAllBy();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)
+                     .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            generator.setRootValueSeparator(null);
+
+            Iterator<Beer> iterator = beers.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, beerMapper.beerToBeerDTO(iterator.next()));
+                // every record ends with a newline, the last one included
+                generator.writeRaw('\n');
+
+                if (++count % BeerRepository.EXPORT_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                    generator.flush();
+                }
+            }
+        }
+
+        log.debug("Exported {} beers", count);
+    }
+}
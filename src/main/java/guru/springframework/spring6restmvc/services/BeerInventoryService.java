@@ -0,0 +1,21 @@
+package guru.springframework.spring6restmvc.services;
+
+import guru.springframework.spring6restmvc.models.BeerInventoryAdjustment;
+import guru.springframework.spring6restmvc.models.BeerInventoryResult;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface BeerInventoryService {
+
+    /**
+     * Adds {@code delta} to the beer's stock, unless that would take it below zero.
+     */
+    BeerInventoryResult adjustInventory(UUID beerId, int delta);
+
+    /**
+     * Applies each adjustment on its own in one transaction, a beer without enough stock doesn't fail the others.
+     * Results are in request order.
+     */
+    List<BeerInventoryResult> adjustInventory(List<BeerInventoryAdjustment> adjustments);
+}
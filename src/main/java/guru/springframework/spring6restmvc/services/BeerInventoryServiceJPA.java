@@ -0,0 +1,125 @@
+package guru.springframework.spring6restmvc.services;
+
+import guru.springframework.spring6restmvc.configs.CacheConfig;
+import guru.springframework.spring6restmvc.configs.CacheEvictions;
+import guru.springframework.spring6restmvc.entities.Beer;
+import guru.springframework.spring6restmvc.models.BeerInventoryAdjustment;
+import guru.springframework.spring6restmvc.models.BeerInventoryResult;
+import guru.springframework.spring6restmvc.repositories.BeerRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Stock changes on the beer loaded with its row locked, so concurrent adjustments of one beer queue up instead of
+ * losing each other's delta. Hibernate writes the change through to that beer's second level cache entry, where a
+ * bulk UPDATE would have dropped the whole beer region. The version is bumped like for any other edit, so a
+ * concurrent edit that read the old stock can't write it back. No audit event is published for them.
+ */
+@Slf4j
+@Service
+public class BeerInventoryServiceJPA implements BeerInventoryService {
+
+    private final BeerRepository beerRepository;
+    private final CacheManager cacheManager;
+    private final BeerListCache beerListCache;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheEvictions cacheEvictions;
+    private final Map<BeerInventoryResult.Status, Counter> adjustmentCounters = new EnumMap<>(BeerInventoryResult.Status.class);
+
+    public BeerInventoryServiceJPA(BeerRepository beerRepository, CacheManager cacheManager, BeerListCache beerListCache,
+                                   TransactionTemplate transactionTemplate, CacheEvictions cacheEvictions,
+                                   MeterRegistry meterRegistry) {
+        this.beerRepository = beerRepository;
+        this.cacheManager = cacheManager;
+        this.beerListCache = beerListCache;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheEvictions = cacheEvictions;
+        for (BeerInventoryResult.Status status : BeerInventoryResult.Status.values()) {
+            adjustmentCounters.put(status, meterRegistry.counter("beer.inventory.adjustments",
+                    "result", status.name().toLowerCase(Locale.ROOT)));
+        }
+    }
+
+    @Override
+    public BeerInventoryResult adjustInventory(UUID beerId, int delta) {
+        return adjustInventory(List.of(BeerInventoryAdjustment.builder()
+                .beerId(beerId)
+                .delta(delta)
+                .build())).getFirst();
+    }
+
+    @Override
+    public List<BeerInventoryResult> adjustInventory(List<BeerInventoryAdjustment> adjustments) {
+        // rows are locked in beer id order, so concurrent batches touching the same beers can't deadlock. The sort is
+        // stable, adjustments of one beer still apply in request order
+        List<Integer> lockOrder = IntStream.range(0, adjustments.size()).boxed()
+                .sorted(Comparator.comparing((Integer index) -> adjustments.get(index).getBeerId(),
+                        Comparator.nullsLast(Comparator.<UUID>naturalOrder())))
+                .toList();
+        List<BeerInventoryResult> results = transactionTemplate.execute(status -> {
+            BeerInventoryResult[] adjusted = new BeerInventoryResult[adjustments.size()];
+            lockOrder.forEach(index -> adjusted[index] = adjust(adjustments.get(index)));
+            return Arrays.asList(adjusted);
+        });
+
+        // evicted after the commit, so a concurrent read can't cache the old stock again
+        Set<UUID> adjustedBeerIds = results.stream()
+                .filter(result -> result.getStatus() == BeerInventoryResult.Status.ADJUSTED)
+                .map(BeerInventoryResult::getBeerId)
+                .collect(Collectors.toSet());
+        cacheEvictions.afterCommit(() -> {
+            Optional.ofNullable(cacheManager.getCache(CacheConfig.BEER_CACHE))
+                    .ifPresent(cache -> adjustedBeerIds.forEach(cache::evict));
+            beerListCache.evictForInventoryChange(adjustedBeerIds);
+        });
+
+        log.debug("Adjusted inventory of {} of {} beers", adjustedBeerIds.size(), adjustments.size());
+        return results;
+    }
+
+    private BeerInventoryResult adjust(BeerInventoryAdjustment adjustment) {
+        UUID beerId = adjustment.getBeerId();
+        Optional<Beer> beer = beerId == null ? Optional.empty() : beerRepository.findForUpdateById(beerId);
+        BeerInventoryResult.Status status;
+        Integer quantityOnHand;
+
+        if (beer.isEmpty()) {
+            status = BeerInventoryResult.Status.NOT_FOUND;
+            quantityOnHand = null;
+        } else {
+            int current = Objects.requireNonNullElse(beer.get().getQuantityOnHand(), 0);
+            if (current + adjustment.getDelta() < 0) {
+                status = BeerInventoryResult.Status.INSUFFICIENT_STOCK;
+                quantityOnHand = current;
+            } else {
+                status = BeerInventoryResult.Status.ADJUSTED;
+                quantityOnHand = current + adjustment.getDelta();
+                beer.get().setQuantityOnHand(quantityOnHand);
+            }
+        }
+
+        adjustmentCounters.get(status).increment();
+        return BeerInventoryResult.builder()
+                .beerId(beerId)
+                .status(status)
+                .quantityOnHand(quantityOnHand)
+                .build();
+    }
+}
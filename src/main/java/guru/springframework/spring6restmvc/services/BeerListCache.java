@@ -0,0 +1,153 @@
+package guru.springframework.spring6restmvc.services;
+
+import guru.springframework.spring6restmvc.configs.CacheConfig;
+import guru.springframework.spring6restmvcapi.models.BeerDTO;
+import guru.springframework.spring6restmvcapi.models.BeerStyle;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Beer list page cache keyed by the query each page was built for, so a write only evicts the pages the changed
+ * beer could appear in instead of clearing the whole cache. Evictions walk the cache's own entries, pages the
+ * provider dropped by size or age are simply not there anymore.
+ */
+@Slf4j
+@Component
+public class BeerListCache {
+
+    private final CacheManager cacheManager;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter evictionCounter;
+
+    public BeerListCache(CacheManager cacheManager, MeterRegistry meterRegistry) {
+        this.cacheManager = cacheManager;
+        this.hitCounter = meterRegistry.counter("beer.list.cache.gets", "result", "hit");
+        this.missCounter = meterRegistry.counter("beer.list.cache.gets", "result", "miss");
+        this.evictionCounter = meterRegistry.counter("beer.list.cache.evictions");
+    }
+
+    @SuppressWarnings("unchecked")
+    public Page<BeerDTO> get(BeerListCacheKey key, Supplier<Page<BeerDTO>> loader) {
+        Cache cache = cacheManager.getCache(CacheConfig.BEER_LIST_CACHE);
+        if (cache == null) {
+            return loader.get();
+        }
+
+        Cache.ValueWrapper cached = cache.get(key);
+        if (cached != null) {
+            hitCounter.increment();
+            return (Page<BeerDTO>) cached.get();
+        }
+
+        missCounter.increment();
+        Page<BeerDTO> page = loader.get();
+        cache.put(key, page);
+        return page;
+    }
+
+    public void evictForInsert(String beerName, BeerStyle beerStyle) {
+        evictWhere(key -> key.matches(beerName, beerStyle));
+    }
+
+    public void evictForDelete(String beerName, BeerStyle beerStyle) {
+        evictWhere(key -> key.matches(beerName, beerStyle));
+    }
+
+    /**
+     * If neither name nor style changed the beer keeps its position in every result set, so only pages
+     * that actually contain it are stale. Otherwise it may move between (or shift) pages of every query
+     * matching its old or new state.
+     */
+    public void evictForUpdate(UUID beerId, String oldName, BeerStyle oldStyle, String newName, BeerStyle newStyle) {
+        if (Objects.equals(oldName, newName) && oldStyle == newStyle) {
+            evictContaining(Set.of(beerId), key -> true);
+        } else {
+            evictWhere(key -> key.matches(oldName, oldStyle) || key.matches(newName, newStyle));
+        }
+    }
+
+    /**
+     * A stock change doesn't move a beer between pages, and pages listed without inventory don't show it, so only
+     * pages with inventory that contain one of the beers are stale.
+     */
+    public void evictForInventoryChange(Collection<UUID> beerIds) {
+        if (!beerIds.isEmpty()) {
+            evictContaining(beerIds, key -> !Boolean.FALSE.equals(key.showInventory()));
+        }
+    }
+
+    public void clear() {
+        Cache cache = cacheManager.getCache(CacheConfig.BEER_LIST_CACHE);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private void evictContaining(Collection<UUID> beerIds, Predicate<BeerListCacheKey> candidate) {
+        evictWhere((key, page) -> candidate.test(key) && page instanceof Page<?> cachedPage
+                && cachedPage.getContent().stream()
+                .anyMatch(beer -> beer instanceof BeerDTO beerDTO && beerIds.contains(beerDTO.getId())));
+    }
+
+    private void evictWhere(Predicate<BeerListCacheKey> affected) {
+        evictWhere((key, page) -> affected.test(key));
+    }
+
+    private void evictWhere(BiPredicate<BeerListCacheKey, Object> affected) {
+        Cache cache = cacheManager.getCache(CacheConfig.BEER_LIST_CACHE);
+        if (cache == null) {
+            return;
+        }
+
+        ConcurrentMap<Object, Object> entries = entries(cache);
+        if (entries == null) {
+            // a provider whose entries can't be walked, drop everything rather than serve stale pages
+            cache.clear();
+            return;
+        }
+
+        // walking the map view neither counts as cache gets nor touches the entries' access order
+        int evicted = 0;
+        Iterator<Map.Entry<Object, Object>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Object, Object> entry = iterator.next();
+            if (entry.getKey() instanceof BeerListCacheKey key && affected.test(key, entry.getValue())) {
+                iterator.remove();
+                evicted++;
+            }
+        }
+
+        evictionCounter.increment(evicted);
+        log.debug("Evicted {} beer list pages, {} still cached", evicted, entries.size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ConcurrentMap<Object, Object> entries(Cache cache) {
+        Object nativeCache = cache.getNativeCache();
+        if (nativeCache instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeineCache) {
+            return (ConcurrentMap<Object, Object>) caffeineCache.asMap();
+        }
+        if (nativeCache instanceof ConcurrentMap<?, ?> map) {
+            return (ConcurrentMap<Object, Object>) map;
+        }
+        return null;
+    }
+}
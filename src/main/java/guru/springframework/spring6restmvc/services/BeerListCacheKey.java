@@ -0,0 +1,34 @@
+package guru.springframework.spring6restmvc.services;
+
+import guru.springframework.spring6restmvcapi.models.BeerStyle;
+import org.springframework.util.StringUtils;
+
+import java.util.Locale;
+
+public record BeerListCacheKey(String beerName, BeerStyle beerStyle, Boolean showInventory,
+                               Integer pageNumber, Integer pageSize) {
+
+    /**
+     * Whether a beer with the given name and style could be part of the result set this key was cached for.
+     * Errs on the side of matching, since a false positive only costs an extra eviction.
+     */
+    public boolean matches(String candidateName, BeerStyle candidateStyle) {
+        if (beerStyle != null && beerStyle != candidateStyle) {
+            return false;
+        }
+
+        if (!StringUtils.hasText(beerName)) {
+            return true;
+        }
+
+        if (candidateName == null) {
+            return false;
+        }
+
+        if (beerName.contains("%") || beerName.contains("_")) {
+            return true;
+        }
+
+        return candidateName.toLowerCase(Locale.ROOT).contains(beerName.toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,13 @@
+package guru.springframework.spring6restmvc.services;
+
+import guru.springframework.spring6restmvc.models.BeerOrderBulkResult;
+
+import java.io.InputStream;
+
+public interface BeerOrderBulkService {
+
+    /**
+     * Creates the orders in a JSON array or newline delimited JSON stream of {@code BeerOrderCreateDTO}s.
+     */
+    BeerOrderBulkResult createBeerOrders(InputStream inputStream);
+}
@@ -0,0 +1,228 @@
+package guru.springframework.spring6restmvc.services;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.spring6restmvc.entities.Beer;
+import guru.springframework.spring6restmvc.entities.BeerOrder;
+import guru.springframework.spring6restmvc.entities.BeerOrderLine;
+import guru.springframework.spring6restmvc.entities.Customer;
+import guru.springframework.spring6restmvc.models.BeerOrderBulkResult;
+import guru.springframework.spring6restmvc.repositories.BeerOrderRepository;
+import guru.springframework.spring6restmvc.repositories.BeerRepository;
+import guru.springframework.spring6restmvc.repositories.CustomerRepository;
+import guru.springframework.spring6restmvcapi.models.BeerOrderCreateDTO;
+import guru.springframework.spring6restmvcapi.models.BeerOrderLineCreateDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Streams orders off the request body with Jackson's streaming parser and commits them in chunks, so only one
+ * chunk of orders is held in memory at a time. Each chunk resolves its customers and beers with one query each.
+ * An order that is well-formed JSON but doesn't map onto an order is rejected on its own, only a payload that
+ * can't be parsed any further ends the import.
+ */
+@Slf4j
+@Service
+public class BeerOrderBulkServiceJPA implements BeerOrderBulkService {
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final BeerOrderRepository beerOrderRepository;
+    private final CustomerRepository customerRepository;
+    private final BeerRepository beerRepository;
+    private final int chunkSize;
+
+    public BeerOrderBulkServiceJPA(ObjectMapper objectMapper, Validator validator, EntityManager entityManager,
+                                   PlatformTransactionManager transactionManager, BeerOrderRepository beerOrderRepository,
+                                   CustomerRepository customerRepository, BeerRepository beerRepository,
+                                   @Value("${app.bulk-order.chunk-size:100}") int chunkSize) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.beerOrderRepository = beerOrderRepository;
+        this.customerRepository = customerRepository;
+        this.beerRepository = beerRepository;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Either the order or why it couldn't be read.
+     */
+    private record ParsedOrder(int index, BeerOrderCreateDTO beerOrderCreateDTO, String rejection) {
+    }
+
+    @Override
+    public BeerOrderBulkResult createBeerOrders(InputStream inputStream) {
+        BeerOrderBulkResult result = new BeerOrderBulkResult();
+        List<ParsedOrder> chunk = new ArrayList<>(chunkSize);
+
+        try (JsonParser parser = objectMapper.createParser(inputStream)) {
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+
+            while (token != null && token != JsonToken.END_ARRAY) {
+                chunk.add(readOrder(result.getReceived(), objectMapper.readTree(parser)));
+                result.setReceived(result.getReceived() + 1);
+
+                if (chunk.size() >= chunkSize) {
+                    processChunk(chunk, result);
+                    chunk.clear();
+                }
+                token = parser.nextToken();
+            }
+        } catch (IOException e) {
+            log.warn("Bulk order payload could not be parsed after {} orders", result.getReceived(), e);
+            result.setError(e.getMessage());
+        }
+
+        if (!chunk.isEmpty()) {
+            processChunk(chunk, result);
+        }
+
+        log.debug("Bulk order import received {}, created {}, rejected {}, failed {}",
+                result.getReceived(), result.getCreated(), result.getRejected(), result.getFailed());
+        return result;
+    }
+
+    private ParsedOrder readOrder(int index, JsonNode order) {
+        try {
+            return new ParsedOrder(index, objectMapper.treeToValue(order, BeerOrderCreateDTO.class), null);
+        } catch (JsonProcessingException e) {
+            return new ParsedOrder(index, null, "Order could not be read: " + e.getOriginalMessage());
+        } catch (IllegalArgumentException e) {
+            return new ParsedOrder(index, null, "Order could not be read: " + e.getMessage());
+        }
+    }
+
+    private void processChunk(List<ParsedOrder> chunk, BeerOrderBulkResult result) {
+        List<BeerOrderBulkResult.Item> items;
+        try {
+            items = transactionTemplate.execute(status -> saveChunk(chunk));
+        } catch (RuntimeException e) {
+            log.error("Bulk order chunk of {} orders failed", chunk.size(), e);
+            items = chunk.stream().map(parsedOrder -> BeerOrderBulkResult.Item.builder()
+                            .index(parsedOrder.index())
+                            .status(BeerOrderBulkResult.Status.FAILED)
+                            .message(e.getMessage())
+                            .build())
+                    .toList();
+        }
+        items.forEach(result::add);
+    }
+
+    private List<BeerOrderBulkResult.Item> saveChunk(List<ParsedOrder> chunk) {
+        List<BeerOrderCreateDTO> readOrders = chunk.stream()
+                .map(ParsedOrder::beerOrderCreateDTO)
+                .filter(Objects::nonNull)
+                .toList();
+
+        Map<UUID, Customer> customersById = customerRepository.findAllById(readOrders.stream()
+                        .map(BeerOrderCreateDTO::getCustomerId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Customer::getId, Function.identity()));
+
+        Map<UUID, Beer> beersById = beerRepository.findAllById(readOrders.stream()
+                        .flatMap(beerOrderCreateDTO -> lines(beerOrderCreateDTO).stream())
+                        .map(BeerOrderLineCreateDTO::getBeerId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Beer::getId, Function.identity()));
+
+        List<BeerOrderBulkResult.Item> items = new ArrayList<>(chunk.size());
+        List<BeerOrder> beerOrders = new ArrayList<>(chunk.size());
+        List<BeerOrderBulkResult.Item> createdItems = new ArrayList<>(chunk.size());
+
+        for (ParsedOrder parsedOrder : chunk) {
+            BeerOrderCreateDTO beerOrderCreateDTO = parsedOrder.beerOrderCreateDTO();
+            String rejection = beerOrderCreateDTO == null
+                    ? parsedOrder.rejection()
+                    : validate(beerOrderCreateDTO, customersById, beersById);
+
+            if (rejection != null) {
+                items.add(BeerOrderBulkResult.Item.builder()
+                        .index(parsedOrder.index())
+                        .status(BeerOrderBulkResult.Status.REJECTED)
+                        .message(rejection)
+                        .build());
+                continue;
+            }
+
+            Set<BeerOrderLine> beerOrderLines = new HashSet<>();
+            lines(beerOrderCreateDTO).forEach(beerOrderLine -> beerOrderLines.add(BeerOrderLine.builder()
+                    .beer(beersById.get(beerOrderLine.getBeerId()))
+                    .orderQuantity(beerOrderLine.getOrderQuantity())
+                    .build()));
+
+            beerOrders.add(BeerOrder.builder()
+                    .customer(customersById.get(beerOrderCreateDTO.getCustomerId()))
+                    .customerRef(beerOrderCreateDTO.getCustomerRef())
+                    .beerOrderLines(beerOrderLines)
+                    .build());
+
+            BeerOrderBulkResult.Item item = BeerOrderBulkResult.Item.builder()
+                    .index(parsedOrder.index())
+                    .status(BeerOrderBulkResult.Status.CREATED)
+                    .build();
+            createdItems.add(item);
+            items.add(item);
+        }
+
+        List<BeerOrder> savedBeerOrders = beerOrderRepository.saveAll(beerOrders);
+        for (int i = 0; i < savedBeerOrders.size(); i++) {
+            createdItems.get(i).setBeerOrderId(savedBeerOrders.get(i).getId());
+        }
+
+        // the request keeps its persistence context open across chunks, don't let it accumulate every order
+        entityManager.flush();
+        entityManager.clear();
+        return items;
+    }
+
+    private String validate(BeerOrderCreateDTO beerOrderCreateDTO, Map<UUID, Customer> customersById, Map<UUID, Beer> beersById) {
+        Set<ConstraintViolation<BeerOrderCreateDTO>> violations = validator.validate(beerOrderCreateDTO);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .collect(Collectors.joining(", "));
+        }
+
+        if (!customersById.containsKey(beerOrderCreateDTO.getCustomerId())) {
+            return "Customer not found: " + beerOrderCreateDTO.getCustomerId();
+        }
+
+        Set<UUID> missingBeerIds = lines(beerOrderCreateDTO).stream()
+                .map(BeerOrderLineCreateDTO::getBeerId)
+                .filter(beerId -> !beersById.containsKey(beerId))
+                .collect(Collectors.toSet());
+        if (!missingBeerIds.isEmpty()) {
+            return "Beers not found: " + missingBeerIds;
+        }
+        return null;
+    }
+
+    private static Collection<BeerOrderLineCreateDTO> lines(BeerOrderCreateDTO beerOrderCreateDTO) {
+        return beerOrderCreateDTO.getBeerOrderLines() == null ? Collections.emptySet() : beerOrderCreateDTO.getBeerOrderLines();
+    }
+}
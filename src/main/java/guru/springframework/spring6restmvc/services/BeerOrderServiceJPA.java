@@ -1,6 +1,7 @@
 package guru.springframework.spring6restmvc.services;
 
 import guru.springframework.spring6restmvc.controllers.NotFoundException;
+import guru.springframework.spring6restmvc.entities.Beer;
 import guru.springframework.spring6restmvc.entities.BeerOrder;
 import guru.springframework.spring6restmvc.entities.BeerOrderLine;
 import guru.springframework.spring6restmvc.entities.BeerOrderShipment;
@@ -12,18 +13,27 @@ import guru.springframework.spring6restmvc.repositories.CustomerRepository;
 import guru.springframework.spring6restmvcapi.events.OrderPlacedEvent;
 import guru.springframework.spring6restmvcapi.models.BeerOrderCreateDTO;
 import guru.springframework.spring6restmvcapi.models.BeerOrderDTO;
+import guru.springframework.spring6restmvcapi.models.BeerOrderLineCreateDTO;
 import guru.springframework.spring6restmvcapi.models.BeerOrderUpdateDTO;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.val;
+import org.hibernate.Session;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -34,7 +44,9 @@ public class BeerOrderServiceJPA implements BeerOrderService {
     private final CustomerRepository customerRepository;
     private final BeerRepository beerRepository;
     private final ApplicationEventPublisher applicationEventPublisher;
+    private final EntityManager entityManager;
 
+    @Transactional(readOnly = true)
     @Override
     public Page<BeerOrderDTO> getAllBeerOrders(Integer pageNumber, Integer pageSize) {
         if (pageNumber == null || pageNumber < 0) {
@@ -46,21 +58,31 @@ public class BeerOrderServiceJPA implements BeerOrderService {
         }
 
         PageRequest pageRequest = PageRequest.of(pageNumber, pageSize);
-        return beerOrderRepository.findAll(pageRequest).map(beerOrderMapper::beerOrderToBeerOrderDto);
+        Page<UUID> beerOrderIds = beerOrderRepository.findAllIds(pageRequest);
+        Map<UUID, BeerOrder> beerOrdersById = beerOrderIds.isEmpty() ? Map.of() :
+                beerOrderRepository.findAllByIdIn(beerOrderIds.getContent()).stream()
+                        .collect(Collectors.toMap(BeerOrder::getId, Function.identity()));
+        return beerOrderIds.map(id -> beerOrderMapper.beerOrderToBeerOrderDto(beerOrdersById.get(id)));
     }
 
+    @Transactional(readOnly = true)
     @Override
     public Optional<BeerOrderDTO> getBeerOrderById(UUID id) {
-        return beerOrderRepository.findById(id).map(beerOrderMapper::beerOrderToBeerOrderDto);
+        return beerOrderRepository.findWithDetailsById(id).map(beerOrderMapper::beerOrderToBeerOrderDto);
     }
 
+    @Transactional
     @Override
     public BeerOrder createBeerOrder(BeerOrderCreateDTO beerOrderCreateDTO) {
         Customer customer = customerRepository.findById(beerOrderCreateDTO.getCustomerId()).orElseThrow(NotFoundException::new);
+        Map<UUID, Beer> beersById = findBeersById(beerOrderCreateDTO.getBeerOrderLines().stream()
+                .map(BeerOrderLineCreateDTO::getBeerId)
+                .collect(Collectors.toSet()));
+
         Set<BeerOrderLine> beerOrderLines = new HashSet<>();
         beerOrderCreateDTO.getBeerOrderLines().forEach(beerOrderLine -> {
             beerOrderLines.add(BeerOrderLine.builder()
-                    .beer(beerRepository.findById(beerOrderLine.getBeerId()).orElseThrow(NotFoundException::new))
+                    .beer(beersById.get(beerOrderLine.getBeerId()))
                     .orderQuantity(beerOrderLine.getOrderQuantity())
                     .build());
         });
@@ -72,6 +94,7 @@ public class BeerOrderServiceJPA implements BeerOrderService {
                 .build());
     }
 
+    @Transactional
     @Override
     public BeerOrderDTO updateBeerOrder(UUID beerOrderId, BeerOrderUpdateDTO beerOrderUpdateDTO) {
         BeerOrder beerOrder = beerOrderRepository.findById(beerOrderId).orElseThrow(NotFoundException::new);
@@ -112,6 +135,25 @@ public class BeerOrderServiceJPA implements BeerOrderService {
         return beerOrderDTO;
     }
 
+    /**
+     * Loads all beers of an order and rejects the order if any of them does not exist. Beers in the second level
+     * cache are taken from there, the rest are read in a single query.
+     */
+    private Map<UUID, Beer> findBeersById(Set<UUID> beerIds) {
+        Map<UUID, Beer> beersById = entityManager.unwrap(Session.class)
+                .byMultipleIds(Beer.class)
+                .multiLoad(List.copyOf(beerIds)).stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toMap(Beer::getId, Function.identity()));
+
+        if (beersById.size() != beerIds.size()) {
+            Set<UUID> missingBeerIds = new HashSet<>(beerIds);
+            missingBeerIds.removeAll(beersById.keySet());
+            throw new NotFoundException("Beers not found: " + missingBeerIds);
+        }
+        return beersById;
+    }
+
     @Override
     public void deleteBeerOrder(UUID beerOrderId) {
         BeerOrder beerOrder = beerOrderRepository.findById(beerOrderId).orElseThrow(NotFoundException::new);
@@ -0,0 +1,217 @@
+package guru.springframework.spring6restmvc.services;
+
+import guru.springframework.spring6restmvc.entities.Beer;
+import guru.springframework.spring6restmvc.events.BeerDeletedEvent;
+import guru.springframework.spring6restmvc.events.BeerEvent;
+import guru.springframework.spring6restmvc.events.BeersImportedEvent;
+import guru.springframework.spring6restmvc.repositories.BeerRepository;
+import guru.springframework.spring6restmvcapi.models.BeerStyle;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over beer names, so substring searches don't need a leading wildcard LIKE scan.
+ * Built from {@link BeerRepository} once the application is ready and kept current from {@link BeerEvent}s,
+ * rebuilt after a CSV import. Events that arrive while a rebuild scans the table are replayed onto the rebuilt
+ * index before it replaces the current one.
+ * <p>
+ * Matching and ordering are case-insensitive like MySQL's default collation, but accents are not folded, so
+ * {@code "kolsch"} doesn't find {@code "Kölsch"} here while LIKE would. Terms containing the LIKE wildcards
+ * {@code %} or {@code _} are not searched here, callers use the LIKE query for them.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BeerSearchIndex {
+
+    private static final int GRAM_LENGTH = 3;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    // names that only differ in case are equal under the collation, so the id decides. The lower case hex form
+    // of a UUID sorts like its big endian bytes, i.e. like the binary(16) id column
+    private static final Comparator<IndexedBeer> LISTING_ORDER = Comparator
+            .comparing(IndexedBeer::beerName, String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(indexedBeer -> indexedBeer.id().toString());
+
+    private final BeerRepository beerRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<UUID, IndexedBeer> beers = new HashMap<>();
+    private Map<String, Set<UUID>> postings = new HashMap<>();
+    // events applied since the running rebuild started, null while none is running
+    private List<BeerEvent> eventsDuringRebuild;
+    private volatile boolean ready;
+
+    public record IndexedBeer(UUID id, String beerName, BeerStyle beerStyle) {
+    }
+
+    @EventListener({ApplicationReadyEvent.class, BeersImportedEvent.class})
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            eventsDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<UUID, IndexedBeer> rebuiltBeers = new HashMap<>();
+        Map<String, Set<UUID>> rebuiltPostings = new HashMap<>();
+
+        PageRequest batch = PageRequest.ofSize(REBUILD_BATCH_SIZE);
+        try {
+            Slice<Beer> slice = beerRepository.findAllByOrderByBeerNameAscIdAsc(batch);
+            while (true) {
+                slice.forEach(beer -> add(rebuiltBeers, rebuiltPostings, toIndexedBeer(beer)));
+                if (!slice.hasNext()) {
+                    break;
+                }
+                Beer last = slice.getContent().getLast();
+                slice = beerRepository.findAllAfter(last.getBeerName(), last.getId(), batch);
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                eventsDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // the scan may or may not have seen these changes, applying them again is harmless either way
+            eventsDuringRebuild.forEach(beerEvent -> apply(rebuiltBeers, rebuiltPostings, beerEvent));
+            eventsDuringRebuild = null;
+            beers = rebuiltBeers;
+            postings = rebuiltPostings;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Beer search index built with {} beers and {} trigrams", rebuiltBeers.size(), rebuiltPostings.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBeerEvent(BeerEvent beerEvent) {
+        lock.writeLock().lock();
+        try {
+            apply(beers, postings, beerEvent);
+            if (eventsDuringRebuild != null) {
+                eventsDuringRebuild.add(beerEvent);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Beers whose name contains {@code term} (and of {@code beerStyle}, when given) in listing order, or empty
+     * while the index is still being built or when the term contains a LIKE wildcard.
+     */
+    public Optional<List<IndexedBeer>> search(String term, BeerStyle beerStyle) {
+        if (!ready || term.contains("%") || term.contains("_")) {
+            return Optional.empty();
+        }
+
+        String normalizedTerm = normalize(term);
+
+        lock.readLock().lock();
+        try {
+            Collection<UUID> candidates = normalizedTerm.length() < GRAM_LENGTH ? beers.keySet() : candidates(normalizedTerm);
+
+            List<IndexedBeer> matches = new ArrayList<>();
+            for (UUID candidate : candidates) {
+                IndexedBeer indexedBeer = beers.get(candidate);
+                if ((beerStyle == null || beerStyle == indexedBeer.beerStyle())
+                        && normalize(indexedBeer.beerName()).contains(normalizedTerm)) {
+                    matches.add(indexedBeer);
+                }
+            }
+            matches.sort(LISTING_ORDER);
+            return Optional.of(matches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Collection<UUID> candidates(String normalizedTerm) {
+        List<Set<UUID>> termPostings = new ArrayList<>();
+        for (String gram : grams(normalizedTerm)) {
+            Set<UUID> gramPostings = postings.get(gram);
+            if (gramPostings == null) {
+                return Collections.emptyList();
+            }
+            termPostings.add(gramPostings);
+        }
+        termPostings.sort(Comparator.comparingInt(Set::size));
+
+        List<UUID> candidates = new ArrayList<>();
+        for (UUID id : termPostings.getFirst()) {
+            if (termPostings.stream().allMatch(gramPostings -> gramPostings.contains(id))) {
+                candidates.add(id);
+            }
+        }
+        return candidates;
+    }
+
+    private static void apply(Map<UUID, IndexedBeer> beers, Map<String, Set<UUID>> postings, BeerEvent beerEvent) {
+        remove(beers, postings, beerEvent.getBeer().getId());
+        if (!(beerEvent instanceof BeerDeletedEvent)) {
+            add(beers, postings, toIndexedBeer(beerEvent.getBeer()));
+        }
+    }
+
+    private static void remove(Map<UUID, IndexedBeer> beers, Map<String, Set<UUID>> postings, UUID id) {
+        IndexedBeer removed = beers.remove(id);
+        if (removed == null) {
+            return;
+        }
+
+        for (String gram : grams(normalize(removed.beerName()))) {
+            Set<UUID> gramPostings = postings.get(gram);
+            if (gramPostings != null) {
+                gramPostings.remove(id);
+                if (gramPostings.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static void add(Map<UUID, IndexedBeer> beers, Map<String, Set<UUID>> postings, IndexedBeer indexedBeer) {
+        if (indexedBeer.beerName() == null) {
+            return;
+        }
+
+        beers.put(indexedBeer.id(), indexedBeer);
+        for (String gram : grams(normalize(indexedBeer.beerName()))) {
+            postings.computeIfAbsent(gram, key -> new HashSet<>()).add(indexedBeer.id());
+        }
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private static IndexedBeer toIndexedBeer(Beer beer) {
+        return new IndexedBeer(beer.getId(), beer.getBeerName(), beer.getBeerStyle());
+    }
+}
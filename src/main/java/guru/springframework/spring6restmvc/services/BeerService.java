@@ -3,6 +3,7 @@ package guru.springframework.spring6restmvc.services;
 import guru.springframework.spring6restmvcapi.models.BeerDTO;
 import guru.springframework.spring6restmvcapi.models.BeerStyle;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -10,13 +11,30 @@ import java.util.UUID;
 public interface BeerService {
     Page<BeerDTO> getAllBeers(String beerName, BeerStyle beerStyle, Boolean showInventory, Integer pageNumber, Integer pageSize);
 
+    Slice<BeerDTO> getBeersAfter(String beerName, BeerStyle beerStyle, Boolean showInventory, BeerCursor cursor, Integer pageSize);
+
     Optional<BeerDTO> getBeerById(UUID id);
 
     BeerDTO saveBeer(BeerDTO beer);
 
-    Optional<BeerDTO> updateBeerById(UUID beerId, BeerDTO beer);
+    default Optional<BeerDTO> updateBeerById(UUID beerId, BeerDTO beer) {
+        return updateBeerById(beerId, beer, null);
+    }
+
+    /**
+     * Replaces the beer. With an {@code expectedVersion} the update only applies to that version and fails with an
+     * {@code OptimisticLockingFailureException} otherwise, without one concurrent updates are retried.
+     */
+    Optional<BeerDTO> updateBeerById(UUID beerId, BeerDTO beer, Integer expectedVersion);
 
     Boolean deleteBeerById(UUID beerId);
 
-    Optional<BeerDTO> updateBeerPartiallyById(UUID beerId, BeerDTO beer);
+    default Optional<BeerDTO> updateBeerPartiallyById(UUID beerId, BeerDTO beer) {
+        return updateBeerPartiallyById(beerId, beer, null);
+    }
+
+    /**
+     * Applies the non null fields of the beer, with the same version handling as {@link #updateBeerById}.
+     */
+    Optional<BeerDTO> updateBeerPartiallyById(UUID beerId, BeerDTO beer, Integer expectedVersion);
 }
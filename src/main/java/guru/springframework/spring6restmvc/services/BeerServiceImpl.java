@@ -3,8 +3,12 @@ package guru.springframework.spring6restmvc.services;
 import guru.springframework.spring6restmvcapi.models.BeerDTO;
 import guru.springframework.spring6restmvcapi.models.BeerStyle;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
@@ -67,6 +71,24 @@ public class BeerServiceImpl implements BeerService {
         return new PageImpl<>(new ArrayList<>(beerMap.values()));
     }
 
+    @Override
+    public Slice<BeerDTO> getBeersAfter(String beerName, BeerStyle beerStyle, Boolean showInventory, BeerCursor cursor, Integer pageSize) {
+        log.debug("List Beers after cursor - in service");
+        int size = pageSize == null ? 25 : pageSize;
+
+        List<BeerDTO> beers = beerMap.values().stream()
+                .filter(beer -> beerStyle == null || beerStyle == beer.getBeerStyle())
+                .filter(beer -> !StringUtils.hasText(beerName) || beer.getBeerName().contains(beerName))
+                .sorted(Comparator.comparing(BeerDTO::getBeerName).thenComparing(beer -> beer.getId().toString()))
+                .filter(beer -> cursor == null || beer.getBeerName().compareTo(cursor.beerName()) > 0
+                        || (beer.getBeerName().equals(cursor.beerName()) && beer.getId().toString().compareTo(cursor.id().toString()) > 0))
+                .limit(size + 1L)
+                .toList();
+
+        boolean hasNext = beers.size() > size;
+        return new SliceImpl<>(hasNext ? beers.subList(0, size) : beers, PageRequest.ofSize(size), hasNext);
+    }
+
     @Override
     public Optional<BeerDTO> getBeerById(UUID id) {
         log.debug("Get Beer by Id - in service. Id: {} ", id);
@@ -92,8 +114,9 @@ public class BeerServiceImpl implements BeerService {
     }
 
     @Override
-    public Optional<BeerDTO> updateBeerById(UUID beerId, BeerDTO beer) {
+    public Optional<BeerDTO> updateBeerById(UUID beerId, BeerDTO beer, Integer expectedVersion) {
         BeerDTO existingBeer = beerMap.get(beerId);
+        checkVersion(existingBeer, expectedVersion);
         existingBeer.setBeerName(beer.getBeerName());
         existingBeer.setBeerStyle(beer.getBeerStyle());
         existingBeer.setUpc(beer.getUpc());
@@ -110,8 +133,9 @@ public class BeerServiceImpl implements BeerService {
     }
 
     @Override
-    public Optional<BeerDTO> updateBeerPartiallyById(UUID beerId, BeerDTO beer) {
+    public Optional<BeerDTO> updateBeerPartiallyById(UUID beerId, BeerDTO beer, Integer expectedVersion) {
         BeerDTO existing = beerMap.get(beerId);
+        checkVersion(existing, expectedVersion);
 
         if (StringUtils.hasText(beer.getBeerName())) {
             existing.setBeerName(beer.getBeerName());
@@ -134,4 +158,11 @@ public class BeerServiceImpl implements BeerService {
         }
         return Optional.of(existing);
     }
+
+    private void checkVersion(BeerDTO existing, Integer expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(existing.getVersion())) {
+            throw new OptimisticLockingFailureException("Beer " + existing.getId() + " is at version "
+                    + existing.getVersion() + ", not " + expectedVersion);
+        }
+    }
 }
@@ -1,10 +1,14 @@
 package guru.springframework.spring6restmvc.services;
 
+import guru.springframework.spring6restmvc.configs.CacheConfig;
+import guru.springframework.spring6restmvc.configs.CacheEvictions;
 import guru.springframework.spring6restmvc.entities.Beer;
 import guru.springframework.spring6restmvc.events.BeerCreatedEvent;
 import guru.springframework.spring6restmvc.events.BeerDeletedEvent;
+import guru.springframework.spring6restmvc.events.BeerEvent;
 import guru.springframework.spring6restmvc.events.BeerPatchedEvent;
 import guru.springframework.spring6restmvc.events.BeerUpdatedEvent;
+import guru.springframework.spring6restmvc.events.BeersImportedEvent;
 import guru.springframework.spring6restmvc.mappers.BeerMapper;
 import guru.springframework.spring6restmvc.repositories.BeerRepository;
 import guru.springframework.spring6restmvcapi.models.BeerDTO;
@@ -12,21 +16,34 @@ import guru.springframework.spring6restmvcapi.models.BeerStyle;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
-import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -37,14 +54,34 @@ public class BeerServiceJPA implements BeerService {
     private final BeerRepository beerRepository;
     private final BeerMapper beerMapper;
     private final CacheManager cacheManager;
+    private final BeerListCache beerListCache;
+    private final BeerSearchIndex beerSearchIndex;
     private final ApplicationEventPublisher applicationEventPublisher;
+    private final OptimisticLockRetry optimisticLockRetry;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheEvictions cacheEvictions;
 
     private static final int DEFAULT_PAGE_SIZE = 25;
     private static final int DEFAULT_PAGE_NUMBER = 0;
 
-    @Cacheable(cacheNames = "beerListCache")
     @Override
     public Page<BeerDTO> getAllBeers(String beerName, BeerStyle beerStyle, Boolean showInventory, Integer pageNumber, Integer pageSize) {
+        if (cacheEvictions.bypassCache()) {
+            return readOnly(() -> listBeers(beerName, beerStyle, showInventory, pageNumber, pageSize));
+        }
+
+        // only a miss begins a transaction, a cached page is served without a connection
+        return beerListCache.get(new BeerListCacheKey(beerName, beerStyle, showInventory, pageNumber, pageSize),
+                () -> readOnly(() -> listBeers(beerName, beerStyle, showInventory, pageNumber, pageSize)));
+    }
+
+    private <T> T readOnly(Supplier<T> query) {
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager(), transactionTemplate);
+        readOnlyTransaction.setReadOnly(true);
+        return readOnlyTransaction.execute(status -> query.get());
+    }
+
+    private Page<BeerDTO> listBeers(String beerName, BeerStyle beerStyle, Boolean showInventory, Integer pageNumber, Integer pageSize) {
         log.info("Get All beers - in service");
 
         PageRequest pageRequest = buildPageRequest(pageNumber, pageSize);
@@ -66,8 +103,51 @@ public class BeerServiceJPA implements BeerService {
         return beerPage.map(beerMapper::beerToBeerDTO);
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public Slice<BeerDTO> getBeersAfter(String beerName, BeerStyle beerStyle, Boolean showInventory, BeerCursor cursor, Integer pageSize) {
+        log.info("Get beers after cursor - in service");
+
+        PageRequest pageRequest = PageRequest.ofSize(resolvePageSize(pageSize));
+
+        Slice<Beer> beerSlice;
+        if (cursor == null) {
+            beerSlice = listFirstBeers(beerName, beerStyle, pageRequest);
+        } else if (StringUtils.hasText(beerName) && beerStyle == null) {
+            beerSlice = beerRepository.findAllByBeerNameIsLikeAfter("%" + beerName + "%", cursor.beerName(), cursor.id(), pageRequest);
+        } else if (!StringUtils.hasText(beerName) && beerStyle != null) {
+            beerSlice = beerRepository.findAllByBeerStyleAfter(beerStyle, cursor.beerName(), cursor.id(), pageRequest);
+        } else if (StringUtils.hasText(beerName) && beerStyle != null) {
+            beerSlice = beerRepository.findAllByBeerNameIsLikeAndBeerStyleAfter("%" + beerName + "%", beerStyle,
+                    cursor.beerName(), cursor.id(), pageRequest);
+        } else {
+            beerSlice = beerRepository.findAllAfter(cursor.beerName(), cursor.id(), pageRequest);
+        }
+
+        if (showInventory != null && !showInventory) {
+            beerSlice.forEach(beer -> beer.setQuantityOnHand(null));
+        }
+        return beerSlice.map(beerMapper::beerToBeerDTO);
+    }
+
+    private Slice<Beer> listFirstBeers(String beerName, BeerStyle beerStyle, PageRequest pageRequest) {
+        if (StringUtils.hasText(beerName) && beerStyle == null) {
+            return beerRepository.findAllByBeerNameIsLikeOrderByBeerNameAscIdAsc("%" + beerName + "%", pageRequest);
+        } else if (!StringUtils.hasText(beerName) && beerStyle != null) {
+            return beerRepository.findAllByBeerStyleOrderByBeerNameAscIdAsc(beerStyle, pageRequest);
+        } else if (StringUtils.hasText(beerName) && beerStyle != null) {
+            return beerRepository.findAllByBeerNameIsLikeAndBeerStyleOrderByBeerNameAscIdAsc("%" + beerName + "%", beerStyle, pageRequest);
+        } else {
+            return beerRepository.findAllByOrderByBeerNameAscIdAsc(pageRequest);
+        }
+    }
+
+    private int resolvePageSize(Integer pageSize) {
+        return pageSize == null ? DEFAULT_PAGE_SIZE : (pageSize > 1000 ? 1000 : pageSize);
+    }
+
     private PageRequest buildPageRequest(Integer pageNumber, Integer pageSize) {
-        int queryPageSize = pageSize == null ? DEFAULT_PAGE_SIZE : (pageSize > 1000 ? 1000 : pageSize);
+        int queryPageSize = resolvePageSize(pageSize);
         int queryPageNumber;
         if (pageNumber != null && pageNumber > 0) {
             queryPageNumber = pageNumber - 1;
@@ -80,7 +160,8 @@ public class BeerServiceJPA implements BeerService {
     }
 
     private Page<Beer> listBeersByNameAndStyle(String beerName, BeerStyle beerStyle, PageRequest pageRequest) {
-        return beerRepository.findAllByBeerNameIsLikeAndBeerStyle("%" + beerName + "%", beerStyle, pageRequest);
+        return searchBeers(beerName, beerStyle, pageRequest)
+                .orElseGet(() -> beerRepository.findAllByBeerNameIsLikeAndBeerStyle("%" + beerName + "%", beerStyle, pageRequest));
     }
 
     private Page<Beer> listBeersByStyle(BeerStyle beerStyle, PageRequest pageRequest) {
@@ -88,10 +169,30 @@ public class BeerServiceJPA implements BeerService {
     }
 
     private Page<Beer> listBeersByName(String beerName, PageRequest pageRequest) {
-        return beerRepository.findAllByBeerNameIsLike("%" + beerName + "%", pageRequest);
+        return searchBeers(beerName, null, pageRequest)
+                .orElseGet(() -> beerRepository.findAllByBeerNameIsLike("%" + beerName + "%", pageRequest));
     }
 
-    @Cacheable(cacheNames = "beerCache", key = "#id")
+    /**
+     * Resolves the name search through {@link BeerSearchIndex} and only loads the requested page by id.
+     * Empty while the index is not built yet, in which case callers fall back to the LIKE query.
+     */
+    private Optional<Page<Beer>> searchBeers(String beerName, BeerStyle beerStyle, PageRequest pageRequest) {
+        return beerSearchIndex.search(beerName, beerStyle).map(matches -> {
+            int fromIndex = (int) Math.min(pageRequest.getOffset(), matches.size());
+            int toIndex = Math.min(fromIndex + pageRequest.getPageSize(), matches.size());
+            List<UUID> pageIds = matches.subList(fromIndex, toIndex).stream().map(BeerSearchIndex.IndexedBeer::id).toList();
+
+            Map<UUID, Beer> beersById = beerRepository.findAllById(pageIds).stream()
+                    .collect(Collectors.toMap(Beer::getId, Function.identity()));
+            List<Beer> content = pageIds.stream().map(beersById::get).filter(Objects::nonNull).toList();
+
+            return new PageImpl<>(content, pageRequest, matches.size());
+        });
+    }
+
+    @Cacheable(cacheNames = CacheConfig.BEER_CACHE, key = "#id", condition = "!@cacheEvictions.bypassCache()")
+    @Transactional(readOnly = true)
     @Override
     public Optional<BeerDTO> getBeerById(UUID id) {
         log.info("Get beer by id - in service");
@@ -100,8 +201,8 @@ public class BeerServiceJPA implements BeerService {
 
     @Override
     public BeerDTO saveBeer(BeerDTO beer) {
-        Optional.ofNullable(cacheManager.getCache("beerListCache")).ifPresent(Cache::clear);
         val savedBeer = beerRepository.save(beerMapper.beerDtoToBeer(beer));
+        cacheEvictions.afterCommit(() -> beerListCache.evictForInsert(savedBeer.getBeerName(), savedBeer.getBeerStyle()));
 
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         applicationEventPublisher.publishEvent(new BeerCreatedEvent(savedBeer, authentication));
@@ -110,69 +211,89 @@ public class BeerServiceJPA implements BeerService {
     }
 
     @Override
-    public Optional<BeerDTO> updateBeerById(UUID beerId, BeerDTO beer) {
-        clearCache(beerId);
-        return beerRepository.findById(beerId).map(foundBeer -> {
+    public Optional<BeerDTO> updateBeerById(UUID beerId, BeerDTO beer, Integer expectedVersion) {
+        return updateBeer(beerId, expectedVersion, "beer.update", foundBeer -> {
             foundBeer.setBeerName(beer.getBeerName());
             foundBeer.setBeerStyle(beer.getBeerStyle());
             foundBeer.setPrice(beer.getPrice());
             foundBeer.setUpc(beer.getUpc());
             foundBeer.setQuantityOnHand(beer.getQuantityOnHand());
-            val updatedBeer = beerRepository.save(foundBeer);
-
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            applicationEventPublisher.publishEvent(new BeerUpdatedEvent(updatedBeer, authentication));
-
-            return beerMapper.beerToBeerDTO(updatedBeer);
-        });
+        }, BeerUpdatedEvent::new);
     }
 
     @Override
     public Boolean deleteBeerById(UUID beerId) {
-        clearCache(beerId);
-
-        if (beerRepository.existsById(beerId)) {
+        return beerRepository.findById(beerId).map(foundBeer -> {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            applicationEventPublisher.publishEvent(new BeerDeletedEvent(Beer.builder().id(beerId).build(), authentication));
+            applicationEventPublisher.publishEvent(new BeerDeletedEvent(foundBeer, authentication));
             beerRepository.deleteById(beerId);
+            cacheEvictions.afterCommit(() -> {
+                evictBeerCache(beerId);
+                beerListCache.evictForDelete(foundBeer.getBeerName(), foundBeer.getBeerStyle());
+            });
             return true;
-        } else {
-            return false;
-        }
+        }).orElse(false);
     }
 
     @Override
-    public Optional<BeerDTO> updateBeerPartiallyById(UUID beerId, BeerDTO beer) {
+    public Optional<BeerDTO> updateBeerPartiallyById(UUID beerId, BeerDTO beer, Integer expectedVersion) {
+        return updateBeer(beerId, expectedVersion, "beer.patch", foundBeer -> {
+            if (StringUtils.hasText(beer.getBeerName())) {
+                foundBeer.setBeerName(beer.getBeerName());
+            }
+            if (beer.getBeerStyle() != null) {
+                foundBeer.setBeerStyle(beer.getBeerStyle());
+            }
+            if (StringUtils.hasText(beer.getUpc())) {
+                foundBeer.setUpc(beer.getUpc());
+            }
+            if (beer.getPrice() != null) {
+                foundBeer.setPrice(beer.getPrice());
+            }
+            if (beer.getQuantityOnHand() != null) {
+                foundBeer.setQuantityOnHand(beer.getQuantityOnHand());
+            }
+        }, BeerPatchedEvent::new);
+    }
 
-        clearCache(beerId);
+    /**
+     * Read-modify-write of one beer in its own transaction, flushed so a concurrent change surfaces as an
+     * optimistic locking failure inside it. The rollback clears the persistence context, so a retry re-reads the
+     * current row. With an expected version the write is conditional on it and not retried. The caches are only
+     * evicted once the update has committed.
+     */
+    private Optional<BeerDTO> updateBeer(UUID beerId, Integer expectedVersion, String operation, Consumer<Beer> changes,
+                                         BiFunction<Beer, Authentication, BeerEvent> beerEvent) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
-        return beerRepository.findById(beerId).map(foundBeer -> {
-                    if (StringUtils.hasText(beer.getBeerName())) {
-                        foundBeer.setBeerName(beer.getBeerName());
-                    }
-                    if (beer.getBeerStyle() != null) {
-                        foundBeer.setBeerStyle(beer.getBeerStyle());
-                    }
-                    if (StringUtils.hasText(beer.getUpc())) {
-                        foundBeer.setUpc(beer.getUpc());
+        return optimisticLockRetry.execute(operation, expectedVersion == null, () ->
+                transactionTemplate.execute(status -> beerRepository.findById(beerId).map(foundBeer -> {
+                    if (expectedVersion != null && !expectedVersion.equals(foundBeer.getVersion())) {
+                        throw new ObjectOptimisticLockingFailureException(Beer.class, beerId);
                     }
-                    if (beer.getPrice() != null) {
-                        foundBeer.setPrice(beer.getPrice());
-                    }
-                    if (beer.getQuantityOnHand() != null) {
-                        foundBeer.setQuantityOnHand(beer.getQuantityOnHand());
-                    }
-                    val updatedBeer = beerRepository.save(foundBeer);
 
-                    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-                    applicationEventPublisher.publishEvent(new BeerPatchedEvent(updatedBeer, authentication));
+                    String oldBeerName = foundBeer.getBeerName();
+                    BeerStyle oldBeerStyle = foundBeer.getBeerStyle();
+
+                    changes.accept(foundBeer);
+                    val updatedBeer = beerRepository.saveAndFlush(foundBeer);
+                    cacheEvictions.afterCommit(() -> {
+                        evictBeerCache(beerId);
+                        beerListCache.evictForUpdate(beerId, oldBeerName, oldBeerStyle,
+                                updatedBeer.getBeerName(), updatedBeer.getBeerStyle());
+                    });
+
+                    applicationEventPublisher.publishEvent(beerEvent.apply(updatedBeer, authentication));
                     return beerMapper.beerToBeerDTO(updatedBeer);
-                }
-        );
+                })));
+    }
+
+    @EventListener(BeersImportedEvent.class)
+    public void onBeersImported() {
+        cacheEvictions.afterCommit(beerListCache::clear);
     }
 
-    private void clearCache(UUID uuid) {
-        Optional.ofNullable(cacheManager.getCache("beerListCache")).ifPresent(Cache::clear);
-        Optional.ofNullable(cacheManager.getCache("beerCache")).ifPresent(cache -> cache.evict(uuid));
+    private void evictBeerCache(UUID uuid) {
+        Optional.ofNullable(cacheManager.getCache(CacheConfig.BEER_CACHE)).ifPresent(cache -> cache.evict(uuid));
     }
 }
@@ -1,5 +1,7 @@
 package guru.springframework.spring6restmvc.services;
 
+import guru.springframework.spring6restmvc.configs.CacheConfig;
+import guru.springframework.spring6restmvc.configs.CacheEvictions;
 import guru.springframework.spring6restmvc.mappers.CustomerMapper;
 import guru.springframework.spring6restmvc.repositories.CustomerRepository;
 import guru.springframework.spring6restmvcapi.models.CustomerDTO;
@@ -10,6 +12,7 @@ import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.util.List;
@@ -26,15 +29,18 @@ public class CustomerServiceJPA implements CustomerService {
     private final CustomerRepository customerRepository;
     private final CustomerMapper customerMapper;
     private final CacheManager cacheManager;
+    private final CacheEvictions cacheEvictions;
 
-    @Cacheable(cacheNames = "customerListCache")
+    @Cacheable(cacheNames = CacheConfig.CUSTOMER_LIST_CACHE, condition = "!@cacheEvictions.bypassCache()")
+    @Transactional(readOnly = true)
     @Override
     public List<CustomerDTO> getAllCustomers() {
         log.info("Get all customers - in service");
         return customerRepository.findAll().stream().map(customerMapper::customerToCustomerDTO).collect(Collectors.toList());
     }
 
-    @Cacheable(cacheNames = "customerCache", key = "#id")
+    @Cacheable(cacheNames = CacheConfig.CUSTOMER_CACHE, key = "#id", condition = "!@cacheEvictions.bypassCache()")
+    @Transactional(readOnly = true)
     @Override
     public Optional<CustomerDTO> getCustomerById(UUID id) {
         log.info("Get customer by id - in service");
@@ -43,25 +49,27 @@ public class CustomerServiceJPA implements CustomerService {
 
     @Override
     public CustomerDTO saveCustomer(CustomerDTO customer) {
-        Optional.ofNullable(cacheManager.getCache("customerListCache")).ifPresent(Cache::clear);
-        return customerMapper.customerToCustomerDTO(customerRepository.save(customerMapper.customerDtoToCustomer(customer)));
+        CustomerDTO savedCustomer = customerMapper.customerToCustomerDTO(customerRepository.save(customerMapper.customerDtoToCustomer(customer)));
+        cacheEvictions.afterCommit(() -> Optional.ofNullable(cacheManager.getCache(CacheConfig.CUSTOMER_LIST_CACHE)).ifPresent(Cache::clear));
+        return savedCustomer;
     }
 
     @Override
     public Optional<CustomerDTO> updateCustomerById(UUID customerId, CustomerDTO customer) {
-        clearCache(customerId);
-        return customerRepository.findById(customerId).map(customerFound -> {
+        Optional<CustomerDTO> updatedCustomer = customerRepository.findById(customerId).map(customerFound -> {
                     customerFound.setCustomerName(customer.getCustomerName());
                     return customerMapper.customerToCustomerDTO(customerRepository.save(customerFound));
                 }
         );
+        clearCache(customerId);
+        return updatedCustomer;
     }
 
     @Override
     public Boolean deleteCustomerById(UUID customerId) {
-        clearCache(customerId);
         if (customerRepository.existsById(customerId)) {
             customerRepository.deleteById(customerId);
+            clearCache(customerId);
             return true;
         } else {
             return false;
@@ -70,17 +78,20 @@ public class CustomerServiceJPA implements CustomerService {
 
     @Override
     public Optional<CustomerDTO> updateCustomerPartiallyById(UUID customerId, CustomerDTO customer) {
-        clearCache(customerId);
-        return customerRepository.findById(customerId).map(customerFound -> {
+        Optional<CustomerDTO> updatedCustomer = customerRepository.findById(customerId).map(customerFound -> {
             if (StringUtils.hasText(customer.getCustomerName())) {
                 customerFound.setCustomerName(customer.getCustomerName());
             }
             return customerMapper.customerToCustomerDTO(customerRepository.save(customerFound));
         });
+        clearCache(customerId);
+        return updatedCustomer;
     }
 
     private void clearCache(UUID uuid) {
-        Optional.ofNullable(cacheManager.getCache("customerListCache")).ifPresent(Cache::clear);
-        Optional.ofNullable(cacheManager.getCache("customerCache")).ifPresent(cache -> cache.evict(uuid));
+        cacheEvictions.afterCommit(() -> {
+            Optional.ofNullable(cacheManager.getCache(CacheConfig.CUSTOMER_LIST_CACHE)).ifPresent(Cache::clear);
+            Optional.ofNullable(cacheManager.getCache(CacheConfig.CUSTOMER_CACHE)).ifPresent(cache -> cache.evict(uuid));
+        });
     }
 }
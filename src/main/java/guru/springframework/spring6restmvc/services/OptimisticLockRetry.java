@@ -0,0 +1,74 @@
+package guru.springframework.spring6restmvc.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Bounded retry of optimistically locked writes. Backoff grows exponentially and is fully jittered, so writers that
+ * collided on a hot row don't collide again in lock step. Each attempt must run in its own transaction and re-read
+ * the row. Conflicts, retries and exhausted retries are counted per operation as {@code optimistic.lock.*}.
+ */
+@Slf4j
+@Component
+public class OptimisticLockRetry {
+
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+
+    public OptimisticLockRetry(MeterRegistry meterRegistry,
+                               @Value("${app.optimistic-lock.max-attempts:4}") int maxAttempts,
+                               @Value("${app.optimistic-lock.initial-backoff:10ms}") Duration initialBackoff,
+                               @Value("${app.optimistic-lock.max-backoff:200ms}") Duration maxBackoff) {
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+    }
+
+    /**
+     * Runs the action, retrying on optimistic locking failures when {@code retryable}. A non retryable action, such
+     * as a write conditional on a version the client supplied, only has its conflict counted.
+     */
+    public <T> T execute(String operation, boolean retryable, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException e) {
+                meterRegistry.counter("optimistic.lock.conflicts", "operation", operation).increment();
+                if (!retryable) {
+                    throw e;
+                }
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter("optimistic.lock.exhausted", "operation", operation).increment();
+                    log.warn("{} still conflicting after {} attempts", operation, attempt);
+                    throw e;
+                }
+
+                meterRegistry.counter("optimistic.lock.retries", "operation", operation).increment();
+                long backoffNanos = backoffNanos(attempt);
+                log.debug("{} conflicted on attempt {}, retrying in {} us", operation, attempt, backoffNanos / 1000);
+                try {
+                    TimeUnit.NANOSECONDS.sleep(backoffNanos);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private long backoffNanos(int attempt) {
+        long ceiling = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+}
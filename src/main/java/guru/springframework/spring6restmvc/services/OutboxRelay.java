@@ -0,0 +1,203 @@
+package guru.springframework.spring6restmvc.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.spring6restmvc.entities.OutboxEvent;
+import guru.springframework.spring6restmvc.repositories.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ClassUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes outbox events to Kafka in batches. A batch is claimed in a short transaction, its rows locked with SKIP
+ * LOCKED only while the claim is written, and sent without holding a transaction or connection. The events of one
+ * aggregate are sent one at a time in order, so once a send fails the aggregate's later events wait for the next
+ * poll. Acknowledged events are deleted and the others released for the next poll, so delivery is at least once.
+ * An event that failed {@code max-attempts} times stays in the outbox but is no longer relayed. Consumers can drop
+ * redeliveries by the {@value #OUTBOX_EVENT_ID_HEADER} header.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    public static final String OUTBOX_EVENT_ID_HEADER = "outbox-event-id";
+
+    private record Outcome(List<OutboxEvent> acknowledged, List<OutboxEvent> failed) {
+    }
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration sendTimeout;
+    private final int maxAttempts;
+
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final Counter poisonedCounter;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, KafkaTemplate<String, Object> kafkaTemplate,
+                       ObjectMapper objectMapper, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                       @Value("${app.outbox.batch-size:100}") int batchSize,
+                       @Value("${app.outbox.send-timeout:10s}") Duration sendTimeout,
+                       @Value("${app.outbox.max-attempts:10}") int maxAttempts) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+        this.maxAttempts = maxAttempts;
+        this.publishedCounter = meterRegistry.counter("outbox.events.published");
+        this.failedCounter = meterRegistry.counter("outbox.events.failed");
+        this.poisonedCounter = meterRegistry.counter("outbox.events.poisoned");
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval:500ms}")
+    public void relay() {
+        boolean more;
+        do {
+            List<OutboxEvent> claimed = transactionTemplate.execute(status -> claimBatch());
+            if (claimed == null || claimed.isEmpty()) {
+                return;
+            }
+
+            Outcome outcome = publish(claimed);
+            transactionTemplate.executeWithoutResult(status -> settle(claimed, outcome));
+            // after a failure the rest waits for the next poll instead of hammering the broker
+            more = claimed.size() >= batchSize && outcome.failed().isEmpty();
+        } while (more);
+    }
+
+    private List<OutboxEvent> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> outboxEvents = outboxEventRepository.findRelayable(now, maxAttempts,
+                PageRequest.ofSize(batchSize));
+        if (!outboxEvents.isEmpty()) {
+            // outlasts the wait for the broker, no other relay picks the batch up meanwhile
+            outboxEventRepository.claim(ids(outboxEvents), now.plus(sendTimeout.multipliedBy(2)));
+        }
+        return outboxEvents;
+    }
+
+    private Outcome publish(List<OutboxEvent> outboxEvents) {
+        Map<UUID, Deque<OutboxEvent>> pending = new LinkedHashMap<>();
+        outboxEvents.forEach(outboxEvent -> pending
+                .computeIfAbsent(outboxEvent.getAggregateId(), aggregateId -> new ArrayDeque<>())
+                .add(outboxEvent));
+
+        List<OutboxEvent> acknowledged = new ArrayList<>(outboxEvents.size());
+        List<OutboxEvent> failed = new ArrayList<>();
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+
+        // one event per aggregate in flight, sent without waiting per record
+        while (!pending.isEmpty() && deadline - System.nanoTime() > 0) {
+            Map<OutboxEvent, CompletableFuture<SendResult<String, Object>>> sends = new LinkedHashMap<>();
+            Iterator<Deque<OutboxEvent>> aggregates = pending.values().iterator();
+            while (aggregates.hasNext()) {
+                Deque<OutboxEvent> aggregateEvents = aggregates.next();
+                OutboxEvent outboxEvent = aggregateEvents.poll();
+                try {
+                    sends.put(outboxEvent, kafkaTemplate.send(toProducerRecord(outboxEvent)));
+                } catch (Exception e) {
+                    log.error("Outbox event {} could not be sent", outboxEvent.getId(), e);
+                    failed.add(outboxEvent);
+                    aggregateEvents.clear();
+                }
+                if (aggregateEvents.isEmpty()) {
+                    aggregates.remove();
+                }
+            }
+
+            for (Map.Entry<OutboxEvent, CompletableFuture<SendResult<String, Object>>> send : sends.entrySet()) {
+                OutboxEvent outboxEvent = send.getKey();
+                try {
+                    send.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    acknowledged.add(outboxEvent);
+                } catch (ExecutionException | TimeoutException e) {
+                    log.warn("Outbox event {} was not acknowledged, will retry", outboxEvent.getId(), e);
+                    failed.add(outboxEvent);
+                    pending.remove(outboxEvent.getAggregateId());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return new Outcome(acknowledged, failed);
+                }
+            }
+        }
+        return new Outcome(acknowledged, failed);
+    }
+
+    /**
+     * Deletes what the broker acknowledged, counts an attempt for what failed and releases the rest, events of a
+     * failed aggregate that weren't sent, for the next poll.
+     */
+    private void settle(List<OutboxEvent> claimed, Outcome outcome) {
+        outboxEventRepository.deleteAllInBatch(outcome.acknowledged());
+        if (!outcome.failed().isEmpty()) {
+            outboxEventRepository.recordFailedAttempts(ids(outcome.failed()));
+        }
+
+        Set<UUID> settled = new HashSet<>(ids(outcome.acknowledged()));
+        settled.addAll(ids(outcome.failed()));
+        List<UUID> unsent = claimed.stream().map(OutboxEvent::getId).filter(id -> !settled.contains(id)).toList();
+        if (!unsent.isEmpty()) {
+            outboxEventRepository.releaseClaims(unsent);
+        }
+
+        outcome.failed().stream()
+                .filter(outboxEvent -> outboxEvent.getAttempts() + 1 >= maxAttempts)
+                .forEach(outboxEvent -> {
+                    poisonedCounter.increment();
+                    log.error("Outbox event {} of {} {} failed {} times, no longer relayed", outboxEvent.getId(),
+                            outboxEvent.getAggregateType(), outboxEvent.getAggregateId(), maxAttempts);
+                });
+
+        publishedCounter.increment(outcome.acknowledged().size());
+        failedCounter.increment(outcome.failed().size());
+        log.debug("Relayed {} of {} outbox events", outcome.acknowledged().size(), claimed.size());
+    }
+
+    private static List<UUID> ids(List<OutboxEvent> outboxEvents) {
+        return outboxEvents.stream().map(OutboxEvent::getId).toList();
+    }
+
+    private ProducerRecord<String, Object> toProducerRecord(OutboxEvent outboxEvent) throws Exception {
+        Object event = objectMapper.readValue(outboxEvent.getPayload(),
+                ClassUtils.forName(outboxEvent.getEventType(), getClass().getClassLoader()));
+
+        ProducerRecord<String, Object> producerRecord = new ProducerRecord<>(outboxEvent.getTopic(),
+                outboxEvent.getAggregateId().toString(), event);
+        producerRecord.headers().add(OUTBOX_EVENT_ID_HEADER, outboxEvent.getId().toString().getBytes(StandardCharsets.UTF_8));
+        return producerRecord;
+    }
+}
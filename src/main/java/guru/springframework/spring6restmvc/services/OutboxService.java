@@ -0,0 +1,11 @@
+package guru.springframework.spring6restmvc.services;
+
+import java.util.UUID;
+
+public interface OutboxService {
+
+    /**
+     * Stores the event for publication to {@code topic} in the current transaction.
+     */
+    void append(String aggregateType, UUID aggregateId, String topic, Object event);
+}
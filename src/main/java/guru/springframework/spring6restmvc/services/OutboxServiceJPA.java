@@ -0,0 +1,36 @@
+package guru.springframework.spring6restmvc.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.spring6restmvc.entities.OutboxEvent;
+import guru.springframework.spring6restmvc.repositories.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OutboxServiceJPA implements OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void append(String aggregateType, UUID aggregateId, String topic, Object event) {
+        try {
+            OutboxEvent outboxEvent = outboxEventRepository.save(OutboxEvent.builder()
+                    .aggregateType(aggregateType)
+                    .aggregateId(aggregateId)
+                    .topic(topic)
+                    .eventType(event.getClass().getName())
+                    .payload(objectMapper.writeValueAsString(event))
+                    .build());
+            log.debug("Outbox event {} for {} {} stored", outboxEvent.getId(), aggregateType, aggregateId);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Event " + event.getClass().getName() + " could not be serialized", e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+create table outbox_event
+(
+    id             varchar(36)  not null,
+    aggregate_type varchar(50)  not null,
+    aggregate_id   varchar(36)  not null,
+    topic          varchar(255) not null,
+    event_type     varchar(255) not null,
+    payload        longtext     not null,
+    create_date    datetime(6),
+    primary key (id),
+    index outbox_event_create_date_idx (create_date)
+) engine = InnoDB;
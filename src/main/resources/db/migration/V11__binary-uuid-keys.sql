@@ -0,0 +1,216 @@
+-- Stores every UUID as binary(16) instead of its 36 character text form. uuid_to_bin without the swap flag keeps
+-- the canonical big endian byte order, so time ordered (version 7) ids stay ordered in the index. MySQL can't
+-- convert the text in place, each column is copied into a new binary one that then takes its name.
+
+alter table beer_order
+    drop foreign key beer_order_ibfk_1,
+    drop foreign key bos_shipment_fk;
+
+alter table beer_order_line
+    drop foreign key beer_order_line_ibfk_1,
+    drop foreign key beer_order_line_ibfk_2;
+
+alter table beer_category
+    drop foreign key pc_beer_id_fk,
+    drop foreign key pc_category_id_fk;
+
+alter table beer_order_shipment
+    drop foreign key bos_pk;
+
+drop index beer_name_id_idx on beer;
+
+-- beer
+
+alter table beer
+    add column id_bin binary(16) after id;
+
+update beer
+set id_bin = uuid_to_bin(id);
+
+alter table beer
+    drop primary key,
+    drop column id;
+
+alter table beer
+    change column id_bin id binary(16) not null,
+    add primary key (id);
+
+-- customer
+
+alter table customer
+    add column id_bin binary(16) after id;
+
+update customer
+set id_bin = uuid_to_bin(id);
+
+alter table customer
+    drop primary key,
+    drop column id;
+
+alter table customer
+    change column id_bin id binary(16) not null,
+    add primary key (id);
+
+-- category
+
+alter table category
+    add column id_bin binary(16) after id;
+
+update category
+set id_bin = uuid_to_bin(id);
+
+alter table category
+    drop primary key,
+    drop column id;
+
+alter table category
+    change column id_bin id binary(16) not null,
+    add primary key (id);
+
+-- beer_category
+
+alter table beer_category
+    add column beer_id_bin     binary(16) after beer_id,
+    add column category_id_bin binary(16) after category_id;
+
+update beer_category
+set beer_id_bin     = uuid_to_bin(beer_id),
+    category_id_bin = uuid_to_bin(category_id);
+
+alter table beer_category
+    drop primary key,
+    drop column beer_id,
+    drop column category_id;
+
+alter table beer_category
+    change column beer_id_bin beer_id binary(16) not null,
+    change column category_id_bin category_id binary(16) not null,
+    add primary key (beer_id, category_id);
+
+-- beer_order
+
+alter table beer_order
+    add column id_bin                     binary(16) after id,
+    add column customer_id_bin            binary(16) after customer_id,
+    add column beer_order_shipment_id_bin binary(16) after beer_order_shipment_id;
+
+update beer_order
+set id_bin                     = uuid_to_bin(id),
+    customer_id_bin            = uuid_to_bin(customer_id),
+    beer_order_shipment_id_bin = uuid_to_bin(beer_order_shipment_id);
+
+alter table beer_order
+    drop primary key,
+    drop column id,
+    drop column customer_id,
+    drop column beer_order_shipment_id;
+
+alter table beer_order
+    change column id_bin id binary(16) not null,
+    change column customer_id_bin customer_id binary(16),
+    change column beer_order_shipment_id_bin beer_order_shipment_id binary(16),
+    add primary key (id);
+
+-- beer_order_line
+
+alter table beer_order_line
+    add column id_bin            binary(16) after id,
+    add column beer_id_bin       binary(16) after beer_id,
+    add column beer_order_id_bin binary(16) after beer_order_id;
+
+update beer_order_line
+set id_bin            = uuid_to_bin(id),
+    beer_id_bin       = uuid_to_bin(beer_id),
+    beer_order_id_bin = uuid_to_bin(beer_order_id);
+
+alter table beer_order_line
+    drop primary key,
+    drop column id,
+    drop column beer_id,
+    drop column beer_order_id;
+
+alter table beer_order_line
+    change column id_bin id binary(16) not null,
+    change column beer_id_bin beer_id binary(16),
+    change column beer_order_id_bin beer_order_id binary(16),
+    add primary key (id);
+
+-- beer_order_shipment
+
+alter table beer_order_shipment
+    add column id_bin            binary(16) after id,
+    add column beer_order_id_bin binary(16) after beer_order_id;
+
+update beer_order_shipment
+set id_bin            = uuid_to_bin(id),
+    beer_order_id_bin = uuid_to_bin(beer_order_id);
+
+alter table beer_order_shipment
+    drop primary key,
+    drop column id,
+    drop column beer_order_id;
+
+alter table beer_order_shipment
+    change column id_bin id binary(16) not null,
+    change column beer_order_id_bin beer_order_id binary(16),
+    add primary key (id),
+    add unique (beer_order_id);
+
+-- beer_audit
+
+alter table beer_audit
+    add column audit_id_bin binary(16) after audit_id,
+    add column id_bin       binary(16) after id;
+
+update beer_audit
+set audit_id_bin = uuid_to_bin(audit_id),
+    id_bin       = uuid_to_bin(id);
+
+alter table beer_audit
+    drop primary key,
+    drop column audit_id,
+    drop column id;
+
+alter table beer_audit
+    change column audit_id_bin audit_id binary(16) not null,
+    change column id_bin id binary(16) not null,
+    add primary key (audit_id);
+
+-- outbox_event
+
+alter table outbox_event
+    add column id_bin           binary(16) after id,
+    add column aggregate_id_bin binary(16) after aggregate_id;
+
+update outbox_event
+set id_bin           = uuid_to_bin(id),
+    aggregate_id_bin = uuid_to_bin(aggregate_id);
+
+alter table outbox_event
+    drop primary key,
+    drop column id,
+    drop column aggregate_id;
+
+alter table outbox_event
+    change column id_bin id binary(16) not null,
+    change column aggregate_id_bin aggregate_id binary(16) not null,
+    add primary key (id);
+
+-- restore the foreign keys and indexes on the binary columns
+
+alter table beer_order
+    add constraint beer_order_customer_fk foreign key (customer_id) references customer (id),
+    add constraint bos_shipment_fk foreign key (beer_order_shipment_id) references beer_order_shipment (id);
+
+alter table beer_order_line
+    add constraint beer_order_line_beer_order_fk foreign key (beer_order_id) references beer_order (id),
+    add constraint beer_order_line_beer_fk foreign key (beer_id) references beer (id);
+
+alter table beer_category
+    add constraint pc_beer_id_fk foreign key (beer_id) references beer (id),
+    add constraint pc_category_id_fk foreign key (category_id) references category (id);
+
+alter table beer_order_shipment
+    add constraint bos_pk foreign key (beer_order_id) references beer_order (id);
+
+create index beer_name_id_idx on beer (beer_name, id);
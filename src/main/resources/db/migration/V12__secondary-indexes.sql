@@ -0,0 +1,5 @@
+-- the style listings filter on style and order by name, their keyset pages continue after (beer_name, id)
+create index beer_style_name_id_idx on beer (beer_style, beer_name, id);
+
+-- order listing pages, newest first
+create index beer_order_create_date_id_idx on beer_order (create_date desc, id desc);
@@ -0,0 +1,4 @@
+-- relays claim events while they wait for the broker, and stop retrying an event after too many failed sends
+alter table outbox_event
+    add column attempts      int not null default 0,
+    add column claimed_until datetime(6);
@@ -3,18 +3,20 @@ package guru.springframework.spring6restmvc.bootstrap;
 import guru.springframework.spring6restmvc.repositories.BeerOrderRepository;
 import guru.springframework.spring6restmvc.repositories.BeerRepository;
 import guru.springframework.spring6restmvc.repositories.CustomerRepository;
-import guru.springframework.spring6restmvc.services.BeerCsvService;
+import guru.springframework.spring6restmvc.services.BeerCsvImportService;
+import guru.springframework.spring6restmvc.services.BeerCsvImportServiceImpl;
 import guru.springframework.spring6restmvc.services.BeerCsvServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 @DataJpaTest
-@Import(BeerCsvServiceImpl.class)
+@Import({BeerCsvServiceImpl.class, BeerCsvImportServiceImpl.class})
 class BootstrapDataTest {
 
     @Autowired
@@ -22,15 +24,18 @@ class BootstrapDataTest {
     @Autowired
     CustomerRepository customerRepository;
     @Autowired
-    BeerCsvService beerCsvService;
+    BeerCsvImportService beerCsvImportService;
     @Autowired
     BeerOrderRepository beerOrderRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
 
     private BootstrapData bootstrapData;
 
     @BeforeEach
     void setUp() {
-        bootstrapData = new BootstrapData(beerRepository, customerRepository, beerCsvService, beerOrderRepository);
+        bootstrapData = new BootstrapData(beerRepository, customerRepository, beerCsvImportService, beerOrderRepository,
+                transactionTemplate);
     }
 
     @Test
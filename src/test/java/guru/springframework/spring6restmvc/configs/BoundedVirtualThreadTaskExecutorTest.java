@@ -0,0 +1,154 @@
+package guru.springframework.spring6restmvc.configs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BoundedVirtualThreadTaskExecutorTest {
+
+    SimpleMeterRegistry meterRegistry;
+    BoundedVirtualThreadTaskExecutor executor;
+    CountDownLatch release;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.close();
+    }
+
+    BoundedVirtualThreadTaskExecutor executor(int maxConcurrency, int queueCapacity,
+                                              BoundedVirtualThreadTaskExecutor.RejectionPolicy rejectionPolicy) {
+        AsyncExecutorProperties.Limit limit = new AsyncExecutorProperties.Limit();
+        limit.setMaxConcurrency(maxConcurrency);
+        limit.setQueueCapacity(queueCapacity);
+        limit.setRejectionPolicy(rejectionPolicy);
+        return new BoundedVirtualThreadTaskExecutor("test", limit, meterRegistry);
+    }
+
+    void awaitRelease() {
+        try {
+            release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void testConcurrencyIsLimited() throws InterruptedException {
+        executor = executor(4, 1000, BoundedVirtualThreadTaskExecutor.RejectionPolicy.ABORT);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(50);
+
+        for (int i = 0; i < 50; i++) {
+            executor.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(maxRunning.get()).isLessThanOrEqualTo(4);
+        assertThat(meterRegistry.get("executor.bounded.wait").tag("name", "test").timer().count()).isEqualTo(50);
+    }
+
+    @Test
+    void testAbortWhenQueueIsFull() {
+        executor = executor(1, 1, BoundedVirtualThreadTaskExecutor.RejectionPolicy.ABORT);
+        executor.execute(this::awaitRelease);
+        executor.execute(this::awaitRelease);
+
+        assertThrows(TaskRejectedException.class, () -> executor.execute(this::awaitRelease));
+        assertThat(meterRegistry.get("executor.bounded.queued").tag("name", "test").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("executor.bounded.rejected").tag("policy", "abort").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testDiscardWhenQueueIsFull() {
+        executor = executor(1, 1, BoundedVirtualThreadTaskExecutor.RejectionPolicy.DISCARD);
+        AtomicBoolean discardedRan = new AtomicBoolean();
+        executor.execute(this::awaitRelease);
+        executor.execute(this::awaitRelease);
+
+        executor.execute(() -> discardedRan.set(true));
+        release.countDown();
+
+        await().atMost(5, TimeUnit.SECONDS).untilAsserted(() ->
+                assertThat(meterRegistry.get("executor.bounded.active").tag("name", "test").gauge().value()).isZero());
+        assertThat(discardedRan).isFalse();
+        assertThat(meterRegistry.get("executor.bounded.rejected").tag("policy", "discard").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testDiscardCancelsSubmittedFutures() {
+        executor = executor(1, 1, BoundedVirtualThreadTaskExecutor.RejectionPolicy.DISCARD);
+        executor.execute(this::awaitRelease);
+        executor.execute(this::awaitRelease);
+
+        Future<?> submitted = executor.submit(() -> { });
+        CompletableFuture<Void> completable = executor.submitCompletable(() -> { });
+
+        assertThat(submitted).isCancelled();
+        assertThat(completable).isCancelled();
+        assertThat(meterRegistry.get("executor.bounded.rejected").tag("policy", "discard").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testSubmitCompletableCompletesWithResult() {
+        executor = executor(1, 1, BoundedVirtualThreadTaskExecutor.RejectionPolicy.ABORT);
+
+        assertThat(executor.submitCompletable(() -> "done")).succeedsWithin(5, TimeUnit.SECONDS).isEqualTo("done");
+        assertThat(executor.submitCompletable(() -> {
+            throw new IllegalStateException("failed");
+        })).failsWithin(5, TimeUnit.SECONDS)
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testCallerRunsOnceAPermitIsFree() {
+        executor = executor(1, 1, BoundedVirtualThreadTaskExecutor.RejectionPolicy.CALLER_RUNS);
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+        executor.execute(this::awaitRelease);
+        executor.execute(this::awaitRelease);
+
+        Thread.ofVirtual().start(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            release.countDown();
+        });
+        executor.execute(() -> ranOn.set(Thread.currentThread()));
+
+        assertThat(ranOn.get()).isSameAs(Thread.currentThread());
+    }
+}
@@ -0,0 +1,128 @@
+package guru.springframework.spring6restmvc.configs;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CacheEvictionsTest {
+
+    TaskScheduler taskScheduler;
+    Cache hibernateCache;
+    ReplicaDataSourceProperties replicaDataSourceProperties;
+    ReadYourWritesTracker readYourWritesTracker;
+    CacheEvictions cacheEvictions;
+
+    AtomicInteger evictions = new AtomicInteger();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        taskScheduler = mock(TaskScheduler.class);
+        hibernateCache = mock(Cache.class);
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        when(entityManagerFactory.getCache()).thenReturn(hibernateCache);
+        when(hibernateCache.unwrap(Cache.class)).thenReturn(hibernateCache);
+
+        replicaDataSourceProperties = new ReplicaDataSourceProperties();
+        replicaDataSourceProperties.setReadYourWritesWindow(Duration.ofSeconds(5));
+        readYourWritesTracker = new ReadYourWritesTracker(Duration.ofMinutes(1));
+
+        ObjectProvider<ReplicaDataSourceProperties> replicaProvider = mock(ObjectProvider.class);
+        when(replicaProvider.getIfAvailable()).thenAnswer(invocation -> replicaDataSourceProperties);
+        ObjectProvider<ReadYourWritesTracker> trackerProvider = mock(ObjectProvider.class);
+        when(trackerProvider.getIfAvailable()).thenAnswer(invocation -> readYourWritesTracker);
+
+        cacheEvictions = new CacheEvictions(taskScheduler, entityManagerFactory, replicaProvider, trackerProvider);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    void authenticate(String name) {
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(name, null, List.of()));
+    }
+
+    @Test
+    void testEvictsRightAwayOutsideTransaction() {
+        cacheEvictions.afterCommit(evictions::incrementAndGet);
+
+        assertThat(evictions).hasValue(1);
+        verify(taskScheduler, never()).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void testEvictsOnceCommitted() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        cacheEvictions.afterCommit(evictions::incrementAndGet);
+        assertThat(evictions).hasValue(0);
+
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        assertThat(evictions).hasValue(1);
+    }
+
+    @Test
+    void testRepeatsEvictionOnceReplicaCaughtUp() {
+        replicaDataSourceProperties.setEnabled(true);
+        Instant earliest = Instant.now().plusSeconds(5);
+
+        cacheEvictions.afterCommit(evictions::incrementAndGet);
+
+        ArgumentCaptor<Runnable> repeat = ArgumentCaptor.forClass(Runnable.class);
+        ArgumentCaptor<Instant> at = ArgumentCaptor.forClass(Instant.class);
+        verify(taskScheduler).schedule(repeat.capture(), at.capture());
+        assertThat(at.getValue()).isAfterOrEqualTo(earliest);
+        assertThat(evictions).hasValue(1);
+
+        repeat.getValue().run();
+        assertThat(evictions).hasValue(2);
+        verify(hibernateCache).evictQueryRegions();
+    }
+
+    @Test
+    void testRecentWriterBypassesCache() {
+        authenticate("alice");
+        assertThat(cacheEvictions.bypassCache()).isFalse();
+
+        readYourWritesTracker.recordWrite();
+        assertThat(cacheEvictions.bypassCache()).isTrue();
+
+        authenticate("bob");
+        assertThat(cacheEvictions.bypassCache()).isFalse();
+    }
+
+    @Test
+    void testCachesAreUsedWithoutReplica() {
+        readYourWritesTracker = null;
+        authenticate("alice");
+
+        assertThat(cacheEvictions.bypassCache()).isFalse();
+    }
+}
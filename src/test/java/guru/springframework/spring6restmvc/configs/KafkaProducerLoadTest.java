@@ -0,0 +1,118 @@
+package guru.springframework.spring6restmvc.configs;
+
+import guru.springframework.spring6restmvcapi.events.DrinkRequestEvent;
+import guru.springframework.spring6restmvcapi.models.BeerDTO;
+import guru.springframework.spring6restmvcapi.models.BeerOrderLineDTO;
+import guru.springframework.spring6restmvcapi.models.BeerStyle;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pushes drink requests through the producer with the {@code kafka-throughput} profile against the embedded
+ * broker, and checks the producer metrics come out through Micrometer and the actuator metrics endpoint.
+ */
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("kafka-throughput")
+@EmbeddedKafka(controlledShutdown = true, topics = KafkaProducerLoadTest.LOAD_TEST_TOPIC, partitions = 3, kraft = true)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class KafkaProducerLoadTest {
+
+    static final String LOAD_TEST_TOPIC = "producer.load.test";
+    static final int MESSAGE_COUNT = 20_000;
+
+    @Autowired
+    KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    WebApplicationContext webApplicationContext;
+
+    @Test
+    void testProducerThroughputAndMetrics() throws Exception {
+        List<UUID> beerOrderIds = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            beerOrderIds.add(UUID.randomUUID());
+        }
+
+        long start = System.nanoTime();
+        List<CompletableFuture<SendResult<String, Object>>> sends = new ArrayList<>(MESSAGE_COUNT);
+        for (int i = 0; i < MESSAGE_COUNT; i++) {
+            sends.add(kafkaTemplate.send(LOAD_TEST_TOPIC, beerOrderIds.get(i % beerOrderIds.size()).toString(),
+                    drinkRequest(i)));
+        }
+        CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).get(60, TimeUnit.SECONDS);
+        long elapsedNanos = System.nanoTime() - start;
+
+        log.info("Sent {} drink requests in {} ms, {} msg/s", MESSAGE_COUNT,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), MESSAGE_COUNT * 1_000_000_000L / elapsedNanos);
+
+        assertThat(sends).allSatisfy(send -> assertThat(send).isCompleted());
+        assertThat(meterRegistry.find("kafka.producer.record.send.total").functionCounters().stream()
+                .mapToDouble(FunctionCounter::count).sum()).isGreaterThanOrEqualTo(MESSAGE_COUNT);
+        // linger lets records share batches, lz4 shrinks the repetitive JSON
+        assertThat(maxGauge("kafka.producer.records.per.request.avg")).isGreaterThan(1);
+        assertThat(maxGauge("kafka.producer.batch.size.avg")).isGreaterThan(0);
+        assertThat(maxGauge("kafka.producer.compression.rate.avg")).isBetween(0.0, 1.0);
+
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        for (String metric : List.of("kafka.producer.record.send.rate", "kafka.producer.batch.size.avg",
+                "kafka.producer.request.latency.avg")) {
+            mockMvc.perform(get("/actuator/metrics/" + metric))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.name").value(metric));
+        }
+    }
+
+    double maxGauge(String name) {
+        return meterRegistry.find(name).gauges().stream()
+                .mapToDouble(Gauge::value)
+                .filter(value -> !Double.isNaN(value))
+                .max()
+                .orElse(Double.NaN);
+    }
+
+    DrinkRequestEvent drinkRequest(int i) {
+        return DrinkRequestEvent.builder()
+                .beerOrderLine(BeerOrderLineDTO.builder()
+                        .id(UUID.randomUUID())
+                        .orderQuantity(1 + i % 12)
+                        .beer(BeerDTO.builder()
+                                .id(UUID.randomUUID())
+                                .beerName("Load Test Beer " + i)
+                                .beerStyle(BeerStyle.values()[i % BeerStyle.values().length])
+                                .upc("0" + (100000 + i))
+                                .price(new BigDecimal("12.99"))
+                                .quantityOnHand(100)
+                                .build())
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,204 @@
+package guru.springframework.spring6restmvc.configs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two embedded H2 databases stand in for the primary and the replica, each with a {@code marker} row naming
+ * itself, so a query shows where it was routed.
+ */
+class ReadReplicaDataSourceConfigTest {
+
+    EmbeddedDatabase primary;
+    EmbeddedDatabase replica;
+    SimpleMeterRegistry meterRegistry;
+    ReplicaLagMonitor replicaLagMonitor;
+    DataSource dataSource;
+    JdbcTemplate jdbcTemplate;
+    TransactionTemplate readOnlyTransaction;
+    TransactionTemplate readWriteTransaction;
+
+    @BeforeEach
+    void setUp() {
+        primary = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        replica = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        new JdbcTemplate(primary).execute("create table marker (name varchar(16))");
+        new JdbcTemplate(primary).update("insert into marker values ('primary')");
+        new JdbcTemplate(replica).execute("create table marker (name varchar(16))");
+        new JdbcTemplate(replica).update("insert into marker values ('replica')");
+        new JdbcTemplate(replica).execute("create table replica_lag (seconds int)");
+        new JdbcTemplate(replica).update("insert into replica_lag values (0)");
+
+        ReplicaDataSourceProperties properties = new ReplicaDataSourceProperties();
+        properties.setLagQuery("select seconds from replica_lag");
+        properties.setLagColumn("seconds");
+        properties.setMaxLag(Duration.ofSeconds(2));
+        properties.setLagCheckInterval(Duration.ofMinutes(1));
+
+        meterRegistry = new SimpleMeterRegistry();
+        replicaLagMonitor = new ReplicaLagMonitor(replica, properties, meterRegistry, Clock.systemUTC());
+        ReadYourWritesTracker readYourWritesTracker = new ReadYourWritesTracker(Duration.ofMinutes(1));
+
+        dataSource = ReadReplicaDataSourceConfig.readWriteDataSource(primary, replica, replicaLagMonitor,
+                readYourWritesTracker, meterRegistry);
+        var transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        primary.shutdown();
+        replica.shutdown();
+    }
+
+    String marker() {
+        return jdbcTemplate.queryForObject("select name from marker", String.class);
+    }
+
+    <T> T readOnly(Supplier<T> work) {
+        return readOnlyTransaction.execute(status -> work.get());
+    }
+
+    <T> T readWrite(Supplier<T> work) {
+        return readWriteTransaction.execute(status -> work.get());
+    }
+
+    void replicaLag(Integer seconds) {
+        new JdbcTemplate(replica).update("update replica_lag set seconds = ?", seconds);
+        replicaLagMonitor.check();
+    }
+
+    void authenticate(String name) {
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(name, null, List.of()));
+    }
+
+    double routed(String reason) {
+        return meterRegistry.get("datasource.read.routing").tag("reason", reason).counter().count();
+    }
+
+    @Test
+    void testReadOnlyTransactionsReadFromReplica() {
+        replicaLagMonitor.check();
+
+        assertThat(readOnly(this::marker)).isEqualTo("replica");
+        assertThat(readWrite(this::marker)).isEqualTo("primary");
+        assertThat(marker()).isEqualTo("primary");
+        assertThat(routed("replica")).isEqualTo(1);
+    }
+
+    @Test
+    void testReadsGoToPrimaryBeforeLagIsKnown() {
+        assertThat(readOnly(this::marker)).isEqualTo("primary");
+        assertThat(routed("replica_lag")).isEqualTo(1);
+    }
+
+    @Test
+    void testReadsGoToPrimaryWhileReplicaLags() {
+        replicaLag(30);
+        assertThat(readOnly(this::marker)).isEqualTo("primary");
+        assertThat(meterRegistry.get("datasource.replica.lag").gauge().value()).isEqualTo(30);
+
+        replicaLag(1);
+        assertThat(readOnly(this::marker)).isEqualTo("replica");
+    }
+
+    @Test
+    void testReadsGoToPrimaryWhenReplicaIsNotReplicating() {
+        replicaLag(null);
+
+        assertThat(readOnly(this::marker)).isEqualTo("primary");
+        assertThat(meterRegistry.get("datasource.replica.lag").gauge().value()).isNaN();
+    }
+
+    @Test
+    void testReadsGoToPrimaryWhenLagCheckFails() {
+        replicaLagMonitor.check();
+        new JdbcTemplate(replica).execute("drop table replica_lag");
+        replicaLagMonitor.check();
+
+        assertThat(readOnly(this::marker)).isEqualTo("primary");
+    }
+
+    @Test
+    void testClientReadsItsOwnWrites() {
+        replicaLagMonitor.check();
+
+        authenticate("alice");
+        readWrite(() -> jdbcTemplate.update("update marker set name = 'primary'"));
+        assertThat(readOnly(this::marker)).isEqualTo("primary");
+        assertThat(routed("read_your_writes")).isEqualTo(1);
+
+        authenticate("bob");
+        assertThat(readOnly(this::marker)).isEqualTo("replica");
+    }
+
+    @Test
+    void testRolledBackWriteKeepsReadsOnReplica() {
+        replicaLagMonitor.check();
+
+        authenticate("alice");
+        readWriteTransaction.executeWithoutResult(status -> {
+            jdbcTemplate.update("update marker set name = 'primary'");
+            status.setRollbackOnly();
+        });
+
+        assertThat(readOnly(this::marker)).isEqualTo("replica");
+    }
+
+    @Test
+    void testJpaTransactionsAreRouted() {
+        LocalContainerEntityManagerFactoryBean entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactory.setDataSource(dataSource);
+        entityManagerFactory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactory.setPackagesToScan(getClass().getPackageName());
+        entityManagerFactory.afterPropertiesSet();
+
+        try {
+            EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory.getObject());
+            var transactionManager = new JpaTransactionManager(entityManagerFactory.getObject());
+            readOnlyTransaction = new TransactionTemplate(transactionManager);
+            readOnlyTransaction.setReadOnly(true);
+            readWriteTransaction = new TransactionTemplate(transactionManager);
+            Supplier<Object> marker = () -> entityManager.createNativeQuery("select name from marker").getSingleResult();
+            replicaLagMonitor.check();
+
+            assertThat(readOnly(marker)).isEqualTo("replica");
+            assertThat(readWrite(marker)).isEqualTo("primary");
+
+            authenticate("alice");
+            readWrite(() -> entityManager.createNativeQuery("update marker set name = 'primary'").executeUpdate());
+            assertThat(readOnly(marker)).isEqualTo("primary");
+            assertThat(routed("read_your_writes")).isEqualTo(1);
+        } finally {
+            entityManagerFactory.destroy();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package guru.springframework.spring6restmvc.configs;
+
+import guru.springframework.spring6restmvc.models.SlowQuerySummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlowQueryListenerTest {
+
+    EmbeddedDatabase database;
+    SimpleMeterRegistry meterRegistry;
+    SlowQueryLog slowQueryLog;
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        new JdbcTemplate(database).execute("create table marker (id int primary key, name varchar(16))");
+        new JdbcTemplate(database).update("insert into marker values (1, 'one'), (2, 'two'), (3, 'three')");
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    void recording(Duration threshold, double sampleRate, boolean explain) {
+        SlowQueryProperties properties = new SlowQueryProperties();
+        properties.setThreshold(threshold);
+        properties.setSampleRate(sampleRate);
+        properties.setExplain(explain);
+
+        // plans are taken on the calling thread, so they are there once the statement is recorded
+        slowQueryLog = new SlowQueryLog(properties, meterRegistry, Runnable::run);
+        slowQueryLog.registerDataSource("test", database);
+        jdbcTemplate = new JdbcTemplate(SlowQueryConfig.recordingDataSource("test", database,
+                new SlowQueryListener(slowQueryLog, properties)));
+    }
+
+    double recorded(String reason) {
+        return meterRegistry.get("jdbc.slow.queries").tag("reason", reason).counter().count();
+    }
+
+    @Test
+    void testSelectIsRecordedWithRowCount() {
+        recording(Duration.ZERO, 0, false);
+
+        jdbcTemplate.queryForList("select name from marker where id > ?", String.class, 1);
+        jdbcTemplate.queryForList("select name from marker where id > ?", String.class, 0);
+
+        List<SlowQuerySummary> top = slowQueryLog.top(10);
+        assertThat(top).hasSize(1);
+        assertThat(top.getFirst().getSql()).isEqualTo("select name from marker where id > ?");
+        assertThat(top.getFirst().getCount()).isEqualTo(2);
+        assertThat(top.getFirst().getSlowestRows()).isIn(2, 3);
+        assertThat(top.getFirst().getSlowestOrigin()).startsWith("thread:");
+        assertThat(top.getFirst().getPlan()).isEmpty();
+        assertThat(recorded("threshold")).isEqualTo(2);
+    }
+
+    @Test
+    void testUpdateIsRecordedWithUpdateCount() {
+        recording(Duration.ZERO, 0, false);
+
+        jdbcTemplate.update("update marker set name = 'x' where id in (1, 2)");
+
+        SlowQuerySummary summary = slowQueryLog.top(10).getFirst();
+        assertThat(summary.getSql()).isEqualTo("update marker set name = ? where id in (?)");
+        assertThat(summary.getSlowestRows()).isEqualTo(2);
+    }
+
+    @Test
+    void testFastStatementsAreNotRecorded() {
+        recording(Duration.ofMinutes(1), 0, false);
+
+        jdbcTemplate.queryForList("select name from marker", String.class);
+
+        assertThat(slowQueryLog.top(10)).isEmpty();
+    }
+
+    @Test
+    void testOnlyResultSetsOfRecordedSelectsAreProxied() {
+        recording(Duration.ofMinutes(1), 0, false);
+        jdbcTemplate.query("select name from marker", resultSet -> {
+            assertThat(resultSet).isNotInstanceOf(ProxyJdbcObject.class);
+        });
+
+        recording(Duration.ZERO, 0, false);
+        jdbcTemplate.query("select name from marker", resultSet -> {
+            assertThat(resultSet).isInstanceOf(ProxyJdbcObject.class);
+        });
+    }
+
+    @Test
+    void testFastStatementsAreSampled() {
+        recording(Duration.ofMinutes(1), 1, false);
+
+        jdbcTemplate.queryForList("select name from marker", String.class);
+
+        assertThat(slowQueryLog.top(10)).hasSize(1);
+        assertThat(recorded("sampled")).isEqualTo(1);
+        assertThat(recorded("threshold")).isZero();
+    }
+
+    @Test
+    void testSelectIsExplained() {
+        recording(Duration.ZERO, 0, true);
+
+        jdbcTemplate.queryForList("select name from marker where id = ?", String.class, 2);
+
+        assertThat(slowQueryLog.top(10).getFirst().getPlan()).isNotEmpty();
+    }
+
+    @Test
+    void testTopIsOrderedBySlowestExecutionAndLimited() {
+        recording(Duration.ZERO, 0, false);
+
+        jdbcTemplate.queryForList("select name from marker", String.class);
+        jdbcTemplate.queryForList("select id from marker", Integer.class);
+        jdbcTemplate.queryForList("select count(*) from marker", Long.class);
+
+        List<SlowQuerySummary> top = slowQueryLog.top(2);
+        assertThat(top).hasSize(2);
+        assertThat(top.get(0).getMaxMillis()).isGreaterThanOrEqualTo(top.get(1).getMaxMillis());
+
+        slowQueryLog.clear();
+        assertThat(slowQueryLog.top(10)).isEmpty();
+    }
+
+    @Test
+    void testNormalize() {
+        assertThat(SlowQueryListener.normalize("select b1_0.id from beer b1_0\n  where b1_0.beer_name = 'O''Hara' " +
+                "and b1_0.price > 12.5 and b1_0.id in (?, ?,?) fetch first 26 rows only"))
+                .isEqualTo("select b1_0.id from beer b1_0 where b1_0.beer_name = ? and b1_0.price > ? " +
+                        "and b1_0.id in (?) fetch first ? rows only");
+    }
+}
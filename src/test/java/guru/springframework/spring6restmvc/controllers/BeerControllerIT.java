@@ -28,10 +28,12 @@ import org.springframework.test.annotation.Rollback;
 import org.springframework.test.context.event.ApplicationEvents;
 import org.springframework.test.context.event.RecordApplicationEvents;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
@@ -45,7 +47,10 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -101,6 +106,22 @@ class BeerControllerIT {
                 .andExpect(status().isUnauthorized());
     }
 
+    @Test
+    void testActuatorMetricsRequireAuthentication() throws Exception {
+        mockMvc.perform(get("/actuator/metrics"))
+                .andExpect(status().isUnauthorized());
+
+        mockMvc.perform(get("/actuator/metrics")
+                        .with(jwtRequestPostProcessor))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testActuatorProbesAreOpen() throws Exception {
+        mockMvc.perform(get("/actuator/health/liveness"))
+                .andExpect(status().isOk());
+    }
+
     @Test
     void testListBeersByBeerStyleAndNameShowInventoryTruePage2() throws Exception {
         mockMvc.perform(get(BeerController.BEER_PATH)
@@ -178,6 +199,64 @@ class BeerControllerIT {
                 .andExpect(jsonPath("$.content.size()", is(336)));
     }
 
+    @Test
+    void testListBeersByCursor() throws Exception {
+        MvcResult firstSlice = mockMvc.perform(get(BeerController.BEER_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .queryParam("beerStyle", BeerStyle.IPA.name())
+                        .queryParam("cursor", "")
+                        .queryParam("pageSize", "500")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.size()", is(500)))
+                .andExpect(header().exists(BeerController.NEXT_CURSOR_HEADER))
+                .andReturn();
+
+        mockMvc.perform(get(BeerController.BEER_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .queryParam("beerStyle", BeerStyle.IPA.name())
+                        .queryParam("cursor", firstSlice.getResponse().getHeader(BeerController.NEXT_CURSOR_HEADER))
+                        .queryParam("pageSize", "500")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.size()", is(48)))
+                .andExpect(header().doesNotExist(BeerController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void testExportBeers() throws Exception {
+        MvcResult asyncResult = mockMvc.perform(get(BeerController.BEER_EXPORT_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // long enough for a full catalog instead of the container's 30 seconds
+        assertThat(asyncResult.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofMinutes(30).toMillis());
+
+        MvcResult result = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn();
+
+        String content = result.getResponse().getContentAsString();
+        assertThat(content).endsWith("}\n");
+        String[] lines = content.split("\n");
+        assertThat(lines).hasSize((int) beerRepository.count());
+
+        BeerDTO first = objectMapper.readValue(lines[0], BeerDTO.class);
+        assertThat(first.getId()).isNotNull();
+        assertThat(first.getBeerName()).isNotBlank();
+    }
+
+    @Test
+    void testListBeersByInvalidCursor() throws Exception {
+        mockMvc.perform(get(BeerController.BEER_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .queryParam("cursor", "not-a-cursor")
+                )
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testPatchBeerBadName() throws Exception {
         Beer beer = beerRepository.findAll().getFirst();
@@ -223,7 +302,7 @@ class BeerControllerIT {
         final String beerName = "UPDATED";
         beerDTO.setBeerName(beerName);
 
-        ResponseEntity<HttpHeaders> beerResponse = beerController.updateBeerById(beer.getId(), beerDTO);
+        ResponseEntity<HttpHeaders> beerResponse = beerController.updateBeerById(beer.getId(), null, beerDTO);
         assertThat(beerResponse.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
 
         Optional<Beer> beerUpdated = beerRepository.findById(beer.getId());
@@ -233,7 +312,7 @@ class BeerControllerIT {
 
     @Test
     void testUpdateBeerByIdNotFound() {
-        assertThrows(NotFoundException.class, () -> beerController.updateBeerById(UUID.randomUUID(), BeerDTO.builder().build()));
+        assertThrows(NotFoundException.class, () -> beerController.updateBeerById(UUID.randomUUID(), null, BeerDTO.builder().build()));
     }
 
     @Test
@@ -273,6 +352,36 @@ class BeerControllerIT {
         Assertions.assertEquals(1, applicationEvents.stream(BeerPatchedEvent.class).count());
     }
 
+    @Test
+    void testPatchBeerIfMatch() throws Exception {
+        Beer beer = beerRepository.findAll().getFirst();
+
+        String eTag = mockMvc.perform(get(BeerController.BEER_PATH_ID, beer.getId())
+                        .with(BeerControllerTest.jwtRequestPostProcessor))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + beer.getVersion() + "\""))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String updatedETag = mockMvc.perform(patch(BeerController.BEER_PATH_ID, beer.getId())
+                        .with(BeerControllerTest.jwtRequestPostProcessor)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("quantityOnHand", 42))))
+                .andExpect(status().isNoContent())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(updatedETag).isEqualTo("\"" + (beer.getVersion() + 1) + "\"");
+
+        // a second writer still holding the old tag loses
+        mockMvc.perform(patch(BeerController.BEER_PATH_ID, beer.getId())
+                        .with(BeerControllerTest.jwtRequestPostProcessor)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("quantityOnHand", 7))))
+                .andExpect(status().isPreconditionFailed());
+
+        assertThat(beerRepository.findById(beer.getId()).orElseThrow().getQuantityOnHand()).isEqualTo(42);
+    }
+
     @Test
     void testDeleteBeerMVC() throws Exception {
         Beer beer = beerRepository.save(Beer.builder().beerName("New beer")
@@ -289,6 +398,9 @@ class BeerControllerIT {
                 .andReturn();
 
         Assertions.assertEquals(1, applicationEvents.stream(BeerDeletedEvent.class).count());
+        // the audit of a delete needs the deleted beer, not just its id
+        assertThat(applicationEvents.stream(BeerDeletedEvent.class).findFirst().orElseThrow().getBeer().getBeerName())
+                .isEqualTo("New beer");
     }
 
     @Transactional
@@ -333,7 +445,7 @@ class BeerControllerIT {
     @Test
     void testGetBeerById() {
         Beer beer = beerRepository.findAll().getFirst();
-        BeerDTO beerDTO = beerController.getBeerById(beer.getId());
+        BeerDTO beerDTO = beerController.getBeerById(beer.getId()).getBody();
 
         assertThat(beerDTO).isNotNull();
     }
@@ -2,6 +2,7 @@ package guru.springframework.spring6restmvc.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import guru.springframework.spring6restmvc.configs.SpringSecurityConfig;
+import guru.springframework.spring6restmvc.services.BeerExportService;
 import guru.springframework.spring6restmvc.services.BeerService;
 import guru.springframework.spring6restmvc.services.BeerServiceImpl;
 import guru.springframework.spring6restmvcapi.models.BeerDTO;
@@ -12,7 +13,9 @@ import org.mockito.Captor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
@@ -45,6 +48,9 @@ class BeerControllerTest {
     @MockitoBean
     BeerService beerService;
 
+    @MockitoBean
+    BeerExportService beerExportService;
+
     @Autowired
     ObjectMapper objectMapper;
 
@@ -82,7 +88,8 @@ class BeerControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id", is(testBeer.getId().toString())))
-                .andExpect(jsonPath("$.beerName", is(testBeer.getBeerName())));
+                .andExpect(jsonPath("$.beerName", is(testBeer.getBeerName())))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + testBeer.getVersion() + "\""));
     }
 
     @Test
@@ -128,7 +135,7 @@ class BeerControllerTest {
     @Test
     void testUpdateBeerById() throws Exception {
         BeerDTO testBeer = beerServiceImpl.getAllBeers(null, null, false, 1, 25).getContent().getFirst();
-        given(beerService.updateBeerById(any(UUID.class), any(BeerDTO.class))).willReturn(Optional.of(testBeer));
+        given(beerService.updateBeerById(any(UUID.class), any(BeerDTO.class), any())).willReturn(Optional.of(testBeer));
 
         mockMvc.perform(put(BEER_PATH_ID, testBeer.getId())
                         .with(jwtRequestPostProcessor)
@@ -137,7 +144,50 @@ class BeerControllerTest {
                         .content(objectMapper.writeValueAsString(testBeer)))
                 .andExpect(status().isNoContent());
 
-        verify(beerService, times(1)).updateBeerById(any(UUID.class), any(BeerDTO.class));
+        verify(beerService, times(1)).updateBeerById(any(UUID.class), any(BeerDTO.class), isNull());
+    }
+
+    @Test
+    void testUpdateBeerByIdIfMatch() throws Exception {
+        BeerDTO testBeer = beerServiceImpl.getAllBeers(null, null, false, 1, 25).getContent().getFirst();
+        given(beerService.updateBeerById(any(UUID.class), any(BeerDTO.class), any())).willReturn(Optional.of(testBeer));
+
+        mockMvc.perform(put(BEER_PATH_ID, testBeer.getId())
+                        .with(jwtRequestPostProcessor)
+                        .header(HttpHeaders.IF_MATCH, "W/\"" + testBeer.getVersion() + "\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testBeer)))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + testBeer.getVersion() + "\""));
+
+        verify(beerService, times(1)).updateBeerById(any(UUID.class), any(BeerDTO.class), eq(testBeer.getVersion()));
+    }
+
+    @Test
+    void testUpdateBeerByIdStaleIfMatch() throws Exception {
+        BeerDTO testBeer = beerServiceImpl.getAllBeers(null, null, false, 1, 25).getContent().getFirst();
+        given(beerService.updateBeerById(any(UUID.class), any(BeerDTO.class), any()))
+                .willThrow(new OptimisticLockingFailureException("stale"));
+
+        mockMvc.perform(put(BEER_PATH_ID, testBeer.getId())
+                        .with(jwtRequestPostProcessor)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testBeer)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void testPatchBeerConflict() throws Exception {
+        BeerDTO testBeer = beerServiceImpl.getAllBeers(null, null, false, 1, 25).getContent().getFirst();
+        given(beerService.updateBeerPartiallyById(any(UUID.class), any(BeerDTO.class), any()))
+                .willThrow(new OptimisticLockingFailureException("retries exhausted"));
+
+        mockMvc.perform(patch(BEER_PATH_ID, testBeer.getId())
+                        .with(jwtRequestPostProcessor)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("quantityOnHand", 1))))
+                .andExpect(status().isConflict());
     }
 
     @Test
@@ -158,7 +208,7 @@ class BeerControllerTest {
         BeerDTO testBeer = beerServiceImpl.getAllBeers(null, null, false, 1, 25).getContent().getFirst();
         Map<String, Object> beerMap = new HashMap<>();
         beerMap.put("beerName", "UpdatedBeerName");
-        given(beerService.updateBeerPartiallyById(any(UUID.class), any(BeerDTO.class))).willReturn(Optional.of(testBeer));
+        given(beerService.updateBeerPartiallyById(any(UUID.class), any(BeerDTO.class), any())).willReturn(Optional.of(testBeer));
         mockMvc.perform(patch(BEER_PATH_ID, testBeer.getId())
                         .with(jwtRequestPostProcessor)
                         .accept(MediaType.APPLICATION_JSON)
@@ -166,7 +216,7 @@ class BeerControllerTest {
                         .content(objectMapper.writeValueAsString(beerMap))
                 )
                 .andExpect(status().isNoContent());
-        verify(beerService, times(1)).updateBeerPartiallyById(captorUUID.capture(), captorBeer.capture());
+        verify(beerService, times(1)).updateBeerPartiallyById(captorUUID.capture(), captorBeer.capture(), isNull());
         assertThat(testBeer.getId()).isEqualTo(captorUUID.getValue());
         assertThat(beerMap.get("beerName")).isEqualTo(captorBeer.getValue().getBeerName());
     }
@@ -199,6 +249,6 @@ class BeerControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.length()", is(1)));
 
-        verify(beerService, never()).updateBeerById(any(UUID.class), any(BeerDTO.class));
+        verify(beerService, never()).updateBeerById(any(UUID.class), any(BeerDTO.class), any());
     }
 }
\ No newline at end of file
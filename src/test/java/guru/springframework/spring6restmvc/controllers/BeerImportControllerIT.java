@@ -0,0 +1,125 @@
+package guru.springframework.spring6restmvc.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.spring6restmvc.entities.Beer;
+import guru.springframework.spring6restmvc.models.BeerCsvImportProgress;
+import guru.springframework.spring6restmvc.repositories.BeerRepository;
+import guru.springframework.spring6restmvc.services.BeerListCache;
+import guru.springframework.spring6restmvc.services.BeerSearchIndex;
+import guru.springframework.spring6restmvcapi.models.BeerStyle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static guru.springframework.spring6restmvc.controllers.BeerControllerTest.jwtRequestPostProcessor;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+class BeerImportControllerIT {
+
+    static final String BEER_NAME_PREFIX = "Import Test Lager ";
+
+    @Autowired
+    WebApplicationContext webApplicationContext;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    BeerSearchIndex beerSearchIndex;
+
+    @Autowired
+    BeerListCache beerListCache;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).apply(springSecurity()).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        List<Beer> importedBeers = beerRepository.findAll().stream()
+                .filter(beer -> beer.getBeerName().startsWith(BEER_NAME_PREFIX))
+                .toList();
+        beerRepository.deleteAll(importedBeers);
+        beerSearchIndex.rebuild();
+        beerListCache.clear();
+    }
+
+    @Test
+    void testImportBeers() throws Exception {
+        long beerCount = beerRepository.count();
+
+        StringBuilder csv = new StringBuilder("\"row\",\"count.x\",\"abv\",\"ibu\",\"id\",\"beer\",\"style\",\"brewery_id\","
+                + "\"ounces\",\"style2\",\"count.y\",\"brewery\",\"city\",\"state\",\"label\"\n");
+        for (int i = 1; i <= 1200; i++) {
+            csv.append("\"").append(i).append("\",").append(i).append(",0.05,NA,").append(i).append(",\"")
+                    .append(BEER_NAME_PREFIX).append(i).append("\",\"American Pale Lager\",1,12,NA,1,\"Brewery\",\"City\",\"ST\",\"Label\"\n");
+        }
+        csv.append("\"1201\",1201,0.05,NA,1201,\"\",\"American Pale Lager\",1,12,NA,1,\"Brewery\",\"City\",\"ST\",\"Label\"\n");
+
+        MockMultipartFile file = new MockMultipartFile("file", "beers.csv", "text/csv",
+                csv.toString().getBytes(StandardCharsets.UTF_8));
+
+        MvcResult result = mockMvc.perform(multipart(BeerImportController.BEER_IMPORT_PATH)
+                        .file(file)
+                        .with(jwtRequestPostProcessor))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andReturn();
+
+        UUID importId = objectMapper.readValue(result.getResponse().getContentAsString(), BeerCsvImportProgress.class)
+                .getImportId();
+
+        await().atMost(15, TimeUnit.SECONDS).pollDelay(100, TimeUnit.MILLISECONDS).untilAsserted(() -> {
+            String progress = mockMvc.perform(get(BeerImportController.BEER_IMPORT_PATH_ID, importId)
+                            .with(jwtRequestPostProcessor))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            assertThat(objectMapper.readValue(progress, BeerCsvImportProgress.class).getStatus())
+                    .isEqualTo(BeerCsvImportProgress.Status.COMPLETED);
+        });
+
+        BeerCsvImportProgress progress = objectMapper.readValue(mockMvc.perform(get(BeerImportController.BEER_IMPORT_PATH_ID, importId)
+                        .with(jwtRequestPostProcessor))
+                .andReturn().getResponse().getContentAsString(), BeerCsvImportProgress.class);
+
+        assertThat(progress.getRowsRead()).isEqualTo(1201);
+        assertThat(progress.getRowsImported()).isEqualTo(1200);
+        assertThat(progress.getRowsSkipped()).isEqualTo(1);
+        assertThat(beerRepository.count()).isEqualTo(beerCount + 1200);
+        assertThat(beerRepository.findAllByBeerStyle(BeerStyle.LAGER, null).getContent())
+                .anyMatch(beer -> beer.getBeerName().equals(BEER_NAME_PREFIX + 1200));
+    }
+
+    @Test
+    void testGetImportNotFound() throws Exception {
+        mockMvc.perform(get(BeerImportController.BEER_IMPORT_PATH_ID, UUID.randomUUID())
+                        .with(jwtRequestPostProcessor))
+                .andExpect(status().isNotFound());
+    }
+}
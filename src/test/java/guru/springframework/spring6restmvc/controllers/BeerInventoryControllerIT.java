@@ -0,0 +1,236 @@
+package guru.springframework.spring6restmvc.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.spring6restmvc.entities.Beer;
+import guru.springframework.spring6restmvc.models.BeerInventoryAdjustment;
+import guru.springframework.spring6restmvc.models.BeerInventoryResult;
+import guru.springframework.spring6restmvc.repositories.BeerRepository;
+import guru.springframework.spring6restmvc.services.BeerInventoryService;
+import guru.springframework.spring6restmvc.services.BeerService;
+import guru.springframework.spring6restmvcapi.models.BeerStyle;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static guru.springframework.spring6restmvc.controllers.BeerControllerTest.jwtRequestPostProcessor;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.core.Is.is;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+class BeerInventoryControllerIT {
+
+    @Autowired
+    WebApplicationContext webApplicationContext;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    BeerService beerService;
+
+    @Autowired
+    BeerInventoryService beerInventoryService;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    MockMvc mockMvc;
+
+    Beer beer;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).apply(springSecurity()).build();
+        beer = beerRepository.save(Beer.builder()
+                .beerName("Inventory Test Lager")
+                .beerStyle(BeerStyle.LAGER)
+                .upc("123")
+                .price(BigDecimal.TEN)
+                .quantityOnHand(10)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        beerRepository.deleteById(beer.getId());
+    }
+
+    @Test
+    void testAdjustInventory() throws Exception {
+        // cached before the adjustment, must not be served afterwards
+        assertThat(beerService.getBeerById(beer.getId()).orElseThrow().getQuantityOnHand()).isEqualTo(10);
+
+        mockMvc.perform(post(BeerInventoryController.BEER_INVENTORY_PATH_ID, beer.getId())
+                        .with(jwtRequestPostProcessor)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("delta", -4))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is("ADJUSTED")))
+                .andExpect(jsonPath("$.quantityOnHand", is(6)));
+
+        assertThat(beerService.getBeerById(beer.getId()).orElseThrow().getQuantityOnHand()).isEqualTo(6);
+        assertThat(beerRepository.findById(beer.getId()).orElseThrow().getVersion()).isEqualTo(beer.getVersion() + 1);
+    }
+
+    @Test
+    void testAdjustInventoryKeepsOtherBeersCached() {
+        Beer otherBeer = beerRepository.findAllByBeerStyle(BeerStyle.IPA, PageRequest.of(0, 1)).getContent().getFirst();
+        beerRepository.findById(otherBeer.getId());
+        assertThat(entityManagerFactory.getCache().contains(Beer.class, otherBeer.getId())).isTrue();
+
+        beerInventoryService.adjustInventory(beer.getId(), -4);
+
+        assertThat(entityManagerFactory.getCache().contains(Beer.class, otherBeer.getId())).isTrue();
+    }
+
+    @Test
+    void testAdjustInventoryInvalidatesETag() throws Exception {
+        String eTag = mockMvc.perform(get(BeerController.BEER_PATH_ID, beer.getId())
+                        .with(jwtRequestPostProcessor))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        beerInventoryService.adjustInventory(beer.getId(), -4);
+
+        // the client's representation still shows the old stock, writing it back would undo the adjustment
+        mockMvc.perform(put(BeerController.BEER_PATH_ID, beer.getId())
+                        .with(jwtRequestPostProcessor)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("beerName", "Inventory Test Lager",
+                                "beerStyle", BeerStyle.LAGER, "upc", "123", "price", BigDecimal.TEN, "quantityOnHand", 10))))
+                .andExpect(status().isPreconditionFailed());
+
+        assertThat(beerRepository.findById(beer.getId()).orElseThrow().getQuantityOnHand()).isEqualTo(6);
+    }
+
+    @Test
+    void testAdjustInventoryConflictsWithStaleUpdate() {
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            Beer staleBeer = beerRepository.findById(beer.getId()).orElseThrow();
+
+            CompletableFuture.runAsync(() -> beerInventoryService.adjustInventory(beer.getId(), -4)).join();
+
+            staleBeer.setBeerName("Renamed Inventory Test Lager");
+            beerRepository.saveAndFlush(staleBeer);
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        Beer savedBeer = beerRepository.findById(beer.getId()).orElseThrow();
+        assertThat(savedBeer.getQuantityOnHand()).isEqualTo(6);
+        assertThat(savedBeer.getBeerName()).isEqualTo("Inventory Test Lager");
+    }
+
+    @Test
+    void testAdjustInventoryInsufficientStock() throws Exception {
+        mockMvc.perform(post(BeerInventoryController.BEER_INVENTORY_PATH_ID, beer.getId())
+                        .with(jwtRequestPostProcessor)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("delta", -11))))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status", is("INSUFFICIENT_STOCK")))
+                .andExpect(jsonPath("$.quantityOnHand", is(10)));
+
+        assertThat(beerRepository.findById(beer.getId()).orElseThrow().getQuantityOnHand()).isEqualTo(10);
+    }
+
+    @Test
+    void testAdjustInventoryNotFound() throws Exception {
+        mockMvc.perform(post(BeerInventoryController.BEER_INVENTORY_PATH_ID, UUID.randomUUID())
+                        .with(jwtRequestPostProcessor)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("delta", 1))))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testAdjustInventories() throws Exception {
+        List<BeerInventoryAdjustment> adjustments = List.of(
+                BeerInventoryAdjustment.builder().beerId(beer.getId()).delta(5).build(),
+                BeerInventoryAdjustment.builder().beerId(beer.getId()).delta(-20).build(),
+                BeerInventoryAdjustment.builder().beerId(UUID.randomUUID()).delta(1).build(),
+                BeerInventoryAdjustment.builder().beerId(beer.getId()).delta(-15).build());
+
+        mockMvc.perform(post(BeerInventoryController.BEER_INVENTORY_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(adjustments)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(4)))
+                .andExpect(jsonPath("$[0].status", is("ADJUSTED")))
+                .andExpect(jsonPath("$[0].quantityOnHand", is(15)))
+                .andExpect(jsonPath("$[1].status", is("INSUFFICIENT_STOCK")))
+                .andExpect(jsonPath("$[2].status", is("NOT_FOUND")))
+                .andExpect(jsonPath("$[3].status", is("ADJUSTED")))
+                .andExpect(jsonPath("$[3].quantityOnHand", is(0)));
+
+        assertThat(beerRepository.findById(beer.getId()).orElseThrow().getQuantityOnHand()).isZero();
+    }
+
+    @Test
+    void testAdjustInventoriesResultsInRequestOrder() {
+        Beer otherBeer = beerRepository.save(Beer.builder()
+                .beerName("Inventory Test Stout")
+                .beerStyle(BeerStyle.STOUT)
+                .upc("456")
+                .price(BigDecimal.TEN)
+                .quantityOnHand(10)
+                .build());
+        try {
+            boolean beerFirst = beer.getId().compareTo(otherBeer.getId()) < 0;
+            Beer laterBeer = beerFirst ? otherBeer : beer;
+            Beer earlierBeer = beerFirst ? beer : otherBeer;
+
+            // applied in beer id order, reported in request order
+            List<BeerInventoryResult> results = beerInventoryService.adjustInventory(List.of(
+                    BeerInventoryAdjustment.builder().beerId(laterBeer.getId()).delta(1).build(),
+                    BeerInventoryAdjustment.builder().beerId(null).delta(1).build(),
+                    BeerInventoryAdjustment.builder().beerId(earlierBeer.getId()).delta(2).build()));
+
+            assertThat(results).extracting(BeerInventoryResult::getBeerId)
+                    .containsExactly(laterBeer.getId(), null, earlierBeer.getId());
+            assertThat(results).extracting(BeerInventoryResult::getQuantityOnHand)
+                    .containsExactly(11, null, 12);
+        } finally {
+            beerRepository.deleteById(otherBeer.getId());
+        }
+    }
+
+    @Test
+    void testAdjustInventoriesWithoutDelta() throws Exception {
+        mockMvc.perform(post(BeerInventoryController.BEER_INVENTORY_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(Map.of("beerId", beer.getId())))))
+                .andExpect(status().isBadRequest());
+    }
+}
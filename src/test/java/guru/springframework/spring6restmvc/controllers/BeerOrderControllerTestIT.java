@@ -11,19 +11,24 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 
 import static guru.springframework.spring6restmvc.controllers.BeerControllerTest.jwtRequestPostProcessor;
 import static guru.springframework.spring6restmvc.controllers.BeerOrderController.BEER_ORDER_PATH;
 import static guru.springframework.spring6restmvc.controllers.BeerOrderController.BEER_ORDER_PATH_ID;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -95,6 +100,148 @@ class BeerOrderControllerTestIT {
                 .andExpect(header().exists("Location"));
     }
 
+    @Test
+    void testCreateBeerOrderWithMultipleLines() throws Exception {
+        val customer = customerRepository.findAll().getFirst();
+        val beers = beerRepository.findAll(PageRequest.of(0, 20)).getContent();
+
+        Set<BeerOrderLineCreateDTO> beerOrderLines = new HashSet<>();
+        beers.forEach(beer -> beerOrderLines.add(BeerOrderLineCreateDTO.builder()
+                .beerId(beer.getId())
+                .orderQuantity(2)
+                .build()));
+
+        val beerOrderCreateDto = BeerOrderCreateDTO.builder()
+                .customerId(customer.getId())
+                .beerOrderLines(beerOrderLines)
+                .build();
+
+        MvcResult result = mockMvc.perform(post(BEER_ORDER_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(beerOrderCreateDto)))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        mockMvc.perform(get(result.getResponse().getHeader("Location"))
+                        .with(jwtRequestPostProcessor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.beerOrderLines.size()", is(20)));
+    }
+
+    @Test
+    void testCreateBeerOrderWithUnknownBeer() throws Exception {
+        val customer = customerRepository.findAll().getFirst();
+        val beer = beerRepository.findAll().getFirst();
+
+        val beerOrderCreateDto = BeerOrderCreateDTO.builder()
+                .customerId(customer.getId())
+                .beerOrderLines(Set.of(
+                        BeerOrderLineCreateDTO.builder().beerId(beer.getId()).orderQuantity(1).build(),
+                        BeerOrderLineCreateDTO.builder().beerId(UUID.randomUUID()).orderQuantity(1).build()))
+                .build();
+
+        long orderCount = beerOrderRepository.count();
+
+        mockMvc.perform(post(BEER_ORDER_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(beerOrderCreateDto)))
+                .andExpect(status().isNotFound());
+
+        assertEquals(orderCount, beerOrderRepository.count());
+    }
+
+    @Test
+    void testCreateBeerOrdersBulkNdjson() throws Exception {
+        val customer = customerRepository.findAll().getFirst();
+        val beer = beerRepository.findAll().getFirst();
+
+        StringBuilder ndjson = new StringBuilder();
+        for (UUID beerId : List.of(beer.getId(), UUID.randomUUID(), beer.getId())) {
+            ndjson.append(objectMapper.writeValueAsString(BeerOrderCreateDTO.builder()
+                            .customerId(customer.getId())
+                            .beerOrderLines(Set.of(BeerOrderLineCreateDTO.builder().beerId(beerId).orderQuantity(1).build()))
+                            .build()))
+                    .append('\n');
+        }
+
+        mockMvc.perform(post(BeerOrderController.BEER_ORDER_BULK_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .contentType(MediaType.APPLICATION_NDJSON_VALUE)
+                        .content(ndjson.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received", is(3)))
+                .andExpect(jsonPath("$.created", is(2)))
+                .andExpect(jsonPath("$.rejected", is(1)))
+                .andExpect(jsonPath("$.results[1].status", is("REJECTED")));
+    }
+
+    @Test
+    void testCreateBeerOrdersBulkRejectsUnmappableOrder() throws Exception {
+        val customer = customerRepository.findAll().getFirst();
+        val beer = beerRepository.findAll().getFirst();
+
+        String validOrder = objectMapper.writeValueAsString(BeerOrderCreateDTO.builder()
+                .customerId(customer.getId())
+                .beerOrderLines(Set.of(BeerOrderLineCreateDTO.builder().beerId(beer.getId()).orderQuantity(1).build()))
+                .build());
+        String ndjson = validOrder + "\n{\"customerId\": \"not-a-uuid\"}\n" + validOrder + "\n";
+
+        mockMvc.perform(post(BeerOrderController.BEER_ORDER_BULK_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .contentType(MediaType.APPLICATION_NDJSON_VALUE)
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received", is(3)))
+                .andExpect(jsonPath("$.created", is(2)))
+                .andExpect(jsonPath("$.rejected", is(1)))
+                .andExpect(jsonPath("$.error").doesNotExist())
+                .andExpect(jsonPath("$.results[1].status", is("REJECTED")))
+                .andExpect(jsonPath("$.results[2].status", is("CREATED")));
+    }
+
+    @Test
+    void testCreateBeerOrdersBulkStopsAtBrokenJson() throws Exception {
+        val customer = customerRepository.findAll().getFirst();
+        val beer = beerRepository.findAll().getFirst();
+
+        String validOrder = objectMapper.writeValueAsString(BeerOrderCreateDTO.builder()
+                .customerId(customer.getId())
+                .beerOrderLines(Set.of(BeerOrderLineCreateDTO.builder().beerId(beer.getId()).orderQuantity(1).build()))
+                .build());
+
+        mockMvc.perform(post(BeerOrderController.BEER_ORDER_BULK_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .contentType(MediaType.APPLICATION_NDJSON_VALUE)
+                        .content(validOrder + "\n{\"customerId\": \n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received", is(1)))
+                .andExpect(jsonPath("$.created", is(1)))
+                .andExpect(jsonPath("$.error").exists());
+    }
+
+    @Test
+    void testCreateBeerOrdersBulkJsonArray() throws Exception {
+        val customer = customerRepository.findAll().getFirst();
+        val beer = beerRepository.findAll().getFirst();
+
+        val beerOrderCreateDto = BeerOrderCreateDTO.builder()
+                .customerId(customer.getId())
+                .beerOrderLines(Set.of(BeerOrderLineCreateDTO.builder().beerId(beer.getId()).orderQuantity(1).build()))
+                .build();
+
+        mockMvc.perform(post(BeerOrderController.BEER_ORDER_BULK_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(List.of(beerOrderCreateDto, beerOrderCreateDto))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created", is(2)))
+                .andExpect(jsonPath("$.results[0].beerOrderId").exists());
+    }
+
     @Test
     @Transactional
     void testUpdateBeerOrder() throws Exception {
@@ -0,0 +1,53 @@
+package guru.springframework.spring6restmvc.entities;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeOrderedUuidGeneratorTest {
+
+    @Test
+    void testVersionAndVariant() {
+        UUID uuid = TimeOrderedUuidGenerator.nextUuid();
+
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+    }
+
+    @Test
+    void testTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID uuid = TimeOrderedUuidGenerator.nextUuid();
+
+        assertThat(uuid.getMostSignificantBits() >>> 16).isGreaterThanOrEqualTo(before);
+    }
+
+    @Test
+    void testBytesAndTextIncreaseInCreationOrder() {
+        List<UUID> uuids = IntStream.range(0, 100_000)
+                .mapToObj(i -> TimeOrderedUuidGenerator.nextUuid())
+                .toList();
+
+        Set<UUID> distinct = new HashSet<>(uuids);
+        assertThat(distinct).hasSize(uuids.size());
+        for (int i = 1; i < uuids.size(); i++) {
+            assertThat(Arrays.compareUnsigned(bytes(uuids.get(i - 1)), bytes(uuids.get(i)))).isNegative();
+            assertThat(uuids.get(i - 1).toString()).isLessThan(uuids.get(i).toString());
+        }
+    }
+
+    private static byte[] bytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+}
@@ -0,0 +1,85 @@
+package guru.springframework.spring6restmvc.listeners;
+
+import guru.springframework.spring6restmvc.configs.KafkaConfig;
+import guru.springframework.spring6restmvcapi.events.OrderPlacedEvent;
+import guru.springframework.spring6restmvcapi.models.BeerDTO;
+import guru.springframework.spring6restmvcapi.models.BeerOrderDTO;
+import guru.springframework.spring6restmvcapi.models.BeerOrderLineDTO;
+import guru.springframework.spring6restmvcapi.models.BeerStyle;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * A batch whose drink requests the broker doesn't take is retried until it does, instead of being committed past
+ * once the container's error handler runs out of attempts.
+ */
+@SpringBootTest(properties = {"app.kafka.batch-retry.initial-interval=10ms", "app.kafka.batch-retry.max-interval=50ms"})
+@EmbeddedKafka(controlledShutdown = true, topics = {KafkaConfig.ORDER_PLACED_TOPIC}, partitions = 1, kraft = true)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class DrinkSplitterRedeliveryTest {
+
+    // more than the nine retries of the container's default error handler
+    static final int FAILED_SENDS = 15;
+
+    @MockitoSpyBean
+    KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Autowired
+    KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+
+    @Autowired
+    DrinkListenerKafkaConsumer drinkListenerKafkaConsumer;
+
+    @Test
+    void testFailedBatchIsRedeliveredUntilSent() {
+        kafkaListenerEndpointRegistry.getListenerContainers()
+                .forEach(container -> ContainerTestUtils.waitForAssignment(container, 1));
+
+        AtomicInteger attempts = new AtomicInteger();
+        doAnswer(invocation -> attempts.incrementAndGet() <= FAILED_SENDS
+                ? CompletableFuture.failedFuture(new KafkaException("broker unavailable"))
+                : invocation.callRealMethod())
+                .when(kafkaTemplate).send(eq(KafkaConfig.DRINK_REQUEST_COOL_TOPIC), anyString(), any());
+
+        UUID beerOrderId = UUID.randomUUID();
+        kafkaTemplate.send(KafkaConfig.ORDER_PLACED_TOPIC, beerOrderId.toString(), OrderPlacedEvent.builder()
+                .beerOrderDTO(BeerOrderDTO.builder()
+                        .id(beerOrderId)
+                        .beerOrderLines(Set.of(BeerOrderLineDTO.builder()
+                                .id(UUID.randomUUID())
+                                .beer(BeerDTO.builder()
+                                        .id(UUID.randomUUID())
+                                        .beerName("Test Beer")
+                                        .beerStyle(BeerStyle.IPA)
+                                        .build())
+                                .build()))
+                        .build())
+                .build());
+
+        await().atMost(30, TimeUnit.SECONDS).pollDelay(100, TimeUnit.MILLISECONDS)
+                .until(drinkListenerKafkaConsumer.coolMessageCounter::get, greaterThan(0));
+        assertThat(attempts).hasValueGreaterThan(FAILED_SENDS);
+    }
+}
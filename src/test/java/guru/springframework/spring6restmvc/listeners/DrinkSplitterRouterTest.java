@@ -0,0 +1,150 @@
+package guru.springframework.spring6restmvc.listeners;
+
+import guru.springframework.spring6restmvc.configs.DrinkRoutingProperties;
+import guru.springframework.spring6restmvc.configs.KafkaConfig;
+import guru.springframework.spring6restmvcapi.events.OrderPlacedEvent;
+import guru.springframework.spring6restmvcapi.models.BeerDTO;
+import guru.springframework.spring6restmvcapi.models.BeerOrderDTO;
+import guru.springframework.spring6restmvcapi.models.BeerOrderLineDTO;
+import guru.springframework.spring6restmvcapi.models.BeerStyle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.SendResult;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class DrinkSplitterRouterTest {
+
+    KafkaTemplate<String, Object> kafkaTemplate;
+    SimpleMeterRegistry meterRegistry;
+    DrinkRouteTable drinkRouteTable;
+    DrinkSplitterRouter drinkSplitterRouter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        kafkaTemplate = mock(KafkaTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        drinkRouteTable = new DrinkRouteTable(new DrinkRoutingProperties());
+        drinkSplitterRouter = new DrinkSplitterRouter(kafkaTemplate, drinkRouteTable, meterRegistry, Duration.ofMillis(500));
+    }
+
+    OrderPlacedEvent orderPlacedEvent(UUID beerOrderId, BeerStyle... beerStyles) {
+        return OrderPlacedEvent.builder()
+                .beerOrderDTO(BeerOrderDTO.builder()
+                        .id(beerOrderId)
+                        .beerOrderLines(Arrays.stream(beerStyles)
+                                .map(beerStyle -> BeerOrderLineDTO.builder()
+                                        .id(UUID.randomUUID())
+                                        .beer(BeerDTO.builder()
+                                                .id(UUID.randomUUID())
+                                                .beerName("Test Beer")
+                                                .beerStyle(beerStyle)
+                                                .build())
+                                        .build())
+                                .collect(Collectors.toSet()))
+                        .build())
+                .build();
+    }
+
+    List<ConsumerRecord<String, OrderPlacedEvent>> records(OrderPlacedEvent... orderPlacedEvents) {
+        return IntStream.range(0, orderPlacedEvents.length)
+                .mapToObj(i -> new ConsumerRecord<String, OrderPlacedEvent>(KafkaConfig.ORDER_PLACED_TOPIC, 0, i,
+                        null, orderPlacedEvents[i]))
+                .toList();
+    }
+
+    @Test
+    void testDrinkRequestsKeyedByOrderId() {
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        UUID beerOrderId = UUID.randomUUID();
+
+        drinkSplitterRouter.receive(orderPlacedEvent(beerOrderId, BeerStyle.LAGER, BeerStyle.GOSE, BeerStyle.IPA)).join();
+
+        verify(kafkaTemplate).send(eq(KafkaConfig.DRINK_REQUEST_ICE_COLD_TOPIC), eq(beerOrderId.toString()), any());
+        verify(kafkaTemplate).send(eq(KafkaConfig.DRINK_REQUEST_COLD_TOPIC), eq(beerOrderId.toString()), any());
+        verify(kafkaTemplate).send(eq(KafkaConfig.DRINK_REQUEST_COOL_TOPIC), eq(beerOrderId.toString()), any());
+        assertThat(meterRegistry.get("drink.splitter.send")
+                .tag("topic", KafkaConfig.DRINK_REQUEST_COOL_TOPIC).timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testPilsnerRoutedIceCold() {
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        drinkSplitterRouter.receive(orderPlacedEvent(UUID.randomUUID(), BeerStyle.PILSNER)).join();
+
+        verify(kafkaTemplate).send(eq(KafkaConfig.DRINK_REQUEST_ICE_COLD_TOPIC), anyString(), any());
+    }
+
+    @Test
+    void testUnroutedStyleSentToFallbackTopic() {
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        DrinkRoutingProperties drinkRoutingProperties = new DrinkRoutingProperties();
+        drinkRoutingProperties.setRoutes(Map.of(BeerStyle.LAGER, "drink.request.frozen"));
+        drinkRouteTable.update(drinkRoutingProperties);
+
+        drinkSplitterRouter.receive(orderPlacedEvent(UUID.randomUUID(), BeerStyle.LAGER, BeerStyle.STOUT)).join();
+
+        verify(kafkaTemplate).send(eq("drink.request.frozen"), anyString(), any());
+        verify(kafkaTemplate).send(eq(KafkaConfig.DRINK_REQUEST_UNROUTED_TOPIC), anyString(), any());
+        assertThat(meterRegistry.get("drink.splitter.unrouted").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testBatchAcknowledgedOnlyAfterAllSendsComplete() throws Exception {
+        CompletableFuture<SendResult<String, Object>> pending = new CompletableFuture<>();
+        when(kafkaTemplate.send(anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(pending);
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+
+        CompletableFuture<Void> batch = CompletableFuture.runAsync(() -> drinkSplitterRouter.receiveBatch(records(
+                orderPlacedEvent(UUID.randomUUID(), BeerStyle.LAGER),
+                orderPlacedEvent(UUID.randomUUID(), BeerStyle.STOUT)), acknowledgment));
+
+        Thread.sleep(100);
+        verify(acknowledgment, never()).acknowledge();
+
+        pending.complete(null);
+        batch.get();
+        verify(acknowledgment).acknowledge();
+        assertThat(meterRegistry.get("drink.splitter.batch.size").summary().totalAmount()).isEqualTo(2);
+    }
+
+    @Test
+    void testBatchNotAcknowledgedWhenSendFails() {
+        when(kafkaTemplate.send(anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker unavailable")));
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+
+        assertThatThrownBy(() -> drinkSplitterRouter.receiveBatch(records(
+                orderPlacedEvent(UUID.randomUUID(), BeerStyle.WHEAT),
+                orderPlacedEvent(UUID.randomUUID(), BeerStyle.ALE)), acknowledgment))
+                .isInstanceOf(KafkaException.class);
+
+        verify(acknowledgment, never()).acknowledge();
+        assertThat(meterRegistry.get("drink.splitter.send.failed")
+                .tag("topic", KafkaConfig.DRINK_REQUEST_COOL_TOPIC).counter().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,51 @@
+package guru.springframework.spring6restmvc.listeners;
+
+import guru.springframework.spring6restmvc.configs.KafkaConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+import org.springframework.test.annotation.DirtiesContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The drink splitter's container runs the configured number of consumers, and each of them takes its share of the
+ * placed order partitions.
+ */
+@SpringBootTest(properties = "app.drink-splitter.concurrency=" + ListenerConcurrencyScalingTest.PARTITIONS)
+@EmbeddedKafka(controlledShutdown = true, topics = {KafkaConfig.ORDER_PLACED_TOPIC},
+        partitions = ListenerConcurrencyScalingTest.PARTITIONS, kraft = true)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class ListenerConcurrencyScalingTest {
+
+    static final int PARTITIONS = 4;
+
+    @Autowired
+    KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+
+    @Test
+    void testDrinkSplitterConsumesEveryPartitionConcurrently() {
+        ConcurrentMessageListenerContainer<?, ?> container = kafkaListenerEndpointRegistry.getListenerContainers().stream()
+                .filter(listenerContainer -> DrinkSplitterRouter.GROUP_ID.equals(listenerContainer.getGroupId()))
+                .map(ConcurrentMessageListenerContainer.class::cast)
+                .findFirst()
+                .orElseThrow();
+
+        ContainerTestUtils.waitForAssignment(container, PARTITIONS);
+
+        assertThat(container.getConcurrency()).isEqualTo(PARTITIONS);
+        assertThat(container.getContainers()).hasSize(PARTITIONS);
+        assertThat(container.getContainers())
+                .extracting(MessageListenerContainer::getAssignedPartitions)
+                .allSatisfy(assignedPartitions -> assertThat(assignedPartitions).hasSize(1));
+        assertThat(container.getAssignedPartitions())
+                .extracting(TopicPartition::partition)
+                .containsExactlyInAnyOrder(0, 1, 2, 3);
+    }
+}
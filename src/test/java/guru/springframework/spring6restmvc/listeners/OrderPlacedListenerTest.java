@@ -1,6 +1,7 @@
 package guru.springframework.spring6restmvc.listeners;
 
 import guru.springframework.spring6restmvc.configs.KafkaConfig;
+import guru.springframework.spring6restmvc.repositories.OutboxEventRepository;
 import guru.springframework.spring6restmvcapi.events.OrderPlacedEvent;
 import guru.springframework.spring6restmvcapi.models.BeerDTO;
 import guru.springframework.spring6restmvcapi.models.BeerOrderDTO;
@@ -38,6 +39,9 @@ class OrderPlacedListenerTest {
     @Autowired
     private OrderPlacedKafkaListener orderPlacedKafkaListener;
 
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
     @Autowired
     private DrinkSplitterRouter drinkSplitterRouter;
 
@@ -60,6 +64,7 @@ class OrderPlacedListenerTest {
         orderPlacedListener.handleOrderPlacedEvent(orderPlacedEvent);
 
         await().atMost(5, TimeUnit.SECONDS).untilAsserted(() -> assertEquals(1, orderPlacedKafkaListener.messageCounter.get()));
+        await().atMost(5, TimeUnit.SECONDS).untilAsserted(() -> assertEquals(0, outboxEventRepository.count()));
     }
 
     @Test
@@ -2,6 +2,7 @@ package guru.springframework.spring6restmvc.repositories;
 
 import guru.springframework.spring6restmvc.bootstrap.BootstrapData;
 import guru.springframework.spring6restmvc.entities.Beer;
+import guru.springframework.spring6restmvc.services.BeerCsvImportServiceImpl;
 import guru.springframework.spring6restmvc.services.BeerCsvServiceImpl;
 import guru.springframework.spring6restmvcapi.models.BeerStyle;
 import jakarta.validation.ConstraintViolationException;
@@ -10,14 +11,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 
 import java.math.BigDecimal;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @DataJpaTest
-@Import({BootstrapData.class, BeerCsvServiceImpl.class})
+@Import({BootstrapData.class, BeerCsvServiceImpl.class, BeerCsvImportServiceImpl.class})
 class BeerRepositoryTest {
 
     @Autowired
@@ -35,6 +39,38 @@ class BeerRepositoryTest {
         assertThat(ipaList.getContent().size()).isEqualTo(548);
     }
 
+    @Test
+    void testGetBeerSliceAfterKeyset() {
+        Slice<Beer> firstSlice = beerRepository.findAllByBeerStyleOrderByBeerNameAscIdAsc(BeerStyle.IPA, PageRequest.ofSize(10));
+        Beer last = firstSlice.getContent().getLast();
+
+        Slice<Beer> nextSlice = beerRepository.findAllByBeerStyleAfter(BeerStyle.IPA, last.getBeerName(), last.getId(), PageRequest.ofSize(10));
+
+        assertThat(firstSlice.hasNext()).isTrue();
+        assertThat(nextSlice.getContent().size()).isEqualTo(10);
+        assertThat(nextSlice.getContent()).doesNotContainAnyElementsOf(firstSlice.getContent());
+        assertThat(nextSlice.getContent().getFirst().getBeerName()).isGreaterThanOrEqualTo(last.getBeerName());
+    }
+
+    @Test
+    void testFindForUpdateById() {
+        Beer beer = beerRepository.saveAndFlush(Beer.builder()
+                .beerName("Stock Beer")
+                .beerStyle(BeerStyle.LAGER)
+                .upc("123456789")
+                .price(new BigDecimal("12.98"))
+                .quantityOnHand(10)
+                .build());
+
+        beerRepository.findForUpdateById(beer.getId()).orElseThrow().setQuantityOnHand(6);
+        beerRepository.flush();
+
+        Beer adjusted = beerRepository.findById(beer.getId()).orElseThrow();
+        assertThat(adjusted.getQuantityOnHand()).isEqualTo(6);
+        assertThat(adjusted.getVersion()).isEqualTo(beer.getVersion() + 1);
+        assertThat(beerRepository.findForUpdateById(UUID.randomUUID())).isEmpty();
+    }
+
     @Test
     void testSaveBeer() {
         Beer savedBeer = beerRepository.save(Beer.builder()
@@ -47,6 +83,7 @@ class BeerRepositoryTest {
         beerRepository.flush();
         assertThat(savedBeer).isNotNull();
         assertThat(savedBeer.getId()).isNotNull();
+        assertThat(savedBeer.getId().version()).isEqualTo(7);
         assertThat(savedBeer.getBeerName()).isEqualTo("My Beer");
     }
 
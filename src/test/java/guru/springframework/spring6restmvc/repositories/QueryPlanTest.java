@@ -0,0 +1,219 @@
+package guru.springframework.spring6restmvc.repositories;
+
+import guru.springframework.spring6restmvc.bootstrap.BootstrapData;
+import guru.springframework.spring6restmvc.entities.Beer;
+import guru.springframework.spring6restmvc.entities.BeerOrder;
+import guru.springframework.spring6restmvc.services.BeerCsvImportServiceImpl;
+import guru.springframework.spring6restmvc.services.BeerCsvServiceImpl;
+import guru.springframework.spring6restmvcapi.models.BeerStyle;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every repository query and replays the SQL it issued under {@code EXPLAIN}. Queries on hot paths must be
+ * answered from an index, a full table scan fails the test. Runs against MySQL mode H2 with the indexes declared on
+ * the entities, or against the Flyway schema of a real MySQL when {@code -Dqueryplan.jdbc.url} (plus
+ * {@code queryplan.jdbc.username} and {@code queryplan.jdbc.password}) is set.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({BootstrapData.class, BeerCsvServiceImpl.class, BeerCsvImportServiceImpl.class, QueryPlanTest.Config.class})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTest {
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        static StatementRecorder statementRecorder() {
+            return new StatementRecorder();
+        }
+    }
+
+    @DynamicPropertySource
+    static void dataSourceProperties(DynamicPropertyRegistry registry) {
+        String mysqlUrl = System.getProperty("queryplan.jdbc.url");
+        if (mysqlUrl == null) {
+            registry.add("spring.datasource.url", () -> "jdbc:h2:mem:queryplan;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+            registry.add("spring.datasource.username", () -> "sa");
+            registry.add("spring.datasource.password", () -> "");
+        } else {
+            registry.add("spring.datasource.url", () -> mysqlUrl);
+            registry.add("spring.datasource.username", () -> System.getProperty("queryplan.jdbc.username"));
+            registry.add("spring.datasource.password", () -> System.getProperty("queryplan.jdbc.password"));
+            registry.add("spring.jpa.database", () -> "mysql");
+            registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+            registry.add("spring.flyway.enabled", () -> "true");
+        }
+    }
+
+    record QueryCase(String name, boolean fullScanAllowed, Consumer<QueryPlanTest> query) {
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    static Stream<QueryCase> queries() {
+        PageRequest byName = PageRequest.of(0, 25, Sort.by(Sort.Order.asc("beerName")));
+        PageRequest firstSlice = PageRequest.ofSize(25);
+
+        return Stream.of(
+                // a leading wildcard can't seek, name searches are served by BeerSearchIndex and only fall back here
+                scan("findAllByBeerNameIsLike", test -> test.beerRepository.findAllByBeerNameIsLike("%IPA%", byName)),
+                scan("findAllByBeerNameIsLikeOrderByBeerNameAscIdAsc", test ->
+                        test.beerRepository.findAllByBeerNameIsLikeOrderByBeerNameAscIdAsc("%IPA%", firstSlice)),
+                // the export reads the whole catalog by design
+                scan("streamAllBy", test -> {
+                    try (Stream<Beer> beers = test.beerRepository.streamAllBy()) {
+                        beers.limit(10).forEach(beer -> {
+                        });
+                    }
+                }),
+
+                indexed("findAllByBeerStyle", test -> test.beerRepository.findAllByBeerStyle(BeerStyle.IPA, byName)),
+                indexed("findAllByBeerNameIsLikeAndBeerStyle", test ->
+                        test.beerRepository.findAllByBeerNameIsLikeAndBeerStyle("%Cat%", BeerStyle.IPA, byName)),
+                indexed("findAllByOrderByBeerNameAscIdAsc", test ->
+                        test.beerRepository.findAllByOrderByBeerNameAscIdAsc(firstSlice)),
+                indexed("findAllByBeerStyleOrderByBeerNameAscIdAsc", test ->
+                        test.beerRepository.findAllByBeerStyleOrderByBeerNameAscIdAsc(BeerStyle.IPA, firstSlice)),
+                indexed("findAllByBeerNameIsLikeAndBeerStyleOrderByBeerNameAscIdAsc", test ->
+                        test.beerRepository.findAllByBeerNameIsLikeAndBeerStyleOrderByBeerNameAscIdAsc("%Cat%", BeerStyle.IPA, firstSlice)),
+                indexed("findAllAfter", test ->
+                        test.beerRepository.findAllAfter(test.beer.getBeerName(), test.beer.getId(), firstSlice)),
+                indexed("findAllByBeerNameIsLikeAfter", test ->
+                        test.beerRepository.findAllByBeerNameIsLikeAfter("%IPA%", test.beer.getBeerName(), test.beer.getId(), firstSlice)),
+                indexed("findAllByBeerStyleAfter", test ->
+                        test.beerRepository.findAllByBeerStyleAfter(BeerStyle.IPA, test.beer.getBeerName(), test.beer.getId(), firstSlice)),
+                indexed("findAllByBeerNameIsLikeAndBeerStyleAfter", test ->
+                        test.beerRepository.findAllByBeerNameIsLikeAndBeerStyleAfter("%IPA%", BeerStyle.IPA,
+                                test.beer.getBeerName(), test.beer.getId(), firstSlice)),
+                indexed("findForUpdateById", test -> test.beerRepository.findForUpdateById(test.beer.getId())),
+
+                indexed("findAllIds", test -> test.beerOrderRepository.findAllIds(PageRequest.of(0, 25))),
+                indexed("findAllByIdIn", test -> test.beerOrderRepository.findAllByIdIn(List.of(test.beerOrder.getId()))),
+                indexed("findWithDetailsById", test -> test.beerOrderRepository.findWithDetailsById(test.beerOrder.getId()))
+        );
+    }
+
+    static QueryCase indexed(String name, Consumer<QueryPlanTest> query) {
+        return new QueryCase(name, false, query);
+    }
+
+    static QueryCase scan(String name, Consumer<QueryPlanTest> query) {
+        return new QueryCase(name, true, query);
+    }
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    @Autowired
+    StatementRecorder statementRecorder;
+
+    Beer beer;
+    BeerOrder beerOrder;
+
+    @BeforeAll
+    void setUp() {
+        beer = beerRepository.findAllByBeerStyle(BeerStyle.IPA, PageRequest.of(1, 1)).getContent().getFirst();
+        beerOrder = beerOrderRepository.findAll(PageRequest.of(0, 1)).getContent().getFirst();
+    }
+
+    @Test
+    void testEveryQueryIsCovered() {
+        List<String> covered = queries().map(QueryCase::name).toList();
+
+        List<String> declared = Stream.of(BeerRepository.class, BeerOrderRepository.class)
+                .flatMap(repository -> Arrays.stream(repository.getDeclaredMethods()))
+                .filter(method -> !method.isDefault() && !method.isSynthetic())
+                .map(method -> method.getName())
+                .toList();
+
+        assertThat(covered).containsAll(declared);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("queries")
+    void testQueryPlan(QueryCase queryCase) throws SQLException {
+        statementRecorder.clear();
+        queryCase.query().accept(this);
+
+        List<StatementRecorder.RecordedStatement> statements = statementRecorder.getStatements();
+        assertThat(statements).as("statements issued by %s", queryCase.name()).isNotEmpty();
+
+        for (StatementRecorder.RecordedStatement statement : statements) {
+            List<String> fullScans = fullScans(statement);
+            if (!queryCase.fullScanAllowed() && !isCount(statement.sql())) {
+                assertThat(fullScans).as("full scans of %s in%n%s", queryCase.name(), statement.sql()).isEmpty();
+            }
+        }
+    }
+
+    /**
+     * A page's total count reads every row (or the smallest index) by definition.
+     */
+    private static boolean isCount(String sql) {
+        return sql.toLowerCase(Locale.ROOT).startsWith("select count(");
+    }
+
+    /**
+     * The tables the plan of the statement reads without an index.
+     */
+    private List<String> fullScans(StatementRecorder.RecordedStatement statement) throws SQLException {
+        try (Connection connection = statementRecorder.getTargetDataSource().getConnection();
+             PreparedStatement explain = connection.prepareStatement("explain " + statement.sql())) {
+            for (int i = 0; i < statement.parameters().size(); i++) {
+                explain.setObject(i + 1, statement.parameters().get(i));
+            }
+
+            boolean mysql = connection.getMetaData().getDatabaseProductName().equalsIgnoreCase("MySQL");
+            List<String> fullScans = new ArrayList<>();
+            try (ResultSet plan = explain.executeQuery()) {
+                while (plan.next()) {
+                    if (mysql) {
+                        // one row per table, access type ALL is a full table scan
+                        if ("ALL".equalsIgnoreCase(plan.getString("type"))) {
+                            fullScans.add(plan.getString("table"));
+                        }
+                    } else {
+                        // one plan text, H2 marks every table it reads without an index with .tableScan
+                        fullScans.addAll(Arrays.stream(plan.getString(1).split("\\s+"))
+                                .filter(token -> token.toLowerCase(Locale.ROOT).endsWith(".tablescan"))
+                                .collect(Collectors.toList()));
+                    }
+                }
+            }
+            return fullScans;
+        }
+    }
+}
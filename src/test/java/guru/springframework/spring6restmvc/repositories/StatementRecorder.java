@@ -0,0 +1,108 @@
+package guru.springframework.spring6restmvc.repositories;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Wraps the application's data source and records every executed prepared statement together with its bound
+ * parameters, so a test can replay it, e.g. under {@code EXPLAIN}.
+ */
+class StatementRecorder implements BeanPostProcessor {
+
+    record RecordedStatement(String sql, List<Object> parameters) {
+    }
+
+    private final List<RecordedStatement> statements = new CopyOnWriteArrayList<>();
+    private DataSource targetDataSource;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && targetDataSource == null) {
+            targetDataSource = dataSource;
+            return new DelegatingDataSource(dataSource) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return recording(super.getConnection());
+                }
+
+                @Override
+                public Connection getConnection(String username, String password) throws SQLException {
+                    return recording(super.getConnection(username, password));
+                }
+            };
+        }
+        return bean;
+    }
+
+    /**
+     * The unwrapped data source, whose statements are not recorded.
+     */
+    DataSource getTargetDataSource() {
+        return targetDataSource;
+    }
+
+    List<RecordedStatement> getStatements() {
+        return List.copyOf(statements);
+    }
+
+    void clear() {
+        statements.clear();
+    }
+
+    private Connection recording(Connection connection) {
+        return proxy(Connection.class, connection, (method, args) -> {
+            Object result = invoke(method, connection, args);
+            if (result instanceof PreparedStatement preparedStatement && method.getName().equals("prepareStatement")) {
+                return recording(preparedStatement, (String) args[0]);
+            }
+            return result;
+        });
+    }
+
+    private PreparedStatement recording(PreparedStatement preparedStatement, String sql) {
+        Map<Integer, Object> parameters = new TreeMap<>();
+        return proxy(PreparedStatement.class, preparedStatement, (method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                parameters.put(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            } else if (name.startsWith("execute") && (args == null || args.length == 0)) {
+                statements.add(new RecordedStatement(sql, new ArrayList<>(parameters.values())));
+            }
+            return invoke(method, preparedStatement, args);
+        });
+    }
+
+    private interface Interceptor {
+        Object intercept(Method method, Object[] args) throws Throwable;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, Interceptor interceptor) {
+        InvocationHandler handler = (proxy, method, args) -> interceptor.intercept(method, args);
+        return (T) Proxy.newProxyInstance(StatementRecorder.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package guru.springframework.spring6restmvc.serializers;
+
+import guru.springframework.spring6restmvc.configs.KafkaConfig;
+import guru.springframework.spring6restmvcapi.events.DrinkRequestEvent;
+import guru.springframework.spring6restmvcapi.events.OrderPlacedEvent;
+import guru.springframework.spring6restmvcapi.models.BeerDTO;
+import guru.springframework.spring6restmvcapi.models.BeerOrderDTO;
+import guru.springframework.spring6restmvcapi.models.BeerOrderLineDTO;
+import guru.springframework.spring6restmvcapi.models.BeerStyle;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BinaryEventSerializerTest {
+
+    BinaryEventSerializer binaryEventSerializer;
+    BinaryEventDeserializer binaryEventDeserializer;
+
+    @BeforeEach
+    void setUp() {
+        binaryEventSerializer = new BinaryEventSerializer();
+        binaryEventDeserializer = new BinaryEventDeserializer();
+        binaryEventDeserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "*"), false);
+    }
+
+    OrderPlacedEvent orderPlacedEvent(int lineCount) {
+        Set<BeerOrderLineDTO> beerOrderLines = new HashSet<>();
+        for (int i = 0; i < lineCount; i++) {
+            beerOrderLines.add(BeerOrderLineDTO.builder()
+                    .id(UUID.randomUUID())
+                    .orderQuantity(i + 1)
+                    .beer(BeerDTO.builder()
+                            .id(UUID.randomUUID())
+                            .beerName("Beer " + i)
+                            .beerStyle(BeerStyle.values()[i % BeerStyle.values().length])
+                            .upc("0" + (100000 + i))
+                            .price(new BigDecimal("12.99"))
+                            .quantityOnHand(100)
+                            .build())
+                    .build());
+        }
+
+        return OrderPlacedEvent.builder()
+                .beerOrderDTO(BeerOrderDTO.builder()
+                        .id(UUID.randomUUID())
+                        .beerOrderLines(beerOrderLines)
+                        .build())
+                .build();
+    }
+
+    @Test
+    void testOrderPlacedEventRoundTrip() {
+        OrderPlacedEvent orderPlacedEvent = orderPlacedEvent(5);
+
+        byte[] data = binaryEventSerializer.serialize(KafkaConfig.ORDER_PLACED_TOPIC, orderPlacedEvent);
+        Object decoded = binaryEventDeserializer.deserialize(KafkaConfig.ORDER_PLACED_TOPIC, new RecordHeaders(), data);
+
+        assertThat(decoded).isInstanceOf(OrderPlacedEvent.class);
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(orderPlacedEvent);
+    }
+
+    @Test
+    void testDrinkRequestEventRoundTrip() {
+        DrinkRequestEvent drinkRequestEvent = DrinkRequestEvent.builder()
+                .beerOrderLine(orderPlacedEvent(1).getBeerOrderDTO().getBeerOrderLines().iterator().next())
+                .build();
+
+        byte[] data = binaryEventSerializer.serialize(KafkaConfig.DRINK_REQUEST_COOL_TOPIC, drinkRequestEvent);
+
+        assertThat(binaryEventDeserializer.deserialize(KafkaConfig.DRINK_REQUEST_COOL_TOPIC, data))
+                .isInstanceOf(DrinkRequestEvent.class)
+                .usingRecursiveComparison().isEqualTo(drinkRequestEvent);
+    }
+
+    @Test
+    void testSmallerThanJson() {
+        OrderPlacedEvent orderPlacedEvent = orderPlacedEvent(10);
+        RecordHeaders headers = new RecordHeaders();
+
+        try (JsonSerializer<Object> jsonSerializer = new JsonSerializer<>()) {
+            byte[] json = jsonSerializer.serialize(KafkaConfig.ORDER_PLACED_TOPIC, headers, orderPlacedEvent);
+            byte[] binary = binaryEventSerializer.serialize(KafkaConfig.ORDER_PLACED_TOPIC, orderPlacedEvent);
+
+            assertThat(binary.length).isLessThan(json.length);
+        }
+    }
+
+    @Test
+    void testReadsJsonRecords() {
+        OrderPlacedEvent orderPlacedEvent = orderPlacedEvent(2);
+        RecordHeaders headers = new RecordHeaders();
+
+        try (JsonSerializer<Object> jsonSerializer = new JsonSerializer<>()) {
+            byte[] json = jsonSerializer.serialize(KafkaConfig.ORDER_PLACED_TOPIC, headers, orderPlacedEvent);
+
+            assertThat(binaryEventDeserializer.deserialize(KafkaConfig.ORDER_PLACED_TOPIC, headers, json))
+                    .usingRecursiveComparison().isEqualTo(orderPlacedEvent);
+        }
+    }
+
+    @Test
+    void testUnsupportedEventType() {
+        assertThatThrownBy(() -> binaryEventSerializer.serialize(KafkaConfig.ORDER_PLACED_TOPIC, "not an event"))
+                .isInstanceOf(SerializationException.class);
+    }
+}
@@ -0,0 +1,148 @@
+package guru.springframework.spring6restmvc.services;
+
+import guru.springframework.spring6restmvc.entities.BeerAudit;
+import guru.springframework.spring6restmvc.repositories.BeerAuditRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class BeerAuditWriterTest {
+
+    BeerAuditRepository beerAuditRepository;
+    SimpleMeterRegistry meterRegistry;
+    BeerAuditWriter beerAuditWriter;
+
+    @BeforeEach
+    void setUp() {
+        beerAuditRepository = mock(BeerAuditRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (beerAuditWriter.isRunning()) {
+            beerAuditWriter.stop();
+        }
+    }
+
+    BeerAuditWriter writer(int bufferCapacity, int batchSize, Duration flushInterval) {
+        return new BeerAuditWriter(beerAuditRepository, mock(PlatformTransactionManager.class), meterRegistry,
+                bufferCapacity, batchSize, flushInterval, Duration.ofMillis(5));
+    }
+
+    BeerAudit audit() {
+        return BeerAudit.builder().id(UUID.randomUUID()).beerName("Galaxy Cat").build();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlushesFullBatchInOneSave() {
+        beerAuditWriter = writer(100, 3, Duration.ofSeconds(10));
+        beerAuditWriter.start();
+
+        beerAuditWriter.enqueue(audit());
+        beerAuditWriter.enqueue(audit());
+        beerAuditWriter.enqueue(audit());
+
+        ArgumentCaptor<List<BeerAudit>> batch = ArgumentCaptor.forClass(List.class);
+        verify(beerAuditRepository, timeout(2000)).saveAll(batch.capture());
+        assertThat(batch.getValue()).hasSize(3);
+        assertThat(meterRegistry.get("beer.audit.flushes").tag("trigger", "size").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testFlushesPartialBatchAfterInterval() {
+        beerAuditWriter = writer(100, 50, Duration.ofMillis(50));
+        beerAuditWriter.start();
+
+        beerAuditWriter.enqueue(audit());
+
+        verify(beerAuditRepository, timeout(2000)).saveAll(anyList());
+        await().atMost(2, TimeUnit.SECONDS).untilAsserted(() ->
+                assertThat(meterRegistry.get("beer.audit.written").counter().count()).isEqualTo(1));
+        assertThat(meterRegistry.get("beer.audit.flushes").tag("trigger", "time").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testFailedBatchLosesOnlyTheBadAudit() {
+        BeerAudit deleted = audit();
+        deleted.setBeerName(null);
+        deleted.setAuditEventType("BEER_DELETED");
+        when(beerAuditRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("beer_name"));
+        when(beerAuditRepository.save(argThat(beerAudit -> beerAudit.getBeerName() == null)))
+                .thenThrow(new DataIntegrityViolationException("beer_name"));
+        beerAuditWriter = writer(100, 3, Duration.ofSeconds(10));
+        beerAuditWriter.start();
+
+        beerAuditWriter.enqueue(audit());
+        beerAuditWriter.enqueue(deleted);
+        beerAuditWriter.enqueue(audit());
+
+        verify(beerAuditRepository, timeout(2000).times(3)).save(any(BeerAudit.class));
+        await().atMost(2, TimeUnit.SECONDS).untilAsserted(() ->
+                assertThat(meterRegistry.get("beer.audit.written").counter().count()).isEqualTo(2));
+        assertThat(meterRegistry.get("beer.audit.failed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testDropsWhenBufferStaysFull() {
+        beerAuditWriter = writer(2, 50, Duration.ofMillis(50));
+
+        assertThat(beerAuditWriter.enqueue(audit())).isTrue();
+        assertThat(beerAuditWriter.enqueue(audit())).isTrue();
+        assertThat(beerAuditWriter.enqueue(audit())).isFalse();
+
+        assertThat(meterRegistry.get("beer.audit.overflow").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("beer.audit.dropped").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("beer.audit.buffer.size").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void testStopDrainsBuffer() {
+        beerAuditWriter = writer(100, 50, Duration.ofSeconds(10));
+        beerAuditWriter.enqueue(audit());
+        beerAuditWriter.enqueue(audit());
+
+        beerAuditWriter.start();
+        beerAuditWriter.stop();
+
+        verify(beerAuditRepository, atLeastOnce()).saveAll(anyList());
+        assertThat(meterRegistry.get("beer.audit.written").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testCountsAuditsAfterStopAsDropped() {
+        beerAuditWriter = writer(100, 50, Duration.ofMillis(50));
+        beerAuditWriter.start();
+        beerAuditWriter.stop();
+
+        assertThat(beerAuditWriter.enqueue(audit())).isFalse();
+        assertThat(meterRegistry.get("beer.audit.dropped").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testStopsAfterWebServer() {
+        beerAuditWriter = writer(100, 50, Duration.ofMillis(50));
+
+        // the web server stops in the graceful shutdown phase and the one below it, later phases stop first
+        assertThat(beerAuditWriter.getPhase())
+                .isLessThan(WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1024);
+    }
+}
@@ -0,0 +1,118 @@
+package guru.springframework.spring6restmvc.services;
+
+import guru.springframework.spring6restmvc.controllers.TooManyImportsException;
+import guru.springframework.spring6restmvc.models.BeerCSVRecord;
+import guru.springframework.spring6restmvc.models.BeerCsvImportProgress;
+import guru.springframework.spring6restmvc.repositories.BeerRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BeerCsvImportServiceImplTest {
+
+    static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    BeerCsvService beerCsvService;
+    BeerRepository beerRepository;
+
+    @BeforeEach
+    void setUp() {
+        beerCsvService = mock(BeerCsvService.class);
+        beerRepository = mock(BeerRepository.class);
+    }
+
+    BeerCsvImportServiceImpl importService(int mappingThreads) {
+        // one row per chunk and room for one chunk per queue, so the workers block on full queues right away
+        return new BeerCsvImportServiceImpl(beerCsvService, beerRepository, mock(EntityManager.class),
+                mock(PlatformTransactionManager.class), mock(ApplicationEventPublisher.class),
+                1, 1, mappingThreads, Duration.ofHours(1), 1);
+    }
+
+    static Stream<BeerCSVRecord> records(int count) {
+        return IntStream.rangeClosed(1, count).mapToObj(row -> {
+            BeerCSVRecord beerCSVRecord = new BeerCSVRecord();
+            beerCSVRecord.setRow(row);
+            beerCSVRecord.setBeer("Beer " + row);
+            beerCSVRecord.setStyle("American IPA");
+            return beerCSVRecord;
+        });
+    }
+
+    @Test
+    void testWriteFailureStopsTheImport() {
+        when(beerCsvService.streamCSV(any(Reader.class))).thenReturn(records(100));
+        when(beerRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        BeerCsvImportServiceImpl importService = importService(4);
+
+        assertTimeoutPreemptively(TIMEOUT, () ->
+                assertThatThrownBy(() -> importService.importBeers(new StringReader("")))
+                        .isInstanceOf(DataIntegrityViolationException.class));
+    }
+
+    @Test
+    void testMapperFailureFailsTheImport() {
+        BeerCSVRecord unmappable = new BeerCSVRecord() {
+            @Override
+            public String getStyle() {
+                throw new IllegalArgumentException("unmappable style");
+            }
+        };
+        unmappable.setBeer("Unmappable Beer");
+        when(beerCsvService.streamCSV(any(Reader.class))).thenReturn(Stream.concat(Stream.of(unmappable), records(100)));
+
+        // the only mapper dies, nothing takes the parser's chunks any more
+        BeerCsvImportServiceImpl importService = importService(1);
+
+        assertTimeoutPreemptively(TIMEOUT, () ->
+                assertThatThrownBy(() -> importService.importBeers(new StringReader("")))
+                        .isInstanceOf(IllegalStateException.class)
+                        .hasRootCauseMessage("unmappable style"));
+    }
+
+    @Test
+    void testRejectsImportWhileMaximumIsRunning() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(beerCsvService.streamCSV(any(Reader.class))).thenAnswer(invocation -> {
+            release.await(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+            return records(1);
+        });
+        BeerCsvImportServiceImpl importService = importService(1);
+
+        BeerCsvImportProgress running = importService.startImport(Files.createTempFile("beer-import-", ".csv"));
+        Path rejected = Files.createTempFile("beer-import-", ".csv");
+
+        assertThatThrownBy(() -> importService.startImport(rejected))
+                .isInstanceOf(TooManyImportsException.class);
+        assertThat(rejected).doesNotExist();
+
+        release.countDown();
+        await().atMost(TIMEOUT).until(() -> importService.getImport(running.getImportId()).orElseThrow().getStatus(),
+                status -> status == BeerCsvImportProgress.Status.COMPLETED);
+
+        assertThat(importService.startImport(Files.createTempFile("beer-import-", ".csv")).getStatus())
+                .isEqualTo(BeerCsvImportProgress.Status.RUNNING);
+    }
+}
@@ -6,6 +6,9 @@ import org.springframework.util.ResourceUtils;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -23,4 +26,13 @@ class BeerCsvServiceImplTest {
 
         assertThat(recs.size()).isGreaterThan(0);
     }
+
+    @Test
+    void streamCSV() throws IOException {
+        File file = ResourceUtils.getFile("classpath:csvdata/beers.csv");
+
+        try (Reader reader = new FileReader(file)) {
+            assertThat(csvService.streamCSV(reader).count()).isEqualTo(csvService.convertCSV(file).size());
+        }
+    }
 }
\ No newline at end of file
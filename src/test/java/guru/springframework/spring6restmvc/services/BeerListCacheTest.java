@@ -0,0 +1,113 @@
+package guru.springframework.spring6restmvc.services;
+
+import guru.springframework.spring6restmvc.configs.CacheConfig;
+import guru.springframework.spring6restmvcapi.models.BeerDTO;
+import guru.springframework.spring6restmvcapi.models.BeerStyle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BeerListCacheTest {
+
+    CacheManager cacheManager;
+    SimpleMeterRegistry meterRegistry;
+    BeerListCache beerListCache;
+
+    BeerDTO galaxyCat = BeerDTO.builder().id(UUID.randomUUID()).beerName("Galaxy Cat").beerStyle(BeerStyle.PALE_ALE).build();
+    BeerDTO sunshineCity = BeerDTO.builder().id(UUID.randomUUID()).beerName("Sunshine City").beerStyle(BeerStyle.IPA).build();
+
+    BeerListCacheKey paleAleKey = new BeerListCacheKey(null, BeerStyle.PALE_ALE, null, 1, 25);
+    BeerListCacheKey ipaKey = new BeerListCacheKey(null, BeerStyle.IPA, null, 1, 25);
+    BeerListCacheKey cityKey = new BeerListCacheKey("city", null, null, 1, 25);
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager(CacheConfig.BEER_LIST_CACHE);
+        meterRegistry = new SimpleMeterRegistry();
+        beerListCache = new BeerListCache(cacheManager, meterRegistry);
+
+        beerListCache.get(paleAleKey, () -> new PageImpl<>(List.of(galaxyCat)));
+        beerListCache.get(ipaKey, () -> new PageImpl<>(List.of(sunshineCity)));
+        beerListCache.get(cityKey, () -> new PageImpl<>(List.of(sunshineCity)));
+    }
+
+    @Test
+    void testHitAndMissAreCounted() {
+        Page<BeerDTO> page = beerListCache.get(paleAleKey, () -> Page.empty());
+
+        assertThat(page.getContent()).containsExactly(galaxyCat);
+        assertThat(meterRegistry.get("beer.list.cache.gets").tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("beer.list.cache.gets").tag("result", "miss").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void testInsertEvictsOnlyMatchingStyle() {
+        beerListCache.evictForInsert("Crank", BeerStyle.PALE_ALE);
+
+        assertThat(isCached(paleAleKey)).isFalse();
+        assertThat(isCached(ipaKey)).isTrue();
+        assertThat(isCached(cityKey)).isTrue();
+        assertThat(meterRegistry.get("beer.list.cache.evictions").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testStyleChangeEvictsOldAndNewStyle() {
+        beerListCache.evictForUpdate(galaxyCat.getId(), "Galaxy Cat", BeerStyle.PALE_ALE, "Galaxy Cat", BeerStyle.IPA);
+
+        assertThat(isCached(paleAleKey)).isFalse();
+        assertThat(isCached(ipaKey)).isFalse();
+        assertThat(isCached(cityKey)).isTrue();
+    }
+
+    @Test
+    void testValueOnlyUpdateEvictsPagesContainingBeer() {
+        beerListCache.evictForUpdate(sunshineCity.getId(), "Sunshine City", BeerStyle.IPA, "Sunshine City", BeerStyle.IPA);
+
+        assertThat(isCached(paleAleKey)).isTrue();
+        assertThat(isCached(ipaKey)).isFalse();
+        assertThat(isCached(cityKey)).isFalse();
+    }
+
+    @Test
+    void testNameFilterMatchesCaseInsensitive() {
+        beerListCache.evictForDelete("CITY LIGHTS", BeerStyle.STOUT);
+
+        assertThat(isCached(cityKey)).isFalse();
+        assertThat(isCached(paleAleKey)).isTrue();
+        assertThat(isCached(ipaKey)).isTrue();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testEvictionWalksCaffeineEntriesWithoutCountingGets() {
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager(CacheConfig.BEER_LIST_CACHE);
+        caffeineCacheManager.setCaffeine(Caffeine.newBuilder().maximumSize(100).recordStats());
+        cacheManager = caffeineCacheManager;
+        beerListCache = new BeerListCache(cacheManager, new SimpleMeterRegistry());
+        beerListCache.get(paleAleKey, () -> new PageImpl<>(List.of(galaxyCat)));
+        beerListCache.get(ipaKey, () -> new PageImpl<>(List.of(sunshineCity)));
+
+        var nativeCache = (com.github.benmanes.caffeine.cache.Cache<Object, Object>) cacheManager.getCache(CacheConfig.BEER_LIST_CACHE).getNativeCache();
+        long requests = nativeCache.stats().requestCount();
+
+        beerListCache.evictForUpdate(galaxyCat.getId(), "Galaxy Cat", BeerStyle.PALE_ALE, "Galaxy Cat", BeerStyle.PALE_ALE);
+
+        assertThat(nativeCache.stats().requestCount()).isEqualTo(requests);
+        assertThat(nativeCache.asMap()).containsOnlyKeys(ipaKey);
+    }
+
+    private boolean isCached(BeerListCacheKey key) {
+        return cacheManager.getCache(CacheConfig.BEER_LIST_CACHE).get(key) != null;
+    }
+}
@@ -0,0 +1,109 @@
+package guru.springframework.spring6restmvc.services;
+
+import guru.springframework.spring6restmvc.entities.Beer;
+import guru.springframework.spring6restmvc.entities.BeerOrder;
+import guru.springframework.spring6restmvc.entities.Customer;
+import guru.springframework.spring6restmvc.repositories.BeerOrderRepository;
+import guru.springframework.spring6restmvc.repositories.BeerRepository;
+import guru.springframework.spring6restmvc.repositories.CustomerRepository;
+import guru.springframework.spring6restmvcapi.models.BeerOrderCreateDTO;
+import guru.springframework.spring6restmvcapi.models.BeerOrderDTO;
+import guru.springframework.spring6restmvcapi.models.BeerOrderLineCreateDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class BeerOrderServiceJPATest {
+
+    @Autowired
+    BeerOrderService beerOrderService;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    CustomerRepository customerRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @Test
+    void testGetAllBeerOrdersStatementCount() {
+        Page<BeerOrderDTO> beerOrders = beerOrderService.getAllBeerOrders(0, 25);
+
+        assertThat(beerOrders.getContent()).isNotEmpty();
+        assertThat(beerOrders.getContent()).allSatisfy(beerOrder ->
+                assertThat(beerOrder.getBeerOrderLines()).allSatisfy(line -> assertThat(line.getBeer()).isNotNull()));
+        // id page, count and one fetch for orders with customer, shipment, lines and beers
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void testGetBeerOrderByIdStatementCount() {
+        var beerOrderId = beerOrderRepository.findAll().getFirst().getId();
+        statistics.clear();
+
+        BeerOrderDTO beerOrder = beerOrderService.getBeerOrderById(beerOrderId).orElseThrow();
+
+        assertThat(beerOrder.getId()).isEqualTo(beerOrderId);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testCreateBeerOrderUsesSecondLevelCache() {
+        var customer = customerRepository.findAll().getFirst();
+        var beerOrderCreateDTO = BeerOrderCreateDTO.builder()
+                .customerId(customer.getId())
+                .beerOrderLines(beerRepository.findAll(PageRequest.of(0, 3)).stream()
+                        .map(beer -> BeerOrderLineCreateDTO.builder()
+                                .beerId(beer.getId())
+                                .orderQuantity(1)
+                                .build())
+                        .collect(Collectors.toSet()))
+                .build();
+
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+        BeerOrder coldOrder = beerOrderService.createBeerOrder(beerOrderCreateDTO);
+        long coldStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        BeerOrder warmOrder = beerOrderService.createBeerOrder(beerOrderCreateDTO);
+        long warmStatements = statistics.getPrepareStatementCount();
+
+        try {
+            // the customer and the beers come from the second level cache, only the inserts go to the database
+            assertThat(warmStatements).isLessThan(coldStatements);
+            assertThat(statistics.getDomainDataRegionStatistics(Customer.CACHE_REGION).getHitCount()).isEqualTo(1);
+            assertThat(statistics.getDomainDataRegionStatistics(Customer.CACHE_REGION).getMissCount()).isZero();
+            assertThat(statistics.getDomainDataRegionStatistics(Beer.CACHE_REGION).getHitCount()).isEqualTo(3);
+            assertThat(statistics.getDomainDataRegionStatistics(Beer.CACHE_REGION).getMissCount()).isZero();
+        } finally {
+            beerOrderService.deleteBeerOrder(coldOrder.getId());
+            beerOrderService.deleteBeerOrder(warmOrder.getId());
+        }
+    }
+}
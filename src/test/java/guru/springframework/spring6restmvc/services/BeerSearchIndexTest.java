@@ -0,0 +1,121 @@
+package guru.springframework.spring6restmvc.services;
+
+import guru.springframework.spring6restmvc.bootstrap.BootstrapData;
+import guru.springframework.spring6restmvc.entities.Beer;
+import guru.springframework.spring6restmvc.events.BeerCreatedEvent;
+import guru.springframework.spring6restmvc.events.BeerDeletedEvent;
+import guru.springframework.spring6restmvc.repositories.BeerRepository;
+import guru.springframework.spring6restmvcapi.models.BeerStyle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Import({BootstrapData.class, BeerCsvServiceImpl.class, BeerCsvImportServiceImpl.class, BeerSearchIndex.class})
+class BeerSearchIndexTest {
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    BeerSearchIndex beerSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        beerSearchIndex.rebuild();
+    }
+
+    @Test
+    void testSearchByName() {
+        List<BeerSearchIndex.IndexedBeer> matches = beerSearchIndex.search("IPA", null).orElseThrow();
+        assertThat(matches.size()).isEqualTo(336);
+    }
+
+    @Test
+    void testSearchByNameAndStyle() {
+        List<BeerSearchIndex.IndexedBeer> matches = beerSearchIndex.search("IPA", BeerStyle.IPA).orElseThrow();
+        assertThat(matches.size()).isEqualTo(310);
+    }
+
+    @Test
+    void testSearchIsCaseInsensitive() {
+        assertThat(beerSearchIndex.search("ipa", null).orElseThrow().size()).isEqualTo(336);
+    }
+
+    @Test
+    void testSearchShortTerm() {
+        assertThat(beerSearchIndex.search("IP", null).orElseThrow().size()).isGreaterThanOrEqualTo(336);
+    }
+
+    @Test
+    void testSearchUnknownTerm() {
+        assertThat(beerSearchIndex.search("zzzzzz", null).orElseThrow()).isEmpty();
+    }
+
+    @Test
+    void testIndexFollowsBeerEvents() {
+        Beer beer = Beer.builder().id(UUID.randomUUID()).beerName("Quxbeer Special").beerStyle(BeerStyle.ALE).build();
+
+        beerSearchIndex.onBeerEvent(new BeerCreatedEvent(beer, null));
+        assertThat(beerSearchIndex.search("quxbeer", null).orElseThrow()).hasSize(1);
+
+        beerSearchIndex.onBeerEvent(new BeerDeletedEvent(Beer.builder().id(beer.getId()).build(), null));
+        assertThat(beerSearchIndex.search("quxbeer", null).orElseThrow()).isEmpty();
+    }
+
+    @Test
+    void testSearchLeavesWildcardTermsToLike() {
+        assertThat(beerSearchIndex.search("IP_", null)).isEmpty();
+        assertThat(beerSearchIndex.search("100%", null)).isEmpty();
+    }
+
+    @Test
+    void testListingOrderIgnoresCase() {
+        Beer lower = Beer.builder().id(UUID.randomUUID()).beerName("quxbeer b").beerStyle(BeerStyle.ALE).build();
+        Beer upper = Beer.builder().id(UUID.randomUUID()).beerName("Quxbeer C").beerStyle(BeerStyle.ALE).build();
+        beerSearchIndex.onBeerEvent(new BeerCreatedEvent(upper, null));
+        beerSearchIndex.onBeerEvent(new BeerCreatedEvent(lower, null));
+
+        assertThat(beerSearchIndex.search("quxbeer", null).orElseThrow())
+                .extracting(BeerSearchIndex.IndexedBeer::id)
+                .containsExactly(lower.getId(), upper.getId());
+    }
+
+    @Test
+    void testRebuildKeepsEventsAppliedWhileScanning() {
+        Beer beer = Beer.builder().id(UUID.randomUUID()).beerName("Quxbeer Special").beerStyle(BeerStyle.ALE).build();
+        BeerRepository scanningRepository = mock(BeerRepository.class);
+        BeerSearchIndex rebuildingIndex = new BeerSearchIndex(scanningRepository);
+        when(scanningRepository.findAllByOrderByBeerNameAscIdAsc(any())).thenAnswer(invocation -> {
+            rebuildingIndex.onBeerEvent(new BeerCreatedEvent(beer, null));
+            return beerRepository.findAllByOrderByBeerNameAscIdAsc(invocation.getArgument(0));
+        });
+        when(scanningRepository.findAllAfter(any(), any(), any())).thenAnswer(invocation ->
+                beerRepository.findAllAfter(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2)));
+
+        rebuildingIndex.rebuild();
+
+        assertThat(rebuildingIndex.search("quxbeer", null).orElseThrow()).hasSize(1);
+    }
+
+    @Test
+    void testMatchesLikeQuery() {
+        for (String term : List.of("IPA", "Pale", "Stout", "Brewing")) {
+            long likeMatches = beerRepository.findAllByBeerNameIsLike("%" + term + "%", PageRequest.of(0, 25)).getTotalElements();
+            long indexMatches = beerSearchIndex.search(term, null).orElseThrow().size();
+
+            assertThat(indexMatches).as(term).isEqualTo(likeMatches);
+        }
+    }
+}
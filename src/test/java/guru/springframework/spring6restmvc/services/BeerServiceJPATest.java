@@ -0,0 +1,89 @@
+package guru.springframework.spring6restmvc.services;
+
+import guru.springframework.spring6restmvc.entities.Beer;
+import guru.springframework.spring6restmvc.repositories.BeerRepository;
+import guru.springframework.spring6restmvcapi.models.BeerDTO;
+import guru.springframework.spring6restmvcapi.models.BeerStyle;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class BeerServiceJPATest {
+
+    @Autowired
+    BeerService beerService;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    BeerListCache beerListCache;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        beerListCache.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    void testCachedListingDoesNotBeginTransaction() {
+        beerService.getAllBeers(null, BeerStyle.IPA, true, 1, 25);
+
+        statistics.clear();
+        beerService.getAllBeers(null, BeerStyle.IPA, true, 1, 25);
+
+        assertThat(statistics.getTransactionCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void testCachedBeerDoesNotBeginTransaction() {
+        UUID beerId = beerRepository.findAll(PageRequest.of(0, 1)).getContent().getFirst().getId();
+        beerService.getBeerById(beerId);
+
+        statistics.clear();
+        beerService.getBeerById(beerId);
+
+        assertThat(statistics.getTransactionCount()).isZero();
+    }
+
+    @Test
+    void testUpdateEvictsAfterCommit() {
+        Beer beer = beerRepository.findAll(PageRequest.of(0, 1)).getContent().getFirst();
+        Integer quantityOnHand = beer.getQuantityOnHand();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                beerService.updateBeerPartiallyById(beer.getId(), BeerDTO.builder().quantityOnHand(4242).build(), null);
+
+                // a concurrent read still sees and caches the committed beer
+                CompletableFuture.runAsync(() -> beerService.getBeerById(beer.getId())).join();
+            });
+
+            assertThat(beerService.getBeerById(beer.getId()).orElseThrow().getQuantityOnHand()).isEqualTo(4242);
+        } finally {
+            beerService.updateBeerPartiallyById(beer.getId(), BeerDTO.builder().quantityOnHand(quantityOnHand).build(), null);
+        }
+    }
+}
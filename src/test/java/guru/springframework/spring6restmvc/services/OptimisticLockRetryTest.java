@@ -0,0 +1,74 @@
+package guru.springframework.spring6restmvc.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OptimisticLockRetryTest {
+
+    SimpleMeterRegistry meterRegistry;
+    OptimisticLockRetry optimisticLockRetry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        optimisticLockRetry = new OptimisticLockRetry(meterRegistry, 3, Duration.ofMillis(1), Duration.ofMillis(5));
+    }
+
+    double count(String name) {
+        return meterRegistry.get(name).tag("operation", "beer.patch").counter().count();
+    }
+
+    @Test
+    void testRetriesUntilNoConflict() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = optimisticLockRetry.execute("beer.patch", true, () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("conflict");
+            }
+            return "updated";
+        });
+
+        assertThat(result).isEqualTo("updated");
+        assertThat(attempts).hasValue(3);
+        assertThat(count("optimistic.lock.conflicts")).isEqualTo(2);
+        assertThat(count("optimistic.lock.retries")).isEqualTo(2);
+    }
+
+    @Test
+    void testGivesUpAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> optimisticLockRetry.execute("beer.patch", true, () -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockingFailureException("conflict");
+        })).isInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(attempts).hasValue(3);
+        assertThat(count("optimistic.lock.conflicts")).isEqualTo(3);
+        assertThat(count("optimistic.lock.retries")).isEqualTo(2);
+        assertThat(count("optimistic.lock.exhausted")).isEqualTo(1);
+    }
+
+    @Test
+    void testConditionalWriteNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> optimisticLockRetry.execute("beer.patch", false, () -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockingFailureException("stale version");
+        })).isInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(attempts).hasValue(1);
+        assertThat(count("optimistic.lock.conflicts")).isEqualTo(1);
+        assertThat(meterRegistry.find("optimistic.lock.retries").counter()).isNull();
+    }
+}
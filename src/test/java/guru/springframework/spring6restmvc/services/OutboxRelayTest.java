@@ -0,0 +1,151 @@
+package guru.springframework.spring6restmvc.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.spring6restmvc.entities.OutboxEvent;
+import guru.springframework.spring6restmvc.repositories.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+
+    static final int MAX_ATTEMPTS = 3;
+
+    OutboxEventRepository outboxEventRepository;
+    KafkaTemplate<String, Object> kafkaTemplate;
+    SimpleMeterRegistry meterRegistry;
+    OutboxRelay outboxRelay;
+
+    UUID firstOrder = UUID.randomUUID();
+    UUID secondOrder = UUID.randomUUID();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        outboxEventRepository = mock(OutboxEventRepository.class);
+        kafkaTemplate = mock(KafkaTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        outboxRelay = new OutboxRelay(outboxEventRepository, kafkaTemplate, new ObjectMapper(),
+                mock(PlatformTransactionManager.class), meterRegistry, 100, Duration.ofSeconds(1), MAX_ATTEMPTS);
+    }
+
+    OutboxEvent outboxEvent(UUID aggregateId, String name, int attempts) {
+        return OutboxEvent.builder()
+                .id(UUID.randomUUID())
+                .aggregateType("BeerOrder")
+                .aggregateId(aggregateId)
+                .topic("order.placed")
+                .eventType(Map.class.getName())
+                .payload("{\"name\": \"" + name + "\"}")
+                .attempts(attempts)
+                .build();
+    }
+
+    void outbox(OutboxEvent... outboxEvents) {
+        when(outboxEventRepository.findRelayable(any(LocalDateTime.class), anyInt(), any(Pageable.class)))
+                .thenReturn(List.of(outboxEvents))
+                .thenReturn(List.of());
+    }
+
+    void broker(String failingName) {
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            ProducerRecord<String, Object> producerRecord = invocation.getArgument(0);
+            return failingName.equals(((Map<?, ?>) producerRecord.value()).get("name"))
+                    ? CompletableFuture.failedFuture(new IllegalStateException("broker unavailable"))
+                    : CompletableFuture.completedFuture(mock(SendResult.class));
+        });
+    }
+
+    static List<UUID> ids(OutboxEvent... outboxEvents) {
+        return Arrays.stream(outboxEvents).map(OutboxEvent::getId).toList();
+    }
+
+    static ProducerRecord<String, Object> recordOf(OutboxEvent outboxEvent) {
+        return argThat(producerRecord -> outboxEvent.getId().toString().equals(new String(
+                producerRecord.headers().lastHeader(OutboxRelay.OUTBOX_EVENT_ID_HEADER).value(), StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testLaterEventsOfFailedAggregateAreNotSent() {
+        OutboxEvent placed = outboxEvent(firstOrder, "placed", 0);
+        OutboxEvent paid = outboxEvent(firstOrder, "paid", 0);
+        OutboxEvent other = outboxEvent(secondOrder, "other", 0);
+        outbox(placed, paid, other);
+        broker("placed");
+
+        outboxRelay.relay();
+
+        verify(kafkaTemplate, times(2)).send(any(ProducerRecord.class));
+        verify(kafkaTemplate, never()).send(recordOf(paid));
+        verify(outboxEventRepository).deleteAllInBatch(List.of(other));
+        verify(outboxEventRepository).recordFailedAttempts(ids(placed));
+        verify(outboxEventRepository).releaseClaims(ids(paid));
+        assertThat(meterRegistry.get("outbox.events.failed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testEventsOfOneAggregateAreSentInOrder() {
+        OutboxEvent placed = outboxEvent(firstOrder, "placed", 0);
+        OutboxEvent paid = outboxEvent(firstOrder, "paid", 0);
+        outbox(placed, paid);
+        broker("none");
+
+        outboxRelay.relay();
+
+        InOrder sends = inOrder(kafkaTemplate);
+        sends.verify(kafkaTemplate).send(recordOf(placed));
+        sends.verify(kafkaTemplate).send(recordOf(paid));
+        verify(outboxEventRepository).deleteAllInBatch(List.of(placed, paid));
+        verify(outboxEventRepository, never()).recordFailedAttempts(anyCollection());
+        verify(outboxEventRepository, never()).releaseClaims(anyCollection());
+        assertThat(meterRegistry.get("outbox.events.published").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testEventIsPoisonedAfterMaxAttempts() {
+        OutboxEvent placed = outboxEvent(firstOrder, "placed", MAX_ATTEMPTS - 1);
+        outbox(placed);
+        broker("placed");
+
+        outboxRelay.relay();
+
+        verify(outboxEventRepository).recordFailedAttempts(ids(placed));
+        assertThat(meterRegistry.get("outbox.events.poisoned").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testUnreadableEventCountsAsFailedAttempt() {
+        OutboxEvent unreadable = outboxEvent(firstOrder, "placed", 0);
+        unreadable.setEventType("guru.springframework.NoSuchEvent");
+        outbox(unreadable);
+        broker("none");
+
+        outboxRelay.relay();
+
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
+        verify(outboxEventRepository).recordFailedAttempts(ids(unreadable));
+        assertThat(meterRegistry.get("outbox.events.poisoned").counter().count()).isZero();
+    }
+}